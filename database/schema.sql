@@ -81,8 +81,10 @@ CREATE TABLE provider_invitations (
 CREATE TABLE user_sessions (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     user_id BIGINT NOT NULL,
-    session_token VARCHAR(255) NOT NULL,
-    refresh_token VARCHAR(255),
+    session_token VARCHAR(64) NOT NULL COMMENT 'SHA-256 del JWT',
+    refresh_token VARCHAR(64) COMMENT 'SHA-256 del refresh token',
+    previous_refresh_token VARCHAR(64) COMMENT 'SHA-256 del refresh token reemplazado en la última rotación',
+    rotated_at TIMESTAMP NULL COMMENT 'Última rotación; los tokens rotados se derivan de esta fecha',
     expires_at TIMESTAMP NOT NULL,
     is_active BOOLEAN DEFAULT TRUE,
     ip_address VARCHAR(45),
@@ -91,8 +93,11 @@ CREATE TABLE user_sessions (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     INDEX idx_session_token (session_token),
+    INDEX idx_refresh_token (refresh_token),
+    INDEX idx_previous_refresh_token (previous_refresh_token),
     INDEX idx_user_id (user_id),
-    INDEX idx_expires_at (expires_at)
+    INDEX idx_expires_at (expires_at),
+    INDEX idx_active_updated (is_active, updated_at)
 ) ENGINE=InnoDB COMMENT='Sesiones activas de usuarios';
 
 -- Tabla para tokens de recuperación de contraseña
@@ -105,9 +110,23 @@ CREATE TABLE password_reset_tokens (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     INDEX idx_token (token),
-    INDEX idx_user_id (user_id)
+    INDEX idx_user_id (user_id),
+    INDEX idx_expires_at (expires_at)
 ) ENGINE=InnoDB COMMENT='Tokens para recuperación de contraseña';
 
+-- Rollup diario de crecimiento de usuarios
+-- REGISTRATION: usuarios por fecha de registro, segment = rol.
+-- VERIFICATION: proveedores por fecha de verificación, segment = estado (VERIFIED o REJECTED).
+-- Refleja el estado actual de las tablas: se ajusta al crear, modificar o eliminar usuarios y proveedores.
+CREATE TABLE user_growth_daily_rollups (
+    stat_date DATE NOT NULL,
+    event_type ENUM('REGISTRATION', 'VERIFICATION') NOT NULL,
+    segment VARCHAR(20) NOT NULL,
+    users_count INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (stat_date, event_type, segment)
+) ENGINE=InnoDB COMMENT='Agregados diarios de registros y verificaciones';
+
 -- =====================================================
 -- TABLAS DE CATÁLOGO MUSICAL
 -- =====================================================
@@ -240,6 +259,32 @@ CREATE TABLE product_images (
     INDEX idx_is_primary (is_primary)
 ) ENGINE=InnoDB COMMENT='Imágenes de productos';
 
+-- Ledger de movimientos de inventario (solo inserción)
+CREATE TABLE inventory_movements (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    provider_id BIGINT NOT NULL,
+    movement_type ENUM('INITIAL_STOCK', 'MANUAL_SET', 'ADJUSTMENT', 'BULK_UPDATE', 'BULK_IMPORT', 'ORDER_RESERVATION', 'ORDER_CANCELLATION') NOT NULL,
+    quantity_delta INT NOT NULL COMMENT 'Variación de unidades',
+    stock_after INT NOT NULL COMMENT 'Stock después del movimiento',
+    reason VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_provider_id_id (provider_id, id),
+    INDEX idx_product_id_id (product_id, id)
+) ENGINE=InnoDB COMMENT='Ledger de movimientos de inventario';
+
+-- Snapshots compactados del ledger por producto
+CREATE TABLE inventory_snapshots (
+    product_id BIGINT PRIMARY KEY,
+    provider_id BIGINT NOT NULL,
+    stock_quantity INT NOT NULL,
+    last_movement_id BIGINT NOT NULL COMMENT 'Último movimiento incluido en el snapshot',
+    snapshot_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+    INDEX idx_provider_id (provider_id),
+    INDEX idx_last_movement_id (last_movement_id)
+) ENGINE=InnoDB COMMENT='Snapshots de stock por producto';
+
 -- =====================================================
 -- TABLAS DE RECOPILACIONES
 -- =====================================================
@@ -326,7 +371,8 @@ CREATE TABLE order_items (
     INDEX idx_order_id (order_id),
     INDEX idx_product_id (product_id),
     INDEX idx_provider_id (provider_id),
-    INDEX idx_status (status)
+    INDEX idx_status (status),
+    INDEX idx_provider_status_order (provider_id, status, order_id) COMMENT 'Bandeja y conteos por estado del proveedor'
 ) ENGINE=InnoDB COMMENT='Items individuales de cada orden';
 
 -- Tabla de valoraciones/reviews de órdenes
@@ -345,6 +391,36 @@ CREATE TABLE order_reviews (
     INDEX idx_created_at (created_at)
 ) ENGINE=InnoDB COMMENT='Valoraciones de órdenes por usuarios';
 
+-- Rollup diario de ventas por proveedor, álbum, género y tipo de producto
+-- Se mantiene de forma incremental al crear órdenes y al cambiar su estado.
+-- genre_id = 0 agrupa los álbumes sin género.
+CREATE TABLE sales_daily_rollups (
+    sales_date DATE NOT NULL,
+    provider_id BIGINT NOT NULL,
+    album_id BIGINT NOT NULL,
+    genre_id BIGINT NOT NULL DEFAULT 0,
+    product_type ENUM('PHYSICAL', 'DIGITAL') NOT NULL,
+    units INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (sales_date, provider_id, album_id, genre_id, product_type),
+    INDEX idx_provider_date (provider_id, sales_date)
+) ENGINE=InnoDB COMMENT='Agregados diarios de ventas';
+
+-- Órdenes distintas por día, en cada agrupación de los reportes de ventas.
+-- Una orden cuenta una vez por clave (p. ej. una vez por género, aunque tenga
+-- varios álbumes del género), de modo que sumar días da órdenes distintas.
+-- provider_id = 0 son las órdenes de todos los proveedores; dimension_key es
+-- el ID (proveedor, álbum, género), el tipo de producto, o '' para DAY.
+CREATE TABLE sales_daily_order_counts (
+    sales_date DATE NOT NULL,
+    dimension ENUM('DAY', 'PROVIDER', 'ALBUM', 'GENRE', 'PRODUCT_TYPE') NOT NULL,
+    provider_id BIGINT NOT NULL DEFAULT 0,
+    dimension_key VARCHAR(32) NOT NULL DEFAULT '',
+    orders_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (dimension, provider_id, sales_date, dimension_key)
+) ENGINE=InnoDB COMMENT='Órdenes distintas por día y agrupación de ventas';
+
 -- =====================================================
 -- TABLAS DE NOTIFICACIONES
 -- =====================================================
@@ -360,12 +436,49 @@ CREATE TABLE notifications (
     order_id BIGINT NULL,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-    INDEX idx_user_id (user_id),
-    INDEX idx_is_read (is_read),
+    INDEX idx_user_created (user_id, created_at),
+    INDEX idx_user_read_created (user_id, is_read, created_at),
+    INDEX idx_read_created (is_read, created_at),
     INDEX idx_type (type),
     INDEX idx_created_at (created_at)
 ) ENGINE=InnoDB COMMENT='Notificaciones internas del sistema';
 
+-- Notificaciones leídas antiguas y duplicadas, movidas por el job de retención
+CREATE TABLE notifications_archive (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    type ENUM('ORDER_CREATED', 'ORDER_CONFIRMED', 'ORDER_SHIPPED', 'ORDER_DELIVERED', 'ORDER_CANCELLED', 'PROVIDER_NEW_ORDER') NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message TEXT,
+    is_read BOOLEAN NOT NULL,
+    order_id BIGINT NULL,
+    created_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_user_created (user_id, created_at),
+    INDEX idx_created_at (created_at)
+) ENGINE=InnoDB COMMENT='Archivo de notificaciones retiradas de la tabla principal';
+
+-- =====================================================
+-- TABLAS DE IDEMPOTENCIA
+-- =====================================================
+
+-- Tabla de claves de idempotencia (reintentos de checkout y mutaciones de stock)
+CREATE TABLE idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL COMMENT 'SHA-256 de método, ruta y cuerpo de la petición',
+    status ENUM('IN_PROGRESS', 'COMPLETED') NOT NULL DEFAULT 'IN_PROGRESS',
+    response_status INT NULL,
+    response_body MEDIUMTEXT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    lease_expires_at TIMESTAMP NOT NULL COMMENT 'Vencido con IN_PROGRESS: petición abandonada (se renueva mientras se ejecuta)',
+    expires_at TIMESTAMP NOT NULL,
+    UNIQUE KEY uk_username_key (username, idempotency_key),
+    INDEX idx_expires_at (expires_at)
+) ENGINE=InnoDB COMMENT='Respuestas guardadas para reintentos con Idempotency-Key';
+
 -- =====================================================
 -- FIN DEL SCHEMA
 -- =====================================================
\ No newline at end of file
@@ -56,11 +56,11 @@ public class CorsFilter implements Filter {
 
         // 🔹 Encabezados permitidos
         response.setHeader("Access-Control-Allow-Headers",
-                "Authorization, Content-Type, X-Requested-With, accept, Origin, Access-Control-Request-Method, Access-Control-Request-Headers");
+                "Authorization, Content-Type, X-Requested-With, accept, Origin, Access-Control-Request-Method, Access-Control-Request-Headers, Idempotency-Key");
 
         // 🔹 Encabezados expuestos
         response.setHeader("Access-Control-Expose-Headers",
-                "Access-Control-Allow-Origin, Access-Control-Allow-Credentials");
+                "Access-Control-Allow-Origin, Access-Control-Allow-Credentials, Idempotent-Replayed, Retry-After");
 
         // 🔹 Permitir credenciales (cookies, headers de autenticación)
         response.setHeader("Access-Control-Allow-Credentials", "true");
@@ -0,0 +1,326 @@
+package com.songstock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.songstock.service.IdempotencyService;
+import com.songstock.util.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Filtro de idempotencia para el checkout y las mutaciones de stock.
+ *
+ * Cuando la petición trae la cabecera {@code Idempotency-Key}, la respuesta
+ * original se guarda y los reintentos con la misma clave se contestan desde el
+ * almacén, sin volver a ejecutar la transacción. Los reintentos que llegan
+ * mientras la original sigue en curso en esta instancia esperan su resultado.
+ *
+ * Se registra después de Spring Security, así que la clave queda asociada al
+ * usuario autenticado.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    /** Rechazos deterministas: repetir la petición daría el mismo resultado */
+    private static final Set<Integer> STORABLE_CLIENT_ERRORS = Set.of(
+            HttpStatus.BAD_REQUEST.value(),
+            HttpStatus.FORBIDDEN.value(),
+            HttpStatus.NOT_FOUND.value(),
+            HttpStatus.UNPROCESSABLE_ENTITY.value());
+
+    /** Endpoints que aceptan Idempotency-Key (método y ruta sin context-path) */
+    private static final List<String[]> IDEMPOTENT_ENDPOINTS = List.of(
+            new String[] { "POST", "/orders" },
+            new String[] { "PUT", "/orders/items/batch" },
+            new String[] { "PATCH", "/products/*/stock/adjust" },
+            new String[] { "PATCH", "/products/catalog/bulk-update-prices" });
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    /** Peticiones en curso en esta instancia, por usuario y clave */
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        String path = getPath(request);
+        return IDEMPOTENT_ENDPOINTS.stream().noneMatch(endpoint -> endpoint[0].equalsIgnoreCase(request.getMethod())
+                && pathMatcher.match(endpoint[1], path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key inválida",
+                    "La clave debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String username = authentication.getName();
+        String requestHash = hash(request.getMethod(), getPath(request), cachedRequest.body);
+        String scope = username + "\n" + key;
+
+        // Un solo intento de esperar a la petición en curso; si al terminar otra
+        // vuelve a tomar la clave, se responde como conflicto
+        for (int attempt = 0;; attempt++) {
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(scope, mine);
+
+            if (running == null) {
+                try {
+                    execute(cachedRequest, response, chain, username, key, requestHash);
+                } finally {
+                    inFlight.remove(scope, mine);
+                    mine.complete(null);
+                }
+                return;
+            }
+
+            if (attempt > 0 || !await(running)) {
+                writeInProgress(response);
+                return;
+            }
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+            String username, String key, String requestHash) throws ServletException, IOException {
+
+        IdempotencyService.Claim claim;
+        try {
+            claim = idempotencyService.begin(username, key, requestHash);
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia reservó la misma clave al mismo tiempo
+            writeInProgress(response);
+            return;
+        }
+
+        switch (claim.getDecision()) {
+            case REPLAY:
+                replay(response, claim);
+                return;
+            case MISMATCH:
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key reutilizada",
+                        "La clave ya se usó con una petición diferente");
+                return;
+            case IN_PROGRESS:
+                writeInProgress(response);
+                return;
+            case PROCEED:
+            default:
+                break;
+        }
+
+        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, wrappedResponse);
+
+            int status = wrappedResponse.getStatus();
+            if (isStorable(status)) {
+                idempotencyService.complete(claim.getRecordId(), status,
+                        new String(wrappedResponse.getContentAsByteArray(), StandardCharsets.UTF_8));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                releaseQuietly(claim.getRecordId());
+            }
+            wrappedResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Solo se guardan las respuestas exitosas y los rechazos deterministas
+     * (validación, permisos, recurso inexistente). Los errores del servidor, los
+     * conflictos transitorios y la autenticación vencida no se guardan, para que
+     * el reintento vuelva a ejecutar la petición
+     */
+    private boolean isStorable(int status) {
+        return (status >= 200 && status < 300) || STORABLE_CLIENT_ERRORS.contains(status);
+    }
+
+    private void replay(HttpServletResponse response, IdempotencyService.Claim claim) throws IOException {
+        response.setStatus(claim.getResponseStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (claim.getResponseBody() != null) {
+            response.getWriter().write(claim.getResponseBody());
+        } else {
+            // La respuesta original superaba el tamaño máximo guardado
+            response.getWriter().write(objectMapper.writeValueAsString(
+                    ApiResponse.success("La petición ya fue procesada", null)));
+        }
+    }
+
+    private boolean await(CompletableFuture<Void> running) {
+        try {
+            running.get(idempotencyService.getInProgressTimeoutMs(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private void releaseQuietly(Long recordId) {
+        try {
+            idempotencyService.release(recordId);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo liberar la clave de idempotencia {}: {}", recordId, e.getMessage());
+        }
+    }
+
+    private void writeInProgress(HttpServletResponse response) throws IOException {
+        writeError(response, HttpStatus.CONFLICT, "Petición en proceso",
+                "Una petición con la misma Idempotency-Key sigue en proceso");
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message, String error)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(objectMapper.writeValueAsString(ApiResponse.error(message, error)));
+    }
+
+    private String getPath(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * SHA-256 de método, ruta y cuerpo de la petición
+     */
+    private String hash(String method, String path, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((method + " " + path + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Petición con el cuerpo ya leído, para poder calcular su hash y volver a
+     * leerlo en el controlador
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // El cuerpo ya está en memoria: todo está disponible de inmediato
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
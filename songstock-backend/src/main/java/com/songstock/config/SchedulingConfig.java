@@ -0,0 +1,13 @@
+package com.songstock.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled) de la aplicación,
+ * como la compactación del ledger de inventario.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
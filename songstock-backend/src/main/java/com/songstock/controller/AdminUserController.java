@@ -3,7 +3,10 @@ package com.songstock.controller;
 import com.songstock.dto.*;
 import com.songstock.entity.UserRole;
 import com.songstock.entity.VerificationStatus;
+import com.songstock.exception.BusinessException;
 import com.songstock.service.AdminUserService;
+import com.songstock.service.ProviderLeaderboardService;
+import com.songstock.service.UserGrowthRollupService;
 import com.songstock.util.ApiResponse;
 import com.songstock.mapper.UserManagementMapper;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,11 +18,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -37,6 +42,9 @@ public class AdminUserController {
     @Autowired
     private UserManagementMapper userManagementMapper;
 
+    @Autowired
+    private UserGrowthRollupService userGrowthRollupService;
+
     // ========== GESTIÓN GENERAL DE USUARIOS ==========
 
     /**
@@ -343,6 +351,35 @@ public class AdminUserController {
         }
     }
 
+    /**
+     * Ranking de proveedores por productos activos, valor del inventario o ventas
+     * GET /api/v1/admin/users/providers/leaderboard?metric=SALES&limit=10
+     */
+    @GetMapping("/providers/leaderboard")
+    @Operation(summary = "Ranking de proveedores", description = "Ranking en memoria por productos activos, valor del inventario o ventas")
+    public ResponseEntity<ApiResponse<List<ProviderLeaderboardDTO>>> getProviderLeaderboard(
+            @Parameter(description = "Métrica del ranking") @RequestParam(defaultValue = "ACTIVE_PRODUCTS") ProviderLeaderboardService.Metric metric,
+            @Parameter(description = "Número de proveedores a retornar") @RequestParam(defaultValue = "10") int limit) {
+
+        logger.info("REST request para obtener ranking de proveedores - Métrica: {}, Límite: {}", metric, limit);
+
+        try {
+            List<ProviderLeaderboardDTO> leaderboard = adminUserService.getProviderLeaderboard(metric,
+                    Math.min(limit, 100));
+
+            String message = leaderboard.isEmpty()
+                    ? "No hay proveedores en el ranking"
+                    : String.format("Top %d proveedores obtenidos", leaderboard.size());
+
+            return ResponseEntity.ok(ApiResponse.success(message, leaderboard));
+
+        } catch (Exception e) {
+            logger.error("Error al obtener ranking de proveedores", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener ranking de proveedores: " + e.getMessage(), null));
+        }
+    }
+
     // ========== DASHBOARD Y ESTADÍSTICAS ==========
 
     /**
@@ -366,6 +403,58 @@ public class AdminUserController {
         }
     }
 
+    /**
+     * Crecimiento de usuarios: registros por rol y verificaciones de proveedores
+     * GET /api/v1/admin/users/statistics/growth?from=2025-01-01&to=2025-06-30&groupBy=MONTH
+     */
+    @GetMapping("/statistics/growth")
+    @Operation(summary = "Crecimiento de usuarios", description = "Registros y verificaciones por día o por mes desde el rollup diario")
+    public ResponseEntity<ApiResponse<List<UserGrowthDTO>>> getUserGrowth(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") UserGrowthRollupService.GroupBy groupBy) {
+
+        logger.info("REST request para obtener crecimiento de usuarios - Desde: {}, Hasta: {}, Agrupación: {}",
+                from, to, groupBy);
+
+        try {
+            List<UserGrowthDTO> growth = userGrowthRollupService.getGrowth(from, to, groupBy);
+            return ResponseEntity.ok(ApiResponse.success("Crecimiento de usuarios obtenido exitosamente", growth));
+
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error al obtener crecimiento de usuarios", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener crecimiento de usuarios: " + e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Reconstruir el rollup de crecimiento de un rango de fechas
+     * POST /api/v1/admin/users/statistics/growth/rebuild?from=2025-01-01&to=2025-12-31
+     */
+    @PostMapping("/statistics/growth/rebuild")
+    @Operation(summary = "Reconstruir rollup de crecimiento", description = "Recalcular los agregados diarios de registros y verificaciones")
+    public ResponseEntity<ApiResponse<Integer>> rebuildUserGrowth(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        logger.info("REST request para reconstruir el rollup de crecimiento - Desde: {}, Hasta: {}", from, to);
+
+        try {
+            int rows = userGrowthRollupService.rebuild(from, to);
+            return ResponseEntity.ok(ApiResponse.success("Rollup de crecimiento reconstruido", rows));
+
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error al reconstruir el rollup de crecimiento", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al reconstruir el rollup de crecimiento", null));
+        }
+    }
+
     // ========== ENDPOINTS DE UTILIDAD ==========
 
     @GetMapping("/by-role/{role}")
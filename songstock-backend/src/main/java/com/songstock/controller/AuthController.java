@@ -13,6 +13,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import com.songstock.service.UserService;
 import com.songstock.service.PasswordResetService;
+import com.songstock.service.LoginExecutor;
 import com.songstock.entity.UserRole;
 import com.songstock.service.ProviderService;
 import com.songstock.repository.UserRepository;
@@ -21,6 +22,8 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -34,6 +37,8 @@ import java.time.LocalDateTime;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controlador encargado de gestionar la autenticación, registro de proveedores
@@ -69,6 +74,10 @@ public class AuthController {
     @Autowired
     private PasswordResetService passwordResetService;
 
+    // Pool acotado donde se verifican las contraseñas del login
+    @Autowired
+    private LoginExecutor loginExecutor;
+
     /**
      * Endpoint de prueba CORS.
      * Verifica que las configuraciones CORS estén funcionando correctamente.
@@ -99,29 +108,41 @@ public class AuthController {
     /**
      * Autenticación de usuario.
      * Recibe credenciales (username/email + password) y devuelve un token JWT.
+     * La verificación de la contraseña se ejecuta en el pool de logins, no en
+     * el hilo de la petición; si el pool está saturado responde 503 con
+     * Retry-After.
      *
      * @param loginRequest credenciales de inicio de sesión
      * @param request      request HTTP para obtener metadata (ej. IP, headers)
      * @return token JWT si las credenciales son válidas
      */
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponseDTO>> authenticateUser(
+    public CompletableFuture<ResponseEntity<ApiResponse<AuthResponseDTO>>> authenticateUser(
             @Valid @RequestBody LoginRequestDTO loginRequest,
             HttpServletRequest request) {
 
         logger.info("Login attempt for user: {}", loginRequest.getUsernameOrEmail());
 
+        String ipAddress = authService.getClientIpAddress(request);
+        String userAgent = request.getHeader("User-Agent");
         try {
-            AuthResponseDTO authResponse = authService.authenticateUser(loginRequest, request);
-            logger.info("Login successful for user: {}", loginRequest.getUsernameOrEmail());
-
-            return ResponseEntity.ok(ApiResponse.success(
-                    "Usuario autenticado exitosamente",
-                    authResponse));
-        } catch (Exception e) {
-            logger.error("Login failed for user: {}", loginRequest.getUsernameOrEmail(), e);
-            return ResponseEntity.status(401).body(
-                    ApiResponse.error("Credenciales inválidas"));
+            return loginExecutor.submit(() -> authService.authenticateUser(loginRequest, ipAddress, userAgent))
+                    .thenApply(authResponse -> {
+                        logger.info("Login successful for user: {}", loginRequest.getUsernameOrEmail());
+                        return ResponseEntity.ok(ApiResponse.success(
+                                "Usuario autenticado exitosamente",
+                                authResponse));
+                    })
+                    .exceptionally(e -> {
+                        logger.error("Login failed for user: {}", loginRequest.getUsernameOrEmail(), e);
+                        return ResponseEntity.status(401).body(
+                                ApiResponse.<AuthResponseDTO>error("Credenciales inválidas"));
+                    });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Login rejected, login pool saturated: {}", loginRequest.getUsernameOrEmail());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error("Demasiados inicios de sesión simultáneos, intente de nuevo")));
         }
     }
 
@@ -186,6 +207,28 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("Sesión cerrada exitosamente"));
     }
 
+    /**
+     * Renovación de tokens.
+     * Recibe el refresh token emitido en el login (o en la renovación anterior)
+     * y devuelve un token de acceso y un refresh token nuevos, sin pedir la
+     * contraseña. El refresh token presentado deja de ser válido.
+     *
+     * @param refreshRequest refresh token vigente
+     * @return AuthResponseDTO con los tokens nuevos
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<AuthResponseDTO>> refreshToken(
+            @Valid @RequestBody RefreshTokenRequestDTO refreshRequest) {
+        try {
+            AuthResponseDTO authResponse = authService.refreshToken(refreshRequest.getRefreshToken());
+            return ResponseEntity.ok(ApiResponse.success("Token renovado exitosamente", authResponse));
+        } catch (Exception e) {
+            logger.warn("Token refresh failed: {}", e.getMessage());
+            return ResponseEntity.status(401).body(
+                    ApiResponse.error("Refresh token inválido o expirado"));
+        }
+    }
+
     /**
      * Extrae el token JWT desde el header Authorization del request.
      *
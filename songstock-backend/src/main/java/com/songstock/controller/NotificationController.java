@@ -1,16 +1,20 @@
 package com.songstock.controller;
 
-import com.songstock.dto.NotificationDTO;
-import com.songstock.entity.User;
-import com.songstock.repository.UserRepository;
+import com.songstock.dto.NotificationPageDTO;
+import com.songstock.dto.NotificationReadRequestDTO;
+import com.songstock.security.UserDetailsImpl;
 import com.songstock.service.NotificationService;
+import com.songstock.service.NotificationStreamService;
 import com.songstock.util.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/notifications")
@@ -21,18 +25,24 @@ public class NotificationController {
     private NotificationService notificationService;
 
     @Autowired
-    private UserRepository userRepository;
+    private NotificationStreamService notificationStreamService;
 
+    /**
+     * Feed de notificaciones del usuario, paginado por cursor
+     * GET /api/v1/notifications?cursor=2024-05-01T10:15:00_120&size=20&unreadOnly=false
+     */
     @GetMapping
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('PROVIDER')")
-    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getNotifications(
+    public ResponseEntity<ApiResponse<NotificationPageDTO>> getNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
             Authentication authentication) {
         try {
-            User user = userRepository.findByUsername(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+            Long userId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
 
-            List<NotificationDTO> notifications = notificationService.getUserNotifications(user.getId());
-            return ResponseEntity.ok(ApiResponse.success("Notificaciones obtenidas", notifications));
+            NotificationPageDTO page = notificationService.getUserNotifications(userId, cursor, size, unreadOnly);
+            return ResponseEntity.ok(ApiResponse.success("Notificaciones obtenidas", page));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse<>(false, "Error al obtener notificaciones", null));
@@ -42,21 +52,79 @@ public class NotificationController {
     @GetMapping("/unread-count")
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('PROVIDER')")
     public ResponseEntity<ApiResponse<Long>> getUnreadCount(Authentication authentication) {
-        User user = userRepository.findByUsername(authentication.getName())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        // El ID viene en el token ya autenticado: el contador no requiere consultas
+        Long userId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
 
-        Long count = notificationService.getUnreadCount(user.getId());
+        Long count = notificationService.getUnreadCount(userId);
         return ResponseEntity.ok(ApiResponse.success("Contador obtenido", count));
     }
 
+    /**
+     * Canal de eventos (SSE) con las notificaciones nuevas y los cambios del
+     * contador de no leídas; reemplaza el sondeo de las consultas anteriores.
+     * GET /api/v1/notifications/stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('PROVIDER')")
+    public SseEmitter streamNotifications(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam,
+            Authentication authentication,
+            HttpServletResponse response) {
+        // Evita que un proxy intermedio acumule los eventos antes de enviarlos
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        Long userId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        return notificationStreamService.connect(userId,
+                lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam);
+    }
+
     @PutMapping("/{id}/read")
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('PROVIDER')")
-    public ResponseEntity<ApiResponse<Void>> markAsRead(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<Void>> markAsRead(@PathVariable Long id, Authentication authentication) {
         try {
-            notificationService.markAsRead(id);
+            Long userId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
+            notificationService.markAsRead(userId, id);
             return ResponseEntity.ok(ApiResponse.success("Notificación marcada como leída", null));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse<>(false, "Error", null));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Marcar como leídas varias notificaciones del usuario
+     * PUT /api/v1/notifications/read
+     */
+    @PutMapping("/read")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('PROVIDER')")
+    public ResponseEntity<ApiResponse<Integer>> markAsRead(
+            @Valid @RequestBody NotificationReadRequestDTO request,
+            Authentication authentication) {
+        try {
+            Long userId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
+            int updated = notificationService.markAsRead(userId, request.getIds());
+            return ResponseEntity.ok(ApiResponse.success("Notificaciones marcadas como leídas", updated));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, "Error al marcar notificaciones", null));
+        }
+    }
+
+    /**
+     * Marcar como leídas todas las notificaciones del usuario
+     * PUT /api/v1/notifications/read-all
+     */
+    @PutMapping("/read-all")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('PROVIDER')")
+    public ResponseEntity<ApiResponse<Integer>> markAllAsRead(Authentication authentication) {
+        try {
+            Long userId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
+            int updated = notificationService.markAllAsRead(userId);
+            return ResponseEntity.ok(ApiResponse.success("Notificaciones marcadas como leídas", updated));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, "Error al marcar notificaciones", null));
+        }
+    }
+}
@@ -4,18 +4,30 @@ import com.songstock.dto.CreateOrderDTO;
 import com.songstock.dto.OrderDTO;
 import com.songstock.dto.OrderReviewDTO;
 import com.songstock.dto.CreateReviewDTO;
+import com.songstock.dto.ProviderOrderInboxDTO;
+import com.songstock.dto.ProviderOrderSummaryDTO;
+import com.songstock.dto.OrderItemBatchResultDTO;
+import com.songstock.dto.OrderItemBatchTransitionDTO;
+import com.songstock.exception.BusinessException;
+import com.songstock.entity.OrderItemStatus;
 import jakarta.validation.Valid;
 import com.songstock.entity.User;
 import com.songstock.repository.UserRepository;
+import com.songstock.service.OrderExportService;
 import com.songstock.service.OrderService;
 import com.songstock.util.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -28,6 +40,8 @@ public class OrderController {
         private OrderService orderService;
         @Autowired
         private UserRepository userRepository;
+        @Autowired
+        private OrderExportService orderExportService;
 
         @PostMapping
         @PreAuthorize("hasRole('CUSTOMER')")
@@ -92,6 +106,123 @@ public class OrderController {
                 }
         }
 
+        @GetMapping("/provider/inbox")
+        @PreAuthorize("hasRole('PROVIDER')")
+        public ResponseEntity<ApiResponse<ProviderOrderInboxDTO>> getProviderInbox(
+                        @RequestParam(required = false) OrderItemStatus status,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorCreatedAt,
+                        @RequestParam(required = false) Long cursorId,
+                        @RequestParam(required = false) Integer size,
+                        Authentication authentication) {
+
+                try {
+                        User user = userRepository.findByUsername(authentication.getName())
+                                        .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+
+                        Long providerId = user.getProvider().getId();
+                        ProviderOrderInboxDTO inbox = orderService.getProviderOrderInbox(
+                                        providerId, status, cursorCreatedAt, cursorId, size);
+
+                        return ResponseEntity.ok(
+                                        ApiResponse.success("Bandeja de órdenes obtenida", inbox));
+
+                } catch (Exception e) {
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                        .body(new ApiResponse<>(false, e.getMessage(), null));
+                }
+        }
+
+        @GetMapping("/provider/inbox/summary")
+        @PreAuthorize("hasRole('PROVIDER')")
+        public ResponseEntity<ApiResponse<ProviderOrderSummaryDTO>> getProviderInboxSummary(
+                        Authentication authentication) {
+
+                try {
+                        User user = userRepository.findByUsername(authentication.getName())
+                                        .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+
+                        Long providerId = user.getProvider().getId();
+                        ProviderOrderSummaryDTO summary = orderService.getProviderOrderSummary(providerId);
+
+                        return ResponseEntity.ok(
+                                        ApiResponse.success("Resumen de órdenes obtenido", summary));
+
+                } catch (Exception e) {
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body(new ApiResponse<>(false, "Error al obtener resumen de órdenes", null));
+                }
+        }
+
+        /**
+         * Exportar el historial de órdenes del proveedor en CSV o NDJSON
+         * GET /api/v1/orders/provider/export
+         */
+        @GetMapping("/provider/export")
+        @PreAuthorize("hasRole('PROVIDER')")
+        public ResponseEntity<StreamingResponseBody> exportProviderOrders(
+                        @RequestParam(defaultValue = "csv") String format,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                        @RequestParam(defaultValue = "false") boolean gzip,
+                        Authentication authentication) {
+
+                User user = userRepository.findByUsername(authentication.getName())
+                                .orElseThrow(() -> new BusinessException("Usuario no encontrado"));
+                if (user.getProvider() == null) {
+                        throw new BusinessException("El usuario no tiene un proveedor asociado");
+                }
+
+                return streamOrderExport(user.getProvider().getId(), format, from, to, gzip);
+        }
+
+        /**
+         * Exportar el historial de órdenes de todos los proveedores o de uno solo
+         * GET /api/v1/orders/export
+         */
+        @GetMapping("/export")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<StreamingResponseBody> exportOrders(
+                        @RequestParam(required = false) Long providerId,
+                        @RequestParam(defaultValue = "csv") String format,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                        @RequestParam(defaultValue = "false") boolean gzip) {
+
+                return streamOrderExport(providerId, format, from, to, gzip);
+        }
+
+        /**
+         * Validar los parámetros antes de empezar a escribir y devolver la
+         * exportación en streaming
+         */
+        private ResponseEntity<StreamingResponseBody> streamOrderExport(Long providerId, String format,
+                        LocalDate from, LocalDate to, boolean gzip) {
+
+                OrderExportService.Format exportFormat;
+                try {
+                        exportFormat = OrderExportService.Format.valueOf(format.trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                        throw new BusinessException("Formato no soportado: " + format + " (use csv o ndjson)");
+                }
+                if (from != null && to != null && from.isAfter(to)) {
+                        throw new BusinessException("La fecha inicial no puede ser posterior a la final");
+                }
+
+                String extension = exportFormat == OrderExportService.Format.CSV ? "csv" : "ndjson";
+                String filename = "orders-" + LocalDate.now() + "." + extension + (gzip ? ".gz" : "");
+                MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                                : exportFormat == OrderExportService.Format.CSV
+                                                ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                                                : MediaType.parseMediaType("application/x-ndjson");
+
+                StreamingResponseBody body = output -> orderExportService.export(providerId, from, to,
+                                exportFormat, gzip, output);
+                return ResponseEntity.ok()
+                                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                                .contentType(contentType)
+                                .body(body);
+        }
+
         @GetMapping("/my-orders")
         @PreAuthorize("hasRole('CUSTOMER')")
         public ResponseEntity<ApiResponse<List<OrderDTO>>> getMyOrders(
@@ -220,6 +351,37 @@ public class OrderController {
                 }
         }
 
+        /**
+         * Cambiar de estado varios items del proveedor en una sola llamada
+         * PUT /api/v1/orders/items/batch
+         */
+        @PutMapping("/items/batch")
+        @PreAuthorize("hasRole('PROVIDER')")
+        public ResponseEntity<ApiResponse<OrderItemBatchResultDTO>> transitionOrderItems(
+                        @Valid @RequestBody OrderItemBatchTransitionDTO dto,
+                        Authentication authentication) {
+
+                try {
+                        User user = userRepository.findByUsername(authentication.getName())
+                                        .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+
+                        Long providerId = user.getProvider().getId();
+                        OrderItemBatchResultDTO result = orderService.transitionOrderItems(providerId, dto);
+
+                        return ResponseEntity.ok(ApiResponse.success(
+                                        String.format("%d items actualizados, %d con errores",
+                                                        result.getUpdatedItemIds().size(), result.getFailures().size()),
+                                        result));
+
+                } catch (BusinessException e) {
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                        .body(new ApiResponse<>(false, e.getMessage(), null));
+                } catch (Exception e) {
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body(new ApiResponse<>(false, "Error al actualizar los items", null));
+                }
+        }
+
         @PostMapping("/{orderId}/review")
         @PreAuthorize("hasRole('CUSTOMER')")
         public ResponseEntity<ApiResponse<OrderReviewDTO>> createReview(
@@ -7,6 +7,7 @@ import com.songstock.dto.SongDTO;
 import com.songstock.entity.Product;
 import com.songstock.entity.ProductType;
 import com.songstock.service.SongService;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.http.HttpStatus;
 import com.songstock.service.ProductService;
 import com.songstock.repository.ProductRepository;
@@ -53,6 +54,16 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import com.songstock.dto.AlbumFormatsResponseDTO;
 import com.songstock.dto.AlbumFormatComparisonDTO;
+import com.songstock.dto.InventoryAuditDTO;
+import com.songstock.dto.InventoryMovementPageDTO;
+import com.songstock.service.InventoryLedgerService;
+import com.songstock.service.InventoryImportService;
+import com.songstock.exception.BadRequestException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/products")
@@ -66,6 +77,12 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private InventoryImportService inventoryImportService;
+
     @Autowired
     private ProductRepository productRepository;
 
@@ -403,6 +420,14 @@ public class ProductController {
 
             return ResponseEntity.ok(apiResponse);
 
+        } catch (TransientDataAccessException e) {
+            // Bloqueo o timeout de la base de datos: no es una respuesta definitiva,
+            // el reintento con la misma Idempotency-Key debe volver a ejecutarse
+            ApiResponse<ProductInventoryResponseDTO> errorResponse = new ApiResponse<>(
+                    false,
+                    "Servicio temporalmente no disponible, intente nuevamente",
+                    null);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
         } catch (RuntimeException e) {
             ApiResponse<ProductInventoryResponseDTO> errorResponse = new ApiResponse<>(
                     false,
@@ -493,6 +518,50 @@ public class ProductController {
         }
     }
 
+    /**
+     * Obtener el inventario activo del proveedor autenticado paginado
+     * GET /api/v1/products/inventory/products?page=0&size=20
+     */
+    @GetMapping("/inventory/products")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PROVIDER')")
+    public ResponseEntity<ApiResponse<Page<ProductInventoryResponseDTO>>> getProviderInventoryProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            Authentication authentication) {
+        try {
+            // Obtener el proveedor autenticado
+            Long providerId = getProviderIdFromAuthentication(authentication);
+
+            Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
+            Pageable pageable = PageRequest.of(page, Math.min(size, 100), sort);
+
+            Page<ProductInventoryResponseDTO> response = productService.getProviderInventoryProducts(providerId,
+                    pageable);
+
+            ApiResponse<Page<ProductInventoryResponseDTO>> apiResponse = new ApiResponse<>(
+                    true,
+                    "Inventario obtenido correctamente",
+                    response);
+
+            return ResponseEntity.ok(apiResponse);
+
+        } catch (RuntimeException e) {
+            ApiResponse<Page<ProductInventoryResponseDTO>> errorResponse = new ApiResponse<>(
+                    false,
+                    e.getMessage(),
+                    null);
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            ApiResponse<Page<ProductInventoryResponseDTO>> errorResponse = new ApiResponse<>(
+                    false,
+                    "Error interno del servidor",
+                    null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
     /**
      * Obtener productos con stock bajo del proveedor
      * GET /api/v1/products/inventory/low-stock?minStock=5
@@ -576,6 +645,112 @@ public class ProductController {
         }
     }
 
+    /**
+     * Historial de movimientos de inventario del proveedor autenticado
+     * GET /api/v1/products/inventory/movements?productId=1&beforeId=500&size=50
+     */
+    @GetMapping("/inventory/movements")
+    @PreAuthorize("hasRole('PROVIDER')")
+    @Operation(summary = "Movimientos de inventario", description = "Historial paginado del ledger de inventario del proveedor")
+    public ResponseEntity<ApiResponse<InventoryMovementPageDTO>> getInventoryMovements(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        try {
+            Long providerId = getProviderIdFromAuthentication(authentication);
+
+            InventoryMovementPageDTO response = inventoryLedgerService.getProviderMovements(
+                    providerId, productId, beforeId, size);
+
+            return ResponseEntity.ok(ApiResponse.success("Movimientos de inventario obtenidos", response));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error al obtener movimientos de inventario", null));
+        }
+    }
+
+    /**
+     * Importación masiva de stock por SKU desde CSV o NDJSON
+     * POST /api/v1/products/inventory/import
+     * Responde con una línea NDJSON por cada fila procesada.
+     */
+    @PostMapping(value = "/inventory/import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasRole('PROVIDER')")
+    @Operation(summary = "Importar inventario", description = "Actualizar el stock de muchos productos por SKU desde un archivo CSV o NDJSON")
+    public ResponseEntity<StreamingResponseBody> importInventory(HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        Long providerId;
+        try {
+            providerId = getProviderIdFromAuthentication(authentication);
+        } catch (RuntimeException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+
+        InventoryImportService.Format format = request.getContentType().contains("ndjson")
+                ? InventoryImportService.Format.NDJSON
+                : InventoryImportService.Format.CSV;
+        InputStream input = request.getInputStream();
+
+        StreamingResponseBody body = output -> inventoryImportService.importStock(providerId, input, format,
+                output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Auditar el stock de un producto contra el ledger de inventario
+     * GET /api/v1/products/{productId}/inventory/audit
+     */
+    @GetMapping("/{productId}/inventory/audit")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PROVIDER')")
+    @Operation(summary = "Auditar inventario", description = "Comparar el stock actual con el calculado desde el ledger")
+    public ResponseEntity<ApiResponse<InventoryAuditDTO>> auditProductInventory(
+            @PathVariable Long productId,
+            Authentication authentication) {
+        try {
+            // ADMIN puede auditar cualquier producto; PROVIDER solo los suyos
+            boolean isAdmin = authentication.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            Long providerId = isAdmin ? null : getProviderIdFromAuthentication(authentication);
+
+            InventoryAuditDTO response = inventoryLedgerService.auditProduct(productId, providerId);
+
+            return ResponseEntity.ok(ApiResponse.success("Auditoría de inventario obtenida", response));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error al auditar inventario", null));
+        }
+    }
+
+    /**
+     * Reconstruir el stock de un producto desde el ledger de inventario
+     * POST /api/v1/products/{productId}/inventory/rebuild
+     */
+    @PostMapping("/{productId}/inventory/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reconstruir inventario", description = "Restablecer el stock de un producto según el ledger")
+    public ResponseEntity<ApiResponse<InventoryAuditDTO>> rebuildProductInventory(@PathVariable Long productId) {
+        try {
+            InventoryAuditDTO response = inventoryLedgerService.rebuildProductStock(productId);
+
+            return ResponseEntity.ok(ApiResponse.success("Stock reconstruido desde el ledger", response));
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error al reconstruir inventario", null));
+        }
+    }
+
     /**
      * Obtener tracklist (canciones) de un producto
      * GET /api/v1/products/{id}/tracklist
@@ -1405,6 +1580,14 @@ public class ProductController {
 
             return ResponseEntity.ok(apiResponse);
 
+        } catch (TransientDataAccessException e) {
+            // Bloqueo o timeout de la base de datos: no es una respuesta definitiva,
+            // el reintento con la misma Idempotency-Key debe volver a ejecutarse
+            ApiResponse<List<ProductCatalogResponseDTO>> errorResponse = new ApiResponse<>(
+                    false,
+                    "Servicio temporalmente no disponible, intente nuevamente",
+                    null);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
         } catch (RuntimeException e) {
             ApiResponse<List<ProductCatalogResponseDTO>> errorResponse = new ApiResponse<>(
                     false,
@@ -0,0 +1,114 @@
+package com.songstock.controller;
+
+import com.songstock.dto.SalesRollupDTO;
+import com.songstock.entity.User;
+import com.songstock.exception.BusinessException;
+import com.songstock.repository.UserRepository;
+import com.songstock.service.SalesRollupService;
+import com.songstock.util.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reportes de ventas sobre el rollup diario.
+ * Por defecto cubren los últimos 30 días agrupados por día.
+ */
+@RestController
+@RequestMapping("/analytics/sales")
+@Tag(name = "Sales Analytics", description = "Reportes de ventas agregados por día, proveedor, álbum, género y tipo")
+public class SalesAnalyticsController {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Ventas del proveedor autenticado
+     * GET /api/v1/analytics/sales/provider?from=2025-01-01&to=2025-01-31&groupBy=ALBUM
+     */
+    @GetMapping("/provider")
+    @PreAuthorize("hasRole('PROVIDER')")
+    @Operation(summary = "Ventas del proveedor", description = "Ventas agregadas del proveedor autenticado")
+    public ResponseEntity<ApiResponse<List<SalesRollupDTO>>> getProviderSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") SalesRollupService.GroupBy groupBy,
+            Authentication authentication) {
+        try {
+            User user = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+
+            if (user.getProvider() == null) {
+                throw new BusinessException("El usuario no es un proveedor");
+            }
+
+            List<SalesRollupDTO> sales = salesRollupService.getSales(user.getProvider().getId(), from, to,
+                    groupBy);
+            return ResponseEntity.ok(ApiResponse.success("Ventas obtenidas exitosamente", sales));
+
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener las ventas", null));
+        }
+    }
+
+    /**
+     * Ventas de toda la plataforma o de un proveedor específico
+     * GET /api/v1/analytics/sales?providerId=3&groupBy=GENRE
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ventas de la plataforma", description = "Ventas agregadas de todos los proveedores o de uno")
+    public ResponseEntity<ApiResponse<List<SalesRollupDTO>>> getSales(
+            @RequestParam(required = false) Long providerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") SalesRollupService.GroupBy groupBy) {
+        try {
+            List<SalesRollupDTO> sales = salesRollupService.getSales(providerId, from, to, groupBy);
+            return ResponseEntity.ok(ApiResponse.success("Ventas obtenidas exitosamente", sales));
+
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener las ventas", null));
+        }
+    }
+
+    /**
+     * Reconstruir el rollup de un rango de fechas desde las órdenes
+     * POST /api/v1/analytics/sales/rebuild?from=2025-01-01&to=2025-01-31
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reconstruir rollup de ventas", description = "Recalcular los agregados diarios de un rango de fechas")
+    public ResponseEntity<ApiResponse<Integer>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            int rows = salesRollupService.rebuild(from, to);
+            return ResponseEntity.ok(ApiResponse.success("Rollup de ventas reconstruido", rows));
+
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al reconstruir el rollup de ventas", null));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.songstock.dto;
+
+/**
+ * DTO con la auditoría de stock de un producto contra el ledger de inventario.
+ * ledgerStock es null si el producto aún no tiene movimientos registrados.
+ */
+public class InventoryAuditDTO {
+    private Long productId;
+    private Integer currentStock;
+    private Integer ledgerStock;
+    private Integer snapshotStock;
+    private Long snapshotMovementId;
+    private boolean consistent;
+
+    // Constructor vacío
+    public InventoryAuditDTO() {
+    }
+
+    // Constructor completo
+    public InventoryAuditDTO(Long productId, Integer currentStock, Integer ledgerStock, Integer snapshotStock,
+            Long snapshotMovementId, boolean consistent) {
+        this.productId = productId;
+        this.currentStock = currentStock;
+        this.ledgerStock = ledgerStock;
+        this.snapshotStock = snapshotStock;
+        this.snapshotMovementId = snapshotMovementId;
+        this.consistent = consistent;
+    }
+
+    // Getters y Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getCurrentStock() {
+        return currentStock;
+    }
+
+    public void setCurrentStock(Integer currentStock) {
+        this.currentStock = currentStock;
+    }
+
+    public Integer getLedgerStock() {
+        return ledgerStock;
+    }
+
+    public void setLedgerStock(Integer ledgerStock) {
+        this.ledgerStock = ledgerStock;
+    }
+
+    public Integer getSnapshotStock() {
+        return snapshotStock;
+    }
+
+    public void setSnapshotStock(Integer snapshotStock) {
+        this.snapshotStock = snapshotStock;
+    }
+
+    public Long getSnapshotMovementId() {
+        return snapshotMovementId;
+    }
+
+    public void setSnapshotMovementId(Long snapshotMovementId) {
+        this.snapshotMovementId = snapshotMovementId;
+    }
+
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    public void setConsistent(boolean consistent) {
+        this.consistent = consistent;
+    }
+}
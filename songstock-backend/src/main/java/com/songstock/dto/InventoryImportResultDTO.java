@@ -0,0 +1,96 @@
+package com.songstock.dto;
+
+/**
+ * Resultado de una fila de la importación masiva de inventario.
+ * Se emite una línea NDJSON por cada fila del archivo recibido.
+ */
+public class InventoryImportResultDTO {
+
+    public enum Status {
+        UPDATED, // Stock actualizado
+        UNCHANGED, // El stock ya tenía ese valor
+        NOT_FOUND, // El SKU no existe en el catálogo del proveedor
+        REJECTED // Fila inválida o cambio no permitido
+    }
+
+    private Long line;
+    private String sku;
+    private Status status;
+    private Long productId;
+    private Integer previousStock;
+    private Integer stockQuantity;
+    private String message;
+
+    // Constructor vacío
+    public InventoryImportResultDTO() {
+    }
+
+    // Constructor completo
+    public InventoryImportResultDTO(Long line, String sku, Status status, Long productId, Integer previousStock,
+            Integer stockQuantity, String message) {
+        this.line = line;
+        this.sku = sku;
+        this.status = status;
+        this.productId = productId;
+        this.previousStock = previousStock;
+        this.stockQuantity = stockQuantity;
+        this.message = message;
+    }
+
+    // Getters y Setters
+    public Long getLine() {
+        return line;
+    }
+
+    public void setLine(Long line) {
+        this.line = line;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getPreviousStock() {
+        return previousStock;
+    }
+
+    public void setPreviousStock(Integer previousStock) {
+        this.previousStock = previousStock;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
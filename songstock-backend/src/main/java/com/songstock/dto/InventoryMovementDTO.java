@@ -0,0 +1,91 @@
+package com.songstock.dto;
+
+import com.songstock.entity.InventoryMovementType;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de un movimiento del ledger de inventario
+ */
+public class InventoryMovementDTO {
+    private Long id;
+    private Long productId;
+    private InventoryMovementType movementType;
+    private Integer quantityDelta;
+    private Integer stockAfter;
+    private String reason;
+    private LocalDateTime createdAt;
+
+    // Constructor vacío
+    public InventoryMovementDTO() {
+    }
+
+    // Constructor completo
+    public InventoryMovementDTO(Long id, Long productId, InventoryMovementType movementType, Integer quantityDelta,
+            Integer stockAfter, String reason, LocalDateTime createdAt) {
+        this.id = id;
+        this.productId = productId;
+        this.movementType = movementType;
+        this.quantityDelta = quantityDelta;
+        this.stockAfter = stockAfter;
+        this.reason = reason;
+        this.createdAt = createdAt;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public InventoryMovementType getMovementType() {
+        return movementType;
+    }
+
+    public void setMovementType(InventoryMovementType movementType) {
+        this.movementType = movementType;
+    }
+
+    public Integer getQuantityDelta() {
+        return quantityDelta;
+    }
+
+    public void setQuantityDelta(Integer quantityDelta) {
+        this.quantityDelta = quantityDelta;
+    }
+
+    public Integer getStockAfter() {
+        return stockAfter;
+    }
+
+    public void setStockAfter(Integer stockAfter) {
+        this.stockAfter = stockAfter;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
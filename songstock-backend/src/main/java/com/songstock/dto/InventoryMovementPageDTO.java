@@ -0,0 +1,49 @@
+package com.songstock.dto;
+
+import java.util.List;
+
+/**
+ * DTO para una página del historial de movimientos de inventario.
+ * La siguiente página se pide enviando nextCursor como beforeId.
+ */
+public class InventoryMovementPageDTO {
+    private List<InventoryMovementDTO> movements;
+    private Long nextCursor;
+    private boolean hasMore;
+
+    // Constructor vacío
+    public InventoryMovementPageDTO() {
+    }
+
+    // Constructor completo
+    public InventoryMovementPageDTO(List<InventoryMovementDTO> movements, Long nextCursor, boolean hasMore) {
+        this.movements = movements;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters y Setters
+    public List<InventoryMovementDTO> getMovements() {
+        return movements;
+    }
+
+    public void setMovements(List<InventoryMovementDTO> movements) {
+        this.movements = movements;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,50 @@
+package com.songstock.dto;
+
+import java.util.List;
+
+/**
+ * DTO para una página del feed de notificaciones.
+ * La siguiente página se pide enviando nextCursor como cursor; su formato
+ * ("fechaCreación_id") no debe interpretarse en el cliente.
+ */
+public class NotificationPageDTO {
+    private List<NotificationDTO> notifications;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Constructor vacío
+    public NotificationPageDTO() {
+    }
+
+    // Constructor completo
+    public NotificationPageDTO(List<NotificationDTO> notifications, String nextCursor, boolean hasMore) {
+        this.notifications = notifications;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters y Setters
+    public List<NotificationDTO> getNotifications() {
+        return notifications;
+    }
+
+    public void setNotifications(List<NotificationDTO> notifications) {
+        this.notifications = notifications;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
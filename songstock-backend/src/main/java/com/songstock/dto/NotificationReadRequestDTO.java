@@ -0,0 +1,34 @@
+package com.songstock.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para marcar como leídas varias notificaciones del usuario a la vez
+ */
+public class NotificationReadRequestDTO {
+
+    @NotNull(message = "Los IDs de notificaciones son obligatorios")
+    @Size(min = 1, max = 500, message = "Debe enviar entre 1 y 500 notificaciones")
+    private List<Long> ids;
+
+    // Constructor vacío
+    public NotificationReadRequestDTO() {
+    }
+
+    // Constructor completo
+    public NotificationReadRequestDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters y Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,61 @@
+package com.songstock.dto;
+
+import com.songstock.entity.OrderItemStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO con el resultado de un cambio de estado masivo de items de orden.
+ * Los items que no se pudieron cambiar aparecen en failures con el motivo.
+ */
+public class OrderItemBatchResultDTO {
+    private OrderItemStatus targetStatus;
+    private List<Long> updatedItemIds = new ArrayList<>();
+    private Map<Long, String> failures = new LinkedHashMap<>();
+    private List<Long> updatedOrderIds = new ArrayList<>(); // Órdenes cuyo estado general cambió
+
+    // Constructor vacío
+    public OrderItemBatchResultDTO() {
+    }
+
+    // Constructor con estado destino
+    public OrderItemBatchResultDTO(OrderItemStatus targetStatus) {
+        this.targetStatus = targetStatus;
+    }
+
+    // Getters y Setters
+    public OrderItemStatus getTargetStatus() {
+        return targetStatus;
+    }
+
+    public void setTargetStatus(OrderItemStatus targetStatus) {
+        this.targetStatus = targetStatus;
+    }
+
+    public List<Long> getUpdatedItemIds() {
+        return updatedItemIds;
+    }
+
+    public void setUpdatedItemIds(List<Long> updatedItemIds) {
+        this.updatedItemIds = updatedItemIds;
+    }
+
+    public Map<Long, String> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(Map<Long, String> failures) {
+        this.failures = failures;
+    }
+
+    public List<Long> getUpdatedOrderIds() {
+        return updatedOrderIds;
+    }
+
+    public void setUpdatedOrderIds(List<Long> updatedOrderIds) {
+        this.updatedOrderIds = updatedOrderIds;
+    }
+}
@@ -0,0 +1,73 @@
+package com.songstock.dto;
+
+import com.songstock.entity.OrderItemStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO para cambiar de estado varios items de orden de un proveedor a la vez
+ * (aceptar, rechazar, procesar, enviar o entregar)
+ */
+public class OrderItemBatchTransitionDTO {
+
+    @NotNull(message = "Los IDs de items son obligatorios")
+    @Size(min = 1, max = 5000, message = "Debe enviar entre 1 y 5000 items")
+    private List<Long> itemIds;
+
+    @NotNull(message = "El estado destino es obligatorio")
+    private OrderItemStatus targetStatus;
+
+    @Size(max = 500, message = "La razón no puede exceder 500 caracteres")
+    private String reason; // Obligatoria al rechazar
+
+    private LocalDateTime shippedAt; // Opcional al enviar; por defecto la fecha actual
+
+    // Constructor vacío
+    public OrderItemBatchTransitionDTO() {
+    }
+
+    // Constructor completo
+    public OrderItemBatchTransitionDTO(List<Long> itemIds, OrderItemStatus targetStatus, String reason,
+            LocalDateTime shippedAt) {
+        this.itemIds = itemIds;
+        this.targetStatus = targetStatus;
+        this.reason = reason;
+        this.shippedAt = shippedAt;
+    }
+
+    // Getters y Setters
+    public List<Long> getItemIds() {
+        return itemIds;
+    }
+
+    public void setItemIds(List<Long> itemIds) {
+        this.itemIds = itemIds;
+    }
+
+    public OrderItemStatus getTargetStatus() {
+        return targetStatus;
+    }
+
+    public void setTargetStatus(OrderItemStatus targetStatus) {
+        this.targetStatus = targetStatus;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public LocalDateTime getShippedAt() {
+        return shippedAt;
+    }
+
+    public void setShippedAt(LocalDateTime shippedAt) {
+        this.shippedAt = shippedAt;
+    }
+}
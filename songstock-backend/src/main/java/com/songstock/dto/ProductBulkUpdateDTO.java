@@ -45,8 +45,29 @@ public class ProductBulkUpdateDTO {
         TOGGLE_ACTIVE // Cambiar estado activo
     }
 
+    // Redondeo del precio resultante en actualizaciones de precio
+    public enum PriceRounding {
+        CENTS(2), // Dos decimales
+        UNITS(0), // Unidades enteras
+        TENS(-1), // Decenas
+        HUNDREDS(-2), // Centenas
+        THOUSANDS(-3); // Miles
+
+        private final int scale;
+
+        PriceRounding(int scale) {
+            this.scale = scale;
+        }
+
+        public int getScale() {
+            return scale;
+        }
+    }
+
     private StockOperation stockOperation = StockOperation.SET;
 
+    private PriceRounding priceRounding = PriceRounding.CENTS;
+
     // Campos adicionales para compatibilidad
     private BigDecimal price;
     private Integer stockQuantity;
@@ -152,6 +173,14 @@ public class ProductBulkUpdateDTO {
         this.isActive = isActive;
     }
 
+    public PriceRounding getPriceRounding() {
+        return priceRounding;
+    }
+
+    public void setPriceRounding(PriceRounding priceRounding) {
+        this.priceRounding = priceRounding;
+    }
+
     public String getUpdateReason() {
         return updateReason;
     }
@@ -5,7 +5,7 @@ import java.util.List;
 
 /**
  * DTO resumen del catálogo completo de un proveedor
- * Incluye estadísticas y lista de productos
+ * Incluye estadísticas; la lista de productos se consulta paginada
  */
 public class ProviderCatalogSummaryDTO {
 
@@ -4,7 +4,7 @@ import java.util.List;
 
 /**
  * DTO para el resumen del inventario completo de un proveedor
- * Incluye estadísticas generales y lista de productos
+ * Incluye estadísticas generales; la lista de productos se consulta paginada
  */
 public class ProviderInventorySummaryDTO {
 
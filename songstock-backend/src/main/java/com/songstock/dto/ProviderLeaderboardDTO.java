@@ -0,0 +1,91 @@
+package com.songstock.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de una posición del ranking de proveedores.
+ * inventoryValue es la suma de precio por stock de los productos activos y
+ * salesRevenue los ingresos acumulados de ventas no canceladas ni rechazadas.
+ */
+public class ProviderLeaderboardDTO {
+    private Integer rank;
+    private Long providerId;
+    private Long userId;
+    private String businessName;
+    private Long activeProducts;
+    private BigDecimal inventoryValue;
+    private BigDecimal salesRevenue;
+
+    // Constructor vacío
+    public ProviderLeaderboardDTO() {
+    }
+
+    // Constructor completo
+    public ProviderLeaderboardDTO(Integer rank, Long providerId, Long userId, String businessName,
+            Long activeProducts, BigDecimal inventoryValue, BigDecimal salesRevenue) {
+        this.rank = rank;
+        this.providerId = providerId;
+        this.userId = userId;
+        this.businessName = businessName;
+        this.activeProducts = activeProducts;
+        this.inventoryValue = inventoryValue;
+        this.salesRevenue = salesRevenue;
+    }
+
+    // Getters y Setters
+    public Integer getRank() {
+        return rank;
+    }
+
+    public void setRank(Integer rank) {
+        this.rank = rank;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getBusinessName() {
+        return businessName;
+    }
+
+    public void setBusinessName(String businessName) {
+        this.businessName = businessName;
+    }
+
+    public Long getActiveProducts() {
+        return activeProducts;
+    }
+
+    public void setActiveProducts(Long activeProducts) {
+        this.activeProducts = activeProducts;
+    }
+
+    public BigDecimal getInventoryValue() {
+        return inventoryValue;
+    }
+
+    public void setInventoryValue(BigDecimal inventoryValue) {
+        this.inventoryValue = inventoryValue;
+    }
+
+    public BigDecimal getSalesRevenue() {
+        return salesRevenue;
+    }
+
+    public void setSalesRevenue(BigDecimal salesRevenue) {
+        this.salesRevenue = salesRevenue;
+    }
+}
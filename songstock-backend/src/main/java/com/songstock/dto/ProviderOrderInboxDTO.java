@@ -0,0 +1,61 @@
+package com.songstock.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO para una página de la bandeja de órdenes del proveedor.
+ * La siguiente página se pide enviando nextCursorCreatedAt y nextCursorId.
+ */
+public class ProviderOrderInboxDTO {
+    private List<OrderDTO> orders;
+    private LocalDateTime nextCursorCreatedAt;
+    private Long nextCursorId;
+    private boolean hasMore;
+
+    // Constructor vacío
+    public ProviderOrderInboxDTO() {
+    }
+
+    // Constructor completo
+    public ProviderOrderInboxDTO(List<OrderDTO> orders, LocalDateTime nextCursorCreatedAt, Long nextCursorId,
+            boolean hasMore) {
+        this.orders = orders;
+        this.nextCursorCreatedAt = nextCursorCreatedAt;
+        this.nextCursorId = nextCursorId;
+        this.hasMore = hasMore;
+    }
+
+    // Getters y Setters
+    public List<OrderDTO> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderDTO> orders) {
+        this.orders = orders;
+    }
+
+    public LocalDateTime getNextCursorCreatedAt() {
+        return nextCursorCreatedAt;
+    }
+
+    public void setNextCursorCreatedAt(LocalDateTime nextCursorCreatedAt) {
+        this.nextCursorCreatedAt = nextCursorCreatedAt;
+    }
+
+    public Long getNextCursorId() {
+        return nextCursorId;
+    }
+
+    public void setNextCursorId(Long nextCursorId) {
+        this.nextCursorId = nextCursorId;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,43 @@
+package com.songstock.dto;
+
+import com.songstock.entity.OrderItemStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * DTO con el conteo de órdenes por estado de item para las pestañas
+ * del dashboard del proveedor.
+ * Una orden con items en varios estados cuenta en cada uno de ellos.
+ */
+public class ProviderOrderSummaryDTO {
+    private Map<OrderItemStatus, Long> countsByStatus = new EnumMap<>(OrderItemStatus.class);
+    private Long totalOrders;
+
+    // Constructor vacío
+    public ProviderOrderSummaryDTO() {
+    }
+
+    // Constructor completo
+    public ProviderOrderSummaryDTO(Map<OrderItemStatus, Long> countsByStatus, Long totalOrders) {
+        this.countsByStatus = countsByStatus;
+        this.totalOrders = totalOrders;
+    }
+
+    // Getters y Setters
+    public Map<OrderItemStatus, Long> getCountsByStatus() {
+        return countsByStatus;
+    }
+
+    public void setCountsByStatus(Map<OrderItemStatus, Long> countsByStatus) {
+        this.countsByStatus = countsByStatus;
+    }
+
+    public Long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public void setTotalOrders(Long totalOrders) {
+        this.totalOrders = totalOrders;
+    }
+}
@@ -0,0 +1,26 @@
+package com.songstock.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class RefreshTokenRequestDTO {
+
+    @NotBlank(message = "Refresh token es requerido")
+    private String refreshToken;
+
+    // Constructors
+    public RefreshTokenRequestDTO() {
+    }
+
+    public RefreshTokenRequestDTO(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters and Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,70 @@
+package com.songstock.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de una fila del reporte de ventas agregado.
+ * key es la clave de agrupación (fecha ISO, ID o tipo de producto) y label su
+ * nombre legible cuando aplica.
+ */
+public class SalesRollupDTO {
+    private String key;
+    private String label;
+    private Long units;
+    private BigDecimal revenue;
+    private Long orders;
+
+    // Constructor vacío
+    public SalesRollupDTO() {
+    }
+
+    // Constructor completo
+    public SalesRollupDTO(String key, String label, Long units, BigDecimal revenue, Long orders) {
+        this.key = key;
+        this.label = label;
+        this.units = units;
+        this.revenue = revenue;
+        this.orders = orders;
+    }
+
+    // Getters y Setters
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public Long getUnits() {
+        return units;
+    }
+
+    public void setUnits(Long units) {
+        this.units = units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public Long getOrders() {
+        return orders;
+    }
+
+    public void setOrders(Long orders) {
+        this.orders = orders;
+    }
+}
@@ -0,0 +1,81 @@
+package com.songstock.dto;
+
+/**
+ * DTO de un período del reporte de crecimiento de usuarios.
+ * period es la fecha ISO (agrupado por día) o el mes yyyy-MM (agrupado por mes).
+ */
+public class UserGrowthDTO {
+    private String period;
+    private Long customers = 0L;
+    private Long providers = 0L;
+    private Long admins = 0L;
+    private Long totalRegistrations = 0L;
+    private Long providersVerified = 0L;
+    private Long providersRejected = 0L;
+
+    // Constructor vacío
+    public UserGrowthDTO() {
+    }
+
+    // Constructor con período
+    public UserGrowthDTO(String period) {
+        this.period = period;
+    }
+
+    // Getters y Setters
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public Long getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(Long customers) {
+        this.customers = customers;
+    }
+
+    public Long getProviders() {
+        return providers;
+    }
+
+    public void setProviders(Long providers) {
+        this.providers = providers;
+    }
+
+    public Long getAdmins() {
+        return admins;
+    }
+
+    public void setAdmins(Long admins) {
+        this.admins = admins;
+    }
+
+    public Long getTotalRegistrations() {
+        return totalRegistrations;
+    }
+
+    public void setTotalRegistrations(Long totalRegistrations) {
+        this.totalRegistrations = totalRegistrations;
+    }
+
+    public Long getProvidersVerified() {
+        return providersVerified;
+    }
+
+    public void setProvidersVerified(Long providersVerified) {
+        this.providersVerified = providersVerified;
+    }
+
+    public Long getProvidersRejected() {
+        return providersRejected;
+    }
+
+    public void setProvidersRejected(Long providersRejected) {
+        this.providersRejected = providersRejected;
+    }
+}
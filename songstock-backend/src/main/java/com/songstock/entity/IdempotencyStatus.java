@@ -0,0 +1,12 @@
+package com.songstock.entity;
+
+/**
+ * Enum que representa el estado de una clave de idempotencia.
+ * 
+ * - IN_PROGRESS: la petición original se está ejecutando.
+ * - COMPLETED: la petición terminó y su respuesta quedó guardada.
+ */
+public enum IdempotencyStatus {
+    IN_PROGRESS, // Petición original en ejecución
+    COMPLETED // Respuesta guardada para los reintentos
+}
@@ -0,0 +1,113 @@
+package com.songstock.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento del ledger de inventario (solo inserción).
+ *
+ * Cada cambio de stock de un producto agrega una fila con la variación y el
+ * stock resultante. Las filas se insertan por lotes vía JDBC desde
+ * {@link com.songstock.service.InventoryLedgerService}; esta entidad solo se
+ * usa para lectura.
+ */
+@Entity
+@Immutable
+@Table(name = "inventory_movements")
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "provider_id", nullable = false)
+    private Long providerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 20)
+    private InventoryMovementType movementType;
+
+    /** Variación de unidades (positiva o negativa) */
+    @Column(name = "quantity_delta", nullable = false)
+    private Integer quantityDelta;
+
+    /** Stock del producto después del movimiento */
+    @Column(name = "stock_after", nullable = false)
+    private Integer stockAfter;
+
+    @Column(name = "reason", length = 255)
+    private String reason;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public InventoryMovementType getMovementType() {
+        return movementType;
+    }
+
+    public void setMovementType(InventoryMovementType movementType) {
+        this.movementType = movementType;
+    }
+
+    public Integer getQuantityDelta() {
+        return quantityDelta;
+    }
+
+    public void setQuantityDelta(Integer quantityDelta) {
+        this.quantityDelta = quantityDelta;
+    }
+
+    public Integer getStockAfter() {
+        return stockAfter;
+    }
+
+    public void setStockAfter(Integer stockAfter) {
+        this.stockAfter = stockAfter;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,14 @@
+package com.songstock.entity;
+
+/**
+ * Tipos de movimiento del ledger de inventario.
+ */
+public enum InventoryMovementType {
+    INITIAL_STOCK, // Stock con el que se crea el producto
+    MANUAL_SET, // Stock establecido manualmente por el proveedor o admin
+    ADJUSTMENT, // Incremento o decremento puntual
+    BULK_UPDATE, // Cambio desde una actualización masiva
+    BULK_IMPORT, // Cambio desde una importación de archivo por SKU
+    ORDER_RESERVATION, // Unidades reservadas por una orden
+    ORDER_CANCELLATION // Unidades liberadas al cancelar/rechazar una orden
+}
@@ -0,0 +1,82 @@
+package com.songstock.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot compactado del ledger de inventario por producto.
+ *
+ * Guarda el stock del producto hasta el movimiento {@code lastMovementId}; el
+ * stock actual se reconstruye sumando solo los movimientos posteriores.
+ */
+@Entity
+@Table(name = "inventory_snapshots")
+public class InventorySnapshot {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "provider_id", nullable = false)
+    private Long providerId;
+
+    @Column(name = "stock_quantity", nullable = false)
+    private Integer stockQuantity;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
+    // Constructor vacío
+    public InventorySnapshot() {
+    }
+
+    public InventorySnapshot(Long productId, Long providerId) {
+        this.productId = productId;
+        this.providerId = providerId;
+    }
+
+    // Getters y Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Long getLastMovementId() {
+        return lastMovementId;
+    }
+
+    public void setLastMovementId(Long lastMovementId) {
+        this.lastMovementId = lastMovementId;
+    }
+
+    public LocalDateTime getSnapshotAt() {
+        return snapshotAt;
+    }
+
+    public void setSnapshotAt(LocalDateTime snapshotAt) {
+        this.snapshotAt = snapshotAt;
+    }
+}
@@ -0,0 +1,68 @@
+package com.songstock.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Agregado diario de ventas por proveedor, álbum, género y tipo de producto.
+ *
+ * Cuenta los items no rechazados de órdenes que no están canceladas ni
+ * rechazadas. No guarda órdenes: sumadas entre filas, una orden con productos
+ * de varios álbumes contaría una vez por cada uno. Las órdenes distintas por
+ * agrupación van en sales_daily_order_counts.
+ */
+@Entity
+@Table(name = "sales_daily_rollups")
+public class SalesDailyRollup {
+
+    @EmbeddedId
+    private SalesDailyRollupId id;
+
+    @Column(name = "units", nullable = false)
+    private Integer units = 0;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructor vacío
+    public SalesDailyRollup() {
+    }
+
+    // Getters y Setters
+    public SalesDailyRollupId getId() {
+        return id;
+    }
+
+    public void setId(SalesDailyRollupId id) {
+        this.id = id;
+    }
+
+    public Integer getUnits() {
+        return units;
+    }
+
+    public void setUnits(Integer units) {
+        this.units = units;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,110 @@
+package com.songstock.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Clave compuesta del rollup diario de ventas.
+ * genreId = 0 representa los álbumes sin género.
+ */
+@Embeddable
+public class SalesDailyRollupId implements Serializable {
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "provider_id", nullable = false)
+    private Long providerId;
+
+    @Column(name = "album_id", nullable = false)
+    private Long albumId;
+
+    @Column(name = "genre_id", nullable = false)
+    private Long genreId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "product_type", nullable = false)
+    private ProductType productType;
+
+    // Constructor vacío
+    public SalesDailyRollupId() {
+    }
+
+    // Constructor completo
+    public SalesDailyRollupId(LocalDate salesDate, Long providerId, Long albumId, Long genreId,
+            ProductType productType) {
+        this.salesDate = salesDate;
+        this.providerId = providerId;
+        this.albumId = albumId;
+        this.genreId = genreId;
+        this.productType = productType;
+    }
+
+    // Getters y Setters
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public void setSalesDate(LocalDate salesDate) {
+        this.salesDate = salesDate;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public Long getAlbumId() {
+        return albumId;
+    }
+
+    public void setAlbumId(Long albumId) {
+        this.albumId = albumId;
+    }
+
+    public Long getGenreId() {
+        return genreId;
+    }
+
+    public void setGenreId(Long genreId) {
+        this.genreId = genreId;
+    }
+
+    public ProductType getProductType() {
+        return productType;
+    }
+
+    public void setProductType(ProductType productType) {
+        this.productType = productType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SalesDailyRollupId)) {
+            return false;
+        }
+        SalesDailyRollupId that = (SalesDailyRollupId) o;
+        return Objects.equals(salesDate, that.salesDate)
+                && Objects.equals(providerId, that.providerId)
+                && Objects.equals(albumId, that.albumId)
+                && Objects.equals(genreId, that.genreId)
+                && productType == that.productType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(salesDate, providerId, albumId, genreId, productType);
+    }
+}
@@ -0,0 +1,55 @@
+package com.songstock.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Agregado diario de registros de usuarios por rol y de verificaciones de
+ * proveedores por estado.
+ *
+ * Refleja el estado actual de usuarios y proveedores: si un usuario se elimina
+ * o cambia de rol, su registro se descuenta de la fila anterior.
+ */
+@Entity
+@Table(name = "user_growth_daily_rollups")
+public class UserGrowthDailyRollup {
+
+    @EmbeddedId
+    private UserGrowthDailyRollupId id;
+
+    @Column(name = "users_count", nullable = false)
+    private Integer usersCount = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructor vacío
+    public UserGrowthDailyRollup() {
+    }
+
+    // Getters y Setters
+    public UserGrowthDailyRollupId getId() {
+        return id;
+    }
+
+    public void setId(UserGrowthDailyRollupId id) {
+        this.id = id;
+    }
+
+    public Integer getUsersCount() {
+        return usersCount;
+    }
+
+    public void setUsersCount(Integer usersCount) {
+        this.usersCount = usersCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,83 @@
+package com.songstock.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Clave compuesta del rollup diario de crecimiento de usuarios.
+ * segment es el rol (REGISTRATION) o el estado de verificación (VERIFICATION).
+ */
+@Embeddable
+public class UserGrowthDailyRollupId implements Serializable {
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private UserGrowthEventType eventType;
+
+    @Column(name = "segment", nullable = false, length = 20)
+    private String segment;
+
+    // Constructor vacío
+    public UserGrowthDailyRollupId() {
+    }
+
+    // Constructor completo
+    public UserGrowthDailyRollupId(LocalDate statDate, UserGrowthEventType eventType, String segment) {
+        this.statDate = statDate;
+        this.eventType = eventType;
+        this.segment = segment;
+    }
+
+    // Getters y Setters
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public UserGrowthEventType getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(UserGrowthEventType eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getSegment() {
+        return segment;
+    }
+
+    public void setSegment(String segment) {
+        this.segment = segment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserGrowthDailyRollupId)) {
+            return false;
+        }
+        UserGrowthDailyRollupId that = (UserGrowthDailyRollupId) o;
+        return Objects.equals(statDate, that.statDate)
+                && eventType == that.eventType
+                && Objects.equals(segment, that.segment);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(statDate, eventType, segment);
+    }
+}
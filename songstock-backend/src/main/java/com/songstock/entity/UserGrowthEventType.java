@@ -0,0 +1,12 @@
+package com.songstock.entity;
+
+/**
+ * Enum que representa el tipo de evento del rollup de crecimiento de usuarios.
+ * 
+ * - REGISTRATION: registro de un usuario, segmentado por rol.
+ * - VERIFICATION: decisión sobre un proveedor, segmentada por estado.
+ */
+public enum UserGrowthEventType {
+    REGISTRATION, // Usuario registrado
+    VERIFICATION // Proveedor verificado o rechazado
+}
@@ -31,18 +31,33 @@ public class UserSession {
     private User user;
 
     /**
-     * Token de sesión (ejemplo: JWT o UUID) que identifica de manera única
-     * la sesión activa del usuario.
+     * Hash SHA-256 (hexadecimal) del token de sesión (JWT) que identifica la
+     * sesión activa del usuario. El token completo nunca se guarda.
      */
-    @Column(name = "session_token", nullable = false)
+    @Column(name = "session_token", nullable = false, length = 64)
     private String sessionToken;
 
     /**
-     * Refresh token opcional para renovar la sesión cuando el sessionToken expira.
+     * Hash SHA-256 del refresh token opcional para renovar la sesión cuando el
+     * sessionToken expira.
      */
-    @Column(name = "refresh_token")
+    @Column(name = "refresh_token", length = 64)
     private String refreshToken;
 
+    /**
+     * Hash del refresh token reemplazado en la última rotación. Si se vuelve a
+     * presentar, el token fue reutilizado y la sesión se revoca.
+     */
+    @Column(name = "previous_refresh_token", length = 64)
+    private String previousRefreshToken;
+
+    /**
+     * Fecha y hora (segundos enteros) de la última rotación. Los tokens de esa
+     * rotación se derivan del refresh token anterior y de esta fecha.
+     */
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+
     /**
      * Fecha y hora en la que la sesión expira.
      */
@@ -137,6 +152,22 @@ public class UserSession {
         this.refreshToken = refreshToken;
     }
 
+    public String getPreviousRefreshToken() {
+        return previousRefreshToken;
+    }
+
+    public void setPreviousRefreshToken(String previousRefreshToken) {
+        this.previousRefreshToken = previousRefreshToken;
+    }
+
+    public LocalDateTime getRotatedAt() {
+        return rotatedAt;
+    }
+
+    public void setRotatedAt(LocalDateTime rotatedAt) {
+        this.rotatedAt = rotatedAt;
+    }
+
     public LocalDateTime getExpiresAt() {
         return expiresAt;
     }
@@ -0,0 +1,59 @@
+package com.songstock.repository;
+
+import com.songstock.entity.IdempotencyRecord;
+import com.songstock.entity.IdempotencyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Buscar la clave de un usuario
+     */
+    Optional<IdempotencyRecord> findByUsernameAndIdempotencyKey(String username, String idempotencyKey);
+
+    /**
+     * Volver a tomar una clave (vencida o abandonada) para ejecutar la petición,
+     * solo si nadie la tomó ni renovó desde que se leyó: el lease leído
+     * identifica la versión del registro
+     *
+     * @return 1 si se tomó la clave, 0 si otra petición se adelantó
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.status = :status, "
+            + "r.responseStatus = NULL, r.responseBody = NULL, r.createdAt = :now, "
+            + "r.leaseExpiresAt = :leaseExpiresAt, r.expiresAt = :expiresAt "
+            + "WHERE r.id = :id AND r.leaseExpiresAt = :observedLeaseExpiresAt")
+    int takeOver(@Param("id") Long id,
+            @Param("observedLeaseExpiresAt") LocalDateTime observedLeaseExpiresAt,
+            @Param("requestHash") String requestHash,
+            @Param("status") IdempotencyStatus status,
+            @Param("now") LocalDateTime now,
+            @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Renovar el lease de las peticiones en curso
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.leaseExpiresAt = :leaseExpiresAt "
+            + "WHERE r.id IN :ids AND r.status = :status")
+    int renewLeases(@Param("ids") Collection<Long> ids,
+            @Param("status") IdempotencyStatus status,
+            @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+
+    /**
+     * Eliminar las claves vencidas
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
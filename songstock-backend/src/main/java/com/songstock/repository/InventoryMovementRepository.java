@@ -0,0 +1,52 @@
+package com.songstock.repository;
+
+import com.songstock.entity.InventoryMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    /**
+     * Movimientos de un proveedor por cursor de ID descendente
+     * (índice provider_id, id). Sin cursor devuelve los más recientes.
+     */
+    @Query("SELECT m FROM InventoryMovement m WHERE m.providerId = :providerId " +
+            "AND (:productId IS NULL OR m.productId = :productId) " +
+            "AND (:beforeId IS NULL OR m.id < :beforeId) ORDER BY m.id DESC")
+    List<InventoryMovement> findProviderMovements(@Param("providerId") Long providerId,
+            @Param("productId") Long productId,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    /**
+     * Suma de variaciones de un producto posteriores a un movimiento
+     * (índice product_id, id)
+     */
+    @Query("SELECT COALESCE(SUM(m.quantityDelta), 0) FROM InventoryMovement m " +
+            "WHERE m.productId = :productId AND m.id > :afterId")
+    Long sumDeltaAfter(@Param("productId") Long productId, @Param("afterId") Long afterId);
+
+    /**
+     * Primer movimiento de un producto (base del ledger si aún no hay snapshot)
+     */
+    Optional<InventoryMovement> findFirstByProductIdOrderByIdAsc(Long productId);
+
+    /**
+     * Último movimiento de cada producto dentro de un rango de IDs.
+     * Usado por la compactación de snapshots.
+     */
+    @Query("SELECT m FROM InventoryMovement m WHERE m.id IN (" +
+            "SELECT MAX(m2.id) FROM InventoryMovement m2 WHERE m2.id > :fromId AND m2.id <= :toId " +
+            "GROUP BY m2.productId)")
+    List<InventoryMovement> findLatestPerProductInRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM InventoryMovement m")
+    Long findMaxId();
+}
@@ -0,0 +1,16 @@
+package com.songstock.repository;
+
+import com.songstock.entity.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    /**
+     * Último movimiento ya compactado (marca de agua de la compactación)
+     */
+    @Query("SELECT COALESCE(MAX(s.lastMovementId), 0) FROM InventorySnapshot s")
+    Long findWatermark();
+}
@@ -1,15 +1,62 @@
 package com.songstock.repository;
 
 import com.songstock.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+    // Feed por cursor (createdAt, id) descendente, índice (user_id, created_at).
+    // Sin cursor devuelve las más recientes.
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId "
+            + "AND (:beforeCreatedAt IS NULL OR n.createdAt < :beforeCreatedAt "
+            + "OR (n.createdAt = :beforeCreatedAt AND n.id < :beforeId)) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFeed(@Param("userId") Long userId,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    // Igual que findFeed pero solo no leídas, índice (user_id, is_read, created_at)
+    @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.isRead = false "
+            + "AND (:beforeCreatedAt IS NULL OR n.createdAt < :beforeCreatedAt "
+            + "OR (n.createdAt = :beforeCreatedAt AND n.id < :beforeId)) "
+            + "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findUnreadFeed(@Param("userId") Long userId,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
 
     List<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(Long userId);
 
     Long countByUserIdAndIsReadFalse(Long userId);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    // No leídas de varios usuarios: filas (userId, total), solo usuarios con no leídas
+    @Query("SELECT n.user.id, COUNT(n) FROM Notification n "
+            + "WHERE n.user.id IN :userIds AND n.isRead = false GROUP BY n.user.id")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Marcar como leídas todas las no leídas del usuario en un solo UPDATE;
+    // devuelve cuántas cambiaron
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllAsRead(@Param("userId") Long userId);
+
+    // Marcar como leídas las indicadas, solo si pertenecen al usuario
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.isRead = true "
+            + "WHERE n.user.id = :userId AND n.id IN :ids AND n.isRead = false")
+    int markAsRead(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // Notificaciones posteriores a un ID, para reanudar el canal de eventos
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
 }
\ No newline at end of file
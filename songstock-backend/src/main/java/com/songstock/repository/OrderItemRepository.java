@@ -1,11 +1,89 @@
 package com.songstock.repository;
 
 import com.songstock.entity.OrderItem;
+import com.songstock.entity.OrderItemStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    /**
+     * Órdenes distintas por estado de item para un proveedor. Se resuelve solo
+     * con el índice (provider_id, status, order_id).
+     * Cada fila: [OrderItemStatus, Long]
+     */
+    @Query("SELECT oi.status, COUNT(DISTINCT oi.order.id) FROM OrderItem oi " +
+            "WHERE oi.provider.id = :providerId GROUP BY oi.status")
+    List<Object[]> countOrdersByStatusForProvider(@Param("providerId") Long providerId);
+
+    /**
+     * Estado y orden de los items indicados que pertenecen al proveedor.
+     * Cada fila: [Long itemId, OrderItemStatus, Long orderId]
+     */
+    @Query("SELECT oi.id, oi.status, oi.order.id FROM OrderItem oi " +
+            "WHERE oi.provider.id = :providerId AND oi.id IN :ids")
+    List<Object[]> findStatusByProviderIdAndIdIn(@Param("providerId") Long providerId,
+            @Param("ids") Collection<Long> ids);
+
+    /**
+     * Cambiar de estado un lote de items del proveedor en una sola sentencia.
+     * Solo afecta a los items que siguen en alguno de los estados de origen.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.status = :target " +
+            "WHERE oi.provider.id = :providerId AND oi.id IN :ids AND oi.status IN :fromStatuses")
+    int transitionStatus(@Param("providerId") Long providerId, @Param("ids") Collection<Long> ids,
+            @Param("fromStatuses") Collection<OrderItemStatus> fromStatuses,
+            @Param("target") OrderItemStatus target);
+
+    /**
+     * Marcar como enviados un lote de items del proveedor
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.status = com.songstock.entity.OrderItemStatus.SHIPPED, " +
+            "oi.shippedAt = :shippedAt " +
+            "WHERE oi.provider.id = :providerId AND oi.id IN :ids AND oi.status IN :fromStatuses")
+    int markShipped(@Param("providerId") Long providerId, @Param("ids") Collection<Long> ids,
+            @Param("fromStatuses") Collection<OrderItemStatus> fromStatuses,
+            @Param("shippedAt") LocalDateTime shippedAt);
+
+    /**
+     * Rechazar un lote de items del proveedor con la misma razón
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.status = com.songstock.entity.OrderItemStatus.REJECTED, " +
+            "oi.rejectionReason = :reason " +
+            "WHERE oi.provider.id = :providerId AND oi.id IN :ids AND oi.status IN :fromStatuses")
+    int markRejected(@Param("providerId") Long providerId, @Param("ids") Collection<Long> ids,
+            @Param("fromStatuses") Collection<OrderItemStatus> fromStatuses,
+            @Param("reason") String reason);
+
+    /**
+     * Conteo de items por estado de cada orden, con la fecha de envío más reciente.
+     * Cada fila: [Long orderId, OrderItemStatus, Long count, LocalDateTime maxShippedAt]
+     */
+    @Query("SELECT oi.order.id, oi.status, COUNT(oi), MAX(oi.shippedAt) FROM OrderItem oi " +
+            "WHERE oi.order.id IN :orderIds GROUP BY oi.order.id, oi.status")
+    List<Object[]> summarizeStatusByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Líneas de venta de las órdenes indicadas: items no rechazados de órdenes
+     * que no están canceladas ni rechazadas.
+     * Cada fila: [Long orderId, LocalDateTime orderCreatedAt, Long providerId,
+     * Long albumId, Long genreId, ProductType, Integer quantity, BigDecimal subtotal]
+     */
+    @Query("SELECT o.id, o.createdAt, oi.provider.id, a.id, g.id, p.productType, oi.quantity, oi.subtotal " +
+            "FROM OrderItem oi JOIN oi.order o JOIN oi.product p JOIN p.album a LEFT JOIN a.genre g " +
+            "WHERE o.id IN :orderIds AND oi.status <> com.songstock.entity.OrderItemStatus.REJECTED " +
+            "AND o.status NOT IN (com.songstock.entity.OrderStatus.CANCELLED, " +
+            "com.songstock.entity.OrderStatus.REJECTED)")
+    List<Object[]> findSalesLinesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
\ No newline at end of file
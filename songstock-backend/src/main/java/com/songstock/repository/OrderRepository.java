@@ -1,11 +1,15 @@
 package com.songstock.repository;
 
 import com.songstock.entity.Order;
+import com.songstock.entity.OrderItemStatus;
 import com.songstock.entity.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +39,68 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
         @Query("SELECT DISTINCT o FROM Order o JOIN o.items i WHERE i.provider.id = :providerId AND i.status = 'PENDING' ORDER BY o.createdAt DESC")
         List<Order> findOrdersWithPendingItemsByProviderId(@Param("providerId") Long providerId);
 
+        /**
+         * Órdenes de un usuario con usuario, items, proveedor, producto, álbum y
+         * artista cargados en una sola consulta (lectura para listados en DTO).
+         * u.provider se incluye porque el lado inverso del 1:1 no puede ser perezoso.
+         */
+        @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.user u LEFT JOIN FETCH u.provider " +
+                        "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.provider " +
+                        "LEFT JOIN FETCH i.product p LEFT JOIN FETCH p.album a LEFT JOIN FETCH a.artist " +
+                        "WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
+        List<Order> findWithDetailsByUserId(@Param("userId") Long userId);
+
+        /**
+         * Órdenes con items de un proveedor, con todo el grafo necesario para el DTO.
+         * El filtro va en una subconsulta para no recortar la colección de items.
+         */
+        @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.user u LEFT JOIN FETCH u.provider " +
+                        "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.provider " +
+                        "LEFT JOIN FETCH i.product p LEFT JOIN FETCH p.album a LEFT JOIN FETCH a.artist " +
+                        "WHERE o.id IN (SELECT oi.order.id FROM OrderItem oi WHERE oi.provider.id = :providerId) " +
+                        "ORDER BY o.createdAt DESC")
+        List<Order> findWithDetailsByProviderId(@Param("providerId") Long providerId);
+
+        /**
+         * Órdenes con items pendientes de un proveedor, con todo el grafo necesario
+         * para el DTO
+         */
+        @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.user u LEFT JOIN FETCH u.provider " +
+                        "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.provider " +
+                        "LEFT JOIN FETCH i.product p LEFT JOIN FETCH p.album a LEFT JOIN FETCH a.artist " +
+                        "WHERE o.id IN (SELECT oi.order.id FROM OrderItem oi " +
+                        "WHERE oi.provider.id = :providerId AND oi.status = 'PENDING') " +
+                        "ORDER BY o.createdAt DESC")
+        List<Order> findWithDetailsWithPendingItemsByProviderId(@Param("providerId") Long providerId);
+
+        /**
+         * Página de IDs de la bandeja de órdenes de un proveedor, paginada por
+         * cursor (createdAt, id) en orden descendente y filtrada opcionalmente por
+         * el estado de los items del proveedor. Sin cursor devuelve la primera
+         * página.
+         */
+        @Query("SELECT o.id FROM Order o " +
+                        "WHERE o.id IN (SELECT oi.order.id FROM OrderItem oi " +
+                        "WHERE oi.provider.id = :providerId AND (:status IS NULL OR oi.status = :status)) " +
+                        "AND (:cursorCreatedAt IS NULL OR o.createdAt < :cursorCreatedAt " +
+                        "OR (o.createdAt = :cursorCreatedAt AND o.id < :cursorId)) " +
+                        "ORDER BY o.createdAt DESC, o.id DESC")
+        List<Long> findProviderInboxPage(@Param("providerId") Long providerId,
+                        @Param("status") OrderItemStatus status,
+                        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                        @Param("cursorId") Long cursorId,
+                        Pageable pageable);
+
+        /**
+         * Órdenes por ID con todo el grafo necesario para el DTO, en el orden de la
+         * bandeja (createdAt, id) descendente
+         */
+        @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.user u LEFT JOIN FETCH u.provider " +
+                        "LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.provider " +
+                        "LEFT JOIN FETCH i.product p LEFT JOIN FETCH p.album a LEFT JOIN FETCH a.artist " +
+                        "WHERE o.id IN :ids ORDER BY o.createdAt DESC, o.id DESC")
+        List<Order> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
         /**
          * Contar órdenes de un proveedor
          */
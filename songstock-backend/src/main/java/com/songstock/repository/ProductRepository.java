@@ -4,10 +4,13 @@ import com.songstock.entity.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -95,6 +98,43 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Query("SELECT COUNT(p) FROM Product p WHERE p.productType = :productType AND p.isActive = true")
         Long countByProductType(@Param("productType") ProductType productType);
 
+        // Totales de productos para el dashboard en una sola pasada: total, activos,
+        // digitales activos, físicos activos y creados desde el inicio del mes
+        @Query("SELECT COUNT(p), "
+                        + "SUM(CASE WHEN p.isActive = true THEN 1 ELSE 0 END), "
+                        + "SUM(CASE WHEN p.isActive = true AND p.productType = 'DIGITAL' THEN 1 ELSE 0 END), "
+                        + "SUM(CASE WHEN p.isActive = true AND p.productType = 'PHYSICAL' THEN 1 ELSE 0 END), "
+                        + "SUM(CASE WHEN p.createdAt >= :startOfMonth THEN 1 ELSE 0 END) "
+                        + "FROM Product p")
+        Object[] getDashboardStatistics(@Param("startOfMonth") LocalDateTime startOfMonth);
+
+        // Métricas del catálogo de un proveedor en una sola fila (sin filas si el
+        // proveedor no existe): nombre, total, activos, destacados, con stock,
+        // físicos, digitales, nuevos, suma de precios, valor del catálogo, unidades
+        // activas y activos con stock
+        @Query("SELECT pr.businessName, COUNT(p), "
+                        + "SUM(CASE WHEN p.isActive = true THEN 1 ELSE 0 END), "
+                        + "SUM(CASE WHEN p.featured = true THEN 1 ELSE 0 END), "
+                        + "SUM(CASE WHEN p.stockQuantity > 0 THEN 1 ELSE 0 END), "
+                        + "SUM(CASE WHEN p.productType = 'PHYSICAL' THEN 1 ELSE 0 END), "
+                        + "SUM(CASE WHEN p.productType = 'DIGITAL' THEN 1 ELSE 0 END), "
+                        + "SUM(CASE WHEN p.conditionType = 'NEW' THEN 1 ELSE 0 END), "
+                        + "SUM(p.price), "
+                        + "SUM(p.price * p.stockQuantity), "
+                        + "SUM(CASE WHEN p.isActive = true THEN p.stockQuantity ELSE 0 END), "
+                        + "SUM(CASE WHEN p.isActive = true AND p.stockQuantity > 0 THEN 1 ELSE 0 END) "
+                        + "FROM Provider pr LEFT JOIN Product p ON p.provider.id = pr.id "
+                        + "WHERE pr.id = :providerId GROUP BY pr.id, pr.businessName")
+        List<Object[]> getProviderProductStatistics(@Param("providerId") Long providerId);
+
+        // Productos activos y valor del inventario activo de cada proveedor:
+        // filas (providerId, activos, SUM(precio * stock) de los activos)
+        @Query("SELECT p.provider.id, "
+                        + "SUM(CASE WHEN p.isActive = true THEN 1 ELSE 0 END), "
+                        + "SUM(CASE WHEN p.isActive = true THEN p.price * p.stockQuantity ELSE 0 END) "
+                        + "FROM Product p GROUP BY p.provider.id")
+        List<Object[]> getActiveInventoryByProvider();
+
         // Contar productos por proveedor
         @Query("SELECT COUNT(p) FROM Product p WHERE p.provider.id = :providerId AND p.isActive = true")
         Long countByProvider(@Param("providerId") Long providerId);
@@ -128,6 +168,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         @Query("SELECT COUNT(p) FROM Product p WHERE p.provider.id = :providerId AND p.isActive = true")
         Long countActiveProductsByProvider(@Param("providerId") Long providerId);
 
+        /**
+         * Contar productos activos de varios proveedores: filas (providerId, total),
+         * solo para los proveedores que tienen productos activos
+         */
+        @Query("SELECT p.provider.id, COUNT(p) FROM Product p "
+                        + "WHERE p.provider.id IN :providerIds AND p.isActive = true GROUP BY p.provider.id")
+        List<Object[]> countActiveProductsByProviders(@Param("providerIds") Collection<Long> providerIds);
+
         /**
          * Sumar total de unidades en stock de un proveedor
          */
@@ -412,6 +460,16 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
          */
         Page<Product> findByProviderIdAndIsActiveTrue(Long providerId, Pageable pageable);
 
+        /**
+         * Inventario activo del proveedor paginado, con álbum y artista en la misma
+         * consulta
+         */
+        @Query(value = "SELECT p FROM Product p JOIN FETCH p.album a JOIN FETCH a.artist "
+                        + "WHERE p.provider.id = :providerId AND p.isActive = true",
+                        countQuery = "SELECT COUNT(p) FROM Product p "
+                                        + "WHERE p.provider.id = :providerId AND p.isActive = true")
+        Page<Product> findInventoryViewByProviderId(@Param("providerId") Long providerId, Pageable pageable);
+
         /**
          * Paginación por proveedor - todos los productos
          */
@@ -429,4 +487,37 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         // Contar vinilos disponibles para un álbum
         Long countByAlbumIdAndProductTypeAndIsActiveTrue(Long albumId, ProductType productType);
 
+        /**
+         * Multiplicar y redondear el precio de un lote de productos del proveedor
+         * en una sola sentencia. Si el redondeo deja el precio en cero o menos, se
+         * conserva el precio actual. Devuelve las filas encontradas.
+         */
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("UPDATE Product p SET p.price = CASE WHEN ROUND(p.price * :factor, :scale) > 0 "
+                        + "THEN ROUND(p.price * :factor, :scale) ELSE p.price END, p.updatedAt = :updatedAt "
+                        + "WHERE p.provider.id = :providerId AND p.id IN :ids")
+        int scalePrices(@Param("providerId") Long providerId, @Param("ids") Collection<Long> ids,
+                        @Param("factor") BigDecimal factor, @Param("scale") Integer scale,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+        /**
+         * Establecer un precio fijo a un lote de productos del proveedor en una sola
+         * sentencia. Devuelve las filas encontradas.
+         */
+        @Modifying(flushAutomatically = true, clearAutomatically = true)
+        @Query("UPDATE Product p SET p.price = :price, p.updatedAt = :updatedAt "
+                        + "WHERE p.provider.id = :providerId AND p.id IN :ids")
+        int setPrices(@Param("providerId") Long providerId, @Param("ids") Collection<Long> ids,
+                        @Param("price") BigDecimal price, @Param("updatedAt") LocalDateTime updatedAt);
+
+        /**
+         * Productos del proveedor con todas las relaciones que usa la respuesta del
+         * catálogo, en una sola consulta
+         */
+        @Query("SELECT p FROM Product p JOIN FETCH p.album a JOIN FETCH a.artist LEFT JOIN FETCH a.genre "
+                        + "JOIN FETCH p.provider JOIN FETCH p.category "
+                        + "WHERE p.provider.id = :providerId AND p.id IN :ids ORDER BY p.id")
+        List<Product> findCatalogViewByProviderIdAndIdIn(@Param("providerId") Long providerId,
+                        @Param("ids") Collection<Long> ids);
+
 }
\ No newline at end of file
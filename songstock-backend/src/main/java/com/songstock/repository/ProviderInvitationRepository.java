@@ -3,6 +3,7 @@ package com.songstock.repository;
 import com.songstock.entity.InvitationStatus;
 import com.songstock.entity.ProviderInvitation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -65,6 +66,19 @@ public interface ProviderInvitationRepository extends JpaRepository<ProviderInvi
     @Query("SELECT pi FROM ProviderInvitation pi WHERE pi.expiresAt < :now AND pi.status = 'PENDING'")
     List<ProviderInvitation> findExpiredInvitations(@Param("now") LocalDateTime now);
 
+    /**
+     * Marca como EXPIRED las invitaciones pendientes ya expiradas, en un solo UPDATE.
+     *
+     * @param now Fecha y hora actual para comparar con la fecha de expiración.
+     * @return Número de invitaciones actualizadas.
+     */
+    @Modifying
+    @Query("UPDATE ProviderInvitation pi SET pi.status = :expired "
+            + "WHERE pi.expiresAt < :now AND pi.status = :pending")
+    int expirePendingInvitations(@Param("now") LocalDateTime now,
+            @Param("pending") InvitationStatus pending,
+            @Param("expired") InvitationStatus expired);
+
     /**
      * Verifica si ya existe una invitación para un correo electrónico específico.
      *
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +29,22 @@ public interface ProviderRepository extends JpaRepository<Provider, Long> {
          */
         Optional<Provider> findByUserId(Long userId);
 
+        /**
+         * Identificación de todos los proveedores: filas (providerId, userId,
+         * businessName), sin cargar las entidades.
+         */
+        @Query("SELECT p.id, p.user.id, p.businessName FROM Provider p")
+        List<Object[]> findAllIdentities();
+
+        /**
+         * Busca proveedores por ID junto con su usuario en una sola consulta.
+         *
+         * @param ids IDs de los proveedores.
+         * @return Proveedores encontrados con el usuario ya cargado.
+         */
+        @Query("SELECT p FROM Provider p JOIN FETCH p.user WHERE p.id IN :ids")
+        List<Provider> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
         /**
          * Buscar proveedor por usuario
          */
@@ -0,0 +1,63 @@
+package com.songstock.repository;
+
+import com.songstock.entity.SalesDailyRollup;
+import com.songstock.entity.SalesDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Consultas agregadas sobre el rollup diario de ventas.
+ * Cada fila: [clave de agrupación, Long unidades, BigDecimal ingresos].
+ * Se omiten los grupos que quedaron en cero por cancelaciones o rechazos.
+ * Las órdenes distintas de cada grupo no se pueden sumar desde estas filas; se
+ * leen de sales_daily_order_counts ({@code SalesRollupService}).
+ */
+@Repository
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, SalesDailyRollupId> {
+
+    @Query("SELECT r.id.salesDate, SUM(r.units), SUM(r.revenue) FROM SalesDailyRollup r " +
+            "WHERE (:providerId IS NULL OR r.id.providerId = :providerId) " +
+            "AND r.id.salesDate BETWEEN :from AND :to " +
+            "GROUP BY r.id.salesDate HAVING SUM(r.units) > 0 ORDER BY r.id.salesDate")
+    List<Object[]> sumByDay(@Param("providerId") Long providerId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("SELECT r.id.providerId, SUM(r.units), SUM(r.revenue) FROM SalesDailyRollup r " +
+            "WHERE (:providerId IS NULL OR r.id.providerId = :providerId) " +
+            "AND r.id.salesDate BETWEEN :from AND :to " +
+            "GROUP BY r.id.providerId HAVING SUM(r.units) > 0 ORDER BY SUM(r.revenue) DESC")
+    List<Object[]> sumByProvider(@Param("providerId") Long providerId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("SELECT r.id.albumId, SUM(r.units), SUM(r.revenue) FROM SalesDailyRollup r " +
+            "WHERE (:providerId IS NULL OR r.id.providerId = :providerId) " +
+            "AND r.id.salesDate BETWEEN :from AND :to " +
+            "GROUP BY r.id.albumId HAVING SUM(r.units) > 0 ORDER BY SUM(r.revenue) DESC")
+    List<Object[]> sumByAlbum(@Param("providerId") Long providerId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("SELECT r.id.genreId, SUM(r.units), SUM(r.revenue) FROM SalesDailyRollup r " +
+            "WHERE (:providerId IS NULL OR r.id.providerId = :providerId) " +
+            "AND r.id.salesDate BETWEEN :from AND :to " +
+            "GROUP BY r.id.genreId HAVING SUM(r.units) > 0 ORDER BY SUM(r.revenue) DESC")
+    List<Object[]> sumByGenre(@Param("providerId") Long providerId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("SELECT r.id.productType, SUM(r.units), SUM(r.revenue) FROM SalesDailyRollup r " +
+            "WHERE (:providerId IS NULL OR r.id.providerId = :providerId) " +
+            "AND r.id.salesDate BETWEEN :from AND :to " +
+            "GROUP BY r.id.productType HAVING SUM(r.units) > 0 ORDER BY SUM(r.revenue) DESC")
+    List<Object[]> sumByProductType(@Param("providerId") Long providerId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Ingresos acumulados de cada proveedor: filas (providerId, BigDecimal ingresos)
+     */
+    @Query("SELECT r.id.providerId, SUM(r.revenue) FROM SalesDailyRollup r GROUP BY r.id.providerId")
+    List<Object[]> sumRevenueByProvider();
+}
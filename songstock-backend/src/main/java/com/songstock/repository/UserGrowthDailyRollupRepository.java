@@ -0,0 +1,37 @@
+package com.songstock.repository;
+
+import com.songstock.entity.UserGrowthDailyRollup;
+import com.songstock.entity.UserGrowthDailyRollupId;
+import com.songstock.entity.UserGrowthEventType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Consultas agregadas sobre el rollup diario de crecimiento de usuarios.
+ */
+@Repository
+public interface UserGrowthDailyRollupRepository extends JpaRepository<UserGrowthDailyRollup, UserGrowthDailyRollupId> {
+
+    /**
+     * Filas del rango: [LocalDate fecha, UserGrowthEventType tipo, String segmento, Long total]
+     */
+    @Query("SELECT r.id.statDate, r.id.eventType, r.id.segment, SUM(r.usersCount) FROM UserGrowthDailyRollup r " +
+            "WHERE r.id.statDate BETWEEN :from AND :to " +
+            "GROUP BY r.id.statDate, r.id.eventType, r.id.segment HAVING SUM(r.usersCount) <> 0 " +
+            "ORDER BY r.id.statDate")
+    List<Object[]> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Total de un tipo de evento en un rango, opcionalmente de un solo segmento
+     */
+    @Query("SELECT COALESCE(SUM(r.usersCount), 0) FROM UserGrowthDailyRollup r " +
+            "WHERE r.id.eventType = :eventType AND (:segment IS NULL OR r.id.segment = :segment) " +
+            "AND r.id.statDate BETWEEN :from AND :to")
+    Long sumEvents(@Param("eventType") UserGrowthEventType eventType, @Param("segment") String segment,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
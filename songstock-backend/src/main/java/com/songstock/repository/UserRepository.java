@@ -3,6 +3,7 @@ package com.songstock.repository;
 import com.songstock.entity.User;
 import com.songstock.entity.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,6 +11,7 @@ import com.songstock.entity.VerificationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.time.LocalDateTime;
@@ -52,6 +54,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
         @Query("SELECT u FROM User u WHERE u.provider.id = :providerId")
         Optional<User> findByProviderId(@Param("providerId") Long providerId);
 
+        /**
+         * Usuarios de varios proveedores, con el proveedor ya cargado
+         */
+        @Query("SELECT u FROM User u JOIN FETCH u.provider p WHERE p.id IN :providerIds")
+        List<User> findWithProviderByProviderIdIn(@Param("providerIds") Collection<Long> providerIds);
+
+        /**
+         * Reemplazar el hash de la contraseña (re-cifrado con otro factor de
+         * trabajo, sin cargar la entidad)
+         */
+        @Modifying
+        @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+        int updatePassword(@Param("id") Long id, @Param("password") String password);
+
         /**
          * Buscar usuarios por rol.
          */
@@ -81,9 +97,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
          * - Estado activo
          * - Estado de verificación de proveedor
          * - Fechas de creación
+         *
+         * El proveedor se trae en la misma consulta para que armar la página no
+         * dispare una consulta por usuario.
          */
-        @Query("SELECT DISTINCT u FROM User u " +
-                        "LEFT JOIN Provider p ON u.id = p.user.id " +
+        @Query(value = "SELECT u FROM User u " +
+                        "LEFT JOIN FETCH u.provider p " +
+                        "WHERE (:searchQuery IS NULL OR :searchQuery = '' OR " +
+                        "       LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
+                        "       LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
+                        "       LOWER(u.username) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
+                        "       LOWER(u.email) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
+                        "       LOWER(p.businessName) LIKE LOWER(CONCAT('%', :searchQuery, '%'))) " +
+                        "AND (:role IS NULL OR u.role = :role) " +
+                        "AND (:isActive IS NULL OR u.isActive = :isActive) " +
+                        "AND (:verificationStatus IS NULL OR p.verificationStatus = :verificationStatus) " +
+                        "AND (:createdAfter IS NULL OR u.createdAt >= :createdAfter) " +
+                        "AND (:createdBefore IS NULL OR u.createdAt <= :createdBefore)",
+                        countQuery = "SELECT COUNT(u) FROM User u " +
+                        "LEFT JOIN u.provider p " +
                         "WHERE (:searchQuery IS NULL OR :searchQuery = '' OR " +
                         "       LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
                         "       LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchQuery, '%')) OR " +
@@ -145,10 +177,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
                         @Param("verificationStatus") VerificationStatus verificationStatus);
 
         /**
-         * Buscar proveedores pendientes de verificación.
+         * Buscar proveedores pendientes de verificación, con su proveedor cargado.
          */
         @Query("SELECT u FROM User u " +
-                        "JOIN Provider p ON u.id = p.user.id " +
+                        "JOIN FETCH u.provider p " +
                         "WHERE p.verificationStatus = 'PENDING' " +
                         "ORDER BY p.createdAt ASC")
         List<User> findPendingProviders();
@@ -166,26 +198,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
          */
         Long countByIsActive(Boolean isActive);
 
-        /**
-         * Contar usuarios registrados en el mes actual.
-         */
-        @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :startOfMonth")
-        Long countUsersRegisteredThisMonth(@Param("startOfMonth") LocalDateTime startOfMonth);
-
         /**
          * Contar proveedores por estado de verificación.
          */
         @Query("SELECT COUNT(p) FROM Provider p WHERE p.verificationStatus = :status")
         Long countProvidersByVerificationStatus(@Param("status") VerificationStatus status);
 
-        /**
-         * Contar proveedores verificados este mes.
-         */
-        @Query("SELECT COUNT(p) FROM Provider p " +
-                        "WHERE p.verificationStatus = 'VERIFIED' " +
-                        "AND p.verificationDate >= :startOfMonth")
-        Long countProvidersVerifiedThisMonth(@Param("startOfMonth") LocalDateTime startOfMonth);
-
         /**
          * Obtener estadísticas agregadas de usuarios.
          */
@@ -297,31 +315,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
         // ================== QUERIES PARA REPORTES ==================
 
         /**
-         * Obtener crecimiento de usuarios por mes desde una fecha.
-         */
-        @Query("SELECT YEAR(u.createdAt), MONTH(u.createdAt), COUNT(u) " +
-                        "FROM User u " +
-                        "WHERE u.createdAt >= :since " +
-                        "GROUP BY YEAR(u.createdAt), MONTH(u.createdAt) " +
-                        "ORDER BY YEAR(u.createdAt), MONTH(u.createdAt)")
-        List<Object[]> getUserGrowthByMonth(@Param("since") LocalDateTime since);
-
-        /**
-         * Obtener top de proveedores por número de productos activos.
-         */
-        @Query("SELECT u, COUNT(p) as productCount " +
-                        "FROM User u " +
-                        "JOIN Provider pr ON u.id = pr.user.id " +
-                        "JOIN Product p ON pr.id = p.provider.id " +
-                        "WHERE p.isActive = true " +
-                        "GROUP BY u.id " +
-                        "ORDER BY productCount DESC")
-        List<Object[]> getTopProvidersByProductCount(Pageable pageable);
-
-        /**
-         * Buscar usuarios registrados en los últimos N días.
+         * Buscar usuarios registrados en los últimos N días, con su proveedor cargado.
          */
         @Query("SELECT u FROM User u " +
+                        "LEFT JOIN FETCH u.provider " +
                         "WHERE u.createdAt >= :cutoffDate " +
                         "ORDER BY u.createdAt DESC")
         List<User> findRecentUsers(@Param("cutoffDate") LocalDateTime cutoffDate);
@@ -329,10 +326,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
         // ================== MÉTODOS DE BÚSQUEDA AVANZADA ==================
 
         /**
-         * Búsqueda de texto completo en usuarios y proveedores.
+         * Búsqueda de texto completo en usuarios y proveedores, con el proveedor
+         * cargado.
          */
-        @Query("SELECT DISTINCT u FROM User u " +
-                        "LEFT JOIN Provider p ON u.id = p.user.id " +
+        @Query("SELECT u FROM User u " +
+                        "LEFT JOIN FETCH u.provider p " +
                         "WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
                         "      LOWER(u.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
                         "      LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
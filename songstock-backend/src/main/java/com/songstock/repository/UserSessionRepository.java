@@ -2,7 +2,9 @@ package com.songstock.repository;
 
 import com.songstock.entity.User;
 import com.songstock.entity.UserSession;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -23,21 +25,72 @@ import java.util.Optional;
 public interface UserSessionRepository extends JpaRepository<UserSession, Long> {
 
     /**
-     * Busca una sesión por su token de sesión.
+     * Busca una sesión por el hash de su token de sesión.
      *
-     * @param sessionToken Token único de sesión.
+     * @param sessionToken Hash del token de sesión ({@code TokenHasher}).
      * @return Un {@link Optional} con la sesión si existe.
      */
     Optional<UserSession> findBySessionToken(String sessionToken);
 
     /**
-     * Busca una sesión por su token de refresco.
+     * Busca una sesión por el hash de su token de refresco.
      *
-     * @param refreshToken Token de refresco único.
+     * @param refreshToken Hash del token de refresco ({@code TokenHasher}).
      * @return Un {@link Optional} con la sesión si existe.
      */
     Optional<UserSession> findByRefreshToken(String refreshToken);
 
+    /**
+     * Busca una sesión por el hash de su token de refresco, junto con su usuario,
+     * bloqueándola hasta el fin de la transacción: dos renovaciones con el mismo
+     * token se atienden una después de la otra.
+     *
+     * @param refreshToken Hash del token de refresco ({@code TokenHasher}).
+     * @return Un {@link Optional} con la sesión si existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT us FROM UserSession us JOIN FETCH us.user WHERE us.refreshToken = :refreshToken")
+    Optional<UserSession> findWithUserByRefreshToken(@Param("refreshToken") String refreshToken);
+
+    /**
+     * Busca la sesión cuyo refresh token anterior (ya rotado) tiene este hash.
+     *
+     * @param refreshToken Hash del token de refresco ({@code TokenHasher}).
+     * @return Un {@link Optional} con la sesión si existe.
+     */
+    Optional<UserSession> findByPreviousRefreshToken(String refreshToken);
+
+    /**
+     * Obtiene el hash del token de sesión actual, leído de la base de datos.
+     *
+     * @param id ID de la sesión.
+     * @return Hash del token de sesión, o null si la sesión no existe.
+     */
+    @Query("SELECT us.sessionToken FROM UserSession us WHERE us.id = :id")
+    String findSessionTokenById(@Param("id") Long id);
+
+    /**
+     * Rota los tokens de una sesión activa, solo si su refresh token sigue
+     * siendo el presentado. Dos rotaciones concurrentes del mismo token no
+     * pueden tener éxito ambas.
+     *
+     * @param id              ID de la sesión.
+     * @param refreshToken    Hash del refresh token presentado.
+     * @param sessionToken    Hash del nuevo token de sesión.
+     * @param newRefreshToken Hash del nuevo refresh token.
+     * @param rotatedAt       Fecha de la rotación (emisión de los tokens nuevos).
+     * @param expiresAt       Nueva fecha de expiración del token de sesión.
+     * @return Número de sesiones rotadas (0 o 1).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserSession us SET us.sessionToken = :sessionToken, us.refreshToken = :newRefreshToken, "
+            + "us.previousRefreshToken = :refreshToken, us.rotatedAt = :rotatedAt, us.expiresAt = :expiresAt "
+            + "WHERE us.id = :id AND us.refreshToken = :refreshToken AND us.isActive = true")
+    int rotateTokens(@Param("id") Long id, @Param("refreshToken") String refreshToken,
+            @Param("sessionToken") String sessionToken, @Param("newRefreshToken") String newRefreshToken,
+            @Param("rotatedAt") LocalDateTime rotatedAt, @Param("expiresAt") LocalDateTime expiresAt);
+
     /**
      * Obtiene todas las sesiones asociadas a un usuario.
      *
@@ -65,6 +118,15 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
     @Query("SELECT us FROM UserSession us WHERE us.expiresAt < :now")
     List<UserSession> findExpiredSessions(@Param("now") LocalDateTime now);
 
+    /**
+     * Obtiene los hashes de los tokens de las sesiones activas de un usuario.
+     *
+     * @param userId ID del usuario.
+     * @return Hashes de los tokens de sesión activos.
+     */
+    @Query("SELECT us.sessionToken FROM UserSession us WHERE us.user.id = :userId AND us.isActive = true")
+    List<String> findActiveSessionTokensByUserId(@Param("userId") Long userId);
+
     /**
      * Desactiva todas las sesiones de un usuario, marcándolas como inactivas.
      *
@@ -76,15 +138,25 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
     void deactivateAllUserSessions(@Param("userId") Long userId);
 
     /**
-     * Desactiva una sesión específica por su token.
+     * Desactiva una sesión específica por el hash de su token.
      *
-     * @param sessionToken Token de la sesión a desactivar.
+     * @param sessionToken Hash del token de la sesión a desactivar.
      */
     @Modifying
     @Transactional
     @Query("UPDATE UserSession us SET us.isActive = false WHERE us.sessionToken = :token")
     void deactivateSession(@Param("token") String sessionToken);
 
+    /**
+     * Desactiva una sesión por su ID.
+     *
+     * @param id ID de la sesión a desactivar.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserSession us SET us.isActive = false WHERE us.id = :id")
+    void deactivateSessionById(@Param("id") Long id);
+
     /**
      * Elimina de la base de datos todas las sesiones que hayan expirado.
      *
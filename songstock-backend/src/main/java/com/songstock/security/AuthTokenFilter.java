@@ -1,11 +1,12 @@
 package com.songstock.security;
 
+import com.songstock.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -26,6 +27,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -39,15 +43,16 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             logger.debug("🔑 JWT extraído: {}", jwt != null ? "Presente" : "Ausente");
 
             if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                logger.debug("✅ JWT válido para usuario: {}", username);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                Claims claims = jwtUtils.getClaimsFromJwtToken(jwt);
+                String username = claims.getSubject();
+
+                // Los refresh tokens solo sirven en /auth/refresh
+                if (jwtUtils.isRefreshToken(claims)) {
+                    logger.debug("❌ Refresh token usado como token de acceso: {}", username);
+                } else {
+                    logger.debug("✅ JWT válido para usuario: {}", username);
+                    authenticate(request, jwt, claims, username);
+                }
             } else {
                 logger.debug("❌ JWT inválido o ausente");
             }
@@ -58,6 +63,22 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void authenticate(HttpServletRequest request, String jwt, Claims claims, String username) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+
+        // Tokens de sesiones cerradas: se consulta la lista en memoria, no la BD
+        if (tokenRevocationService.isRevoked(TokenHasher.hash(jwt), userDetails.getId(), claims.getIssuedAt())) {
+            logger.debug("❌ JWT revocado para usuario: {}", username);
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,60 @@
+package com.songstock.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buckets del límite de peticiones en memoria del proceso, sin bloqueos.
+ *
+ * Cada bucket es un único {@link AtomicLong} con el instante teórico en que el
+ * bucket vuelve a estar lleno (algoritmo GCRA, equivalente a un token bucket):
+ * consumir un token lo adelanta un intervalo de reposición, y la petición se
+ * rechaza si eso lo deja a más de {@code capacity} intervalos del instante
+ * actual. La actualización se hace con compare-and-set.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiterBackend implements RateLimiterBackend {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryConsume(String bucketKey, int capacity, long refillIntervalNanos) {
+        AtomicLong fullAt = buckets.get(bucketKey);
+        if (fullAt == null) {
+            AtomicLong created = new AtomicLong(System.nanoTime());
+            fullAt = buckets.putIfAbsent(bucketKey, created);
+            if (fullAt == null) {
+                fullAt = created;
+            }
+        }
+
+        long burst = (capacity - 1L) * refillIntervalNanos;
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long wait = current - burst - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, Math.max(current, now) + refillIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Eliminar los buckets que ya están llenos; equivalen a un bucket nuevo. Una
+     * petición concurrente con la limpieza puede quedar sin contar, lo que solo
+     * favorece al cliente en un token.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval-ms:60000}")
+    public void evictFullBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+    }
+}
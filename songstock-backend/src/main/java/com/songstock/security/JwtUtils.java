@@ -12,11 +12,16 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    /** Claim que distingue los refresh tokens de los tokens de acceso */
+    public static final String TOKEN_TYPE_CLAIM = "token_type";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -28,20 +33,48 @@ public class JwtUtils {
         return generateTokenFromUsername(userPrincipal.getUsername());
     }
 
+    /**
+     * Token de acceso: lleva un ID único para que dos tokens emitidos en el
+     * mismo segundo no tengan el mismo hash (se revocan por hash).
+     */
     public String generateTokenFromUsername(String username) {
+        return generateTokenFromUsername(username, UUID.randomUUID().toString(), new Date());
+    }
+
+    /**
+     * Token de acceso con ID y fecha de emisión dados: con los mismos datos (y
+     * la emisión en segundos enteros) se obtiene exactamente el mismo token.
+     */
+    public String generateTokenFromUsername(String username, String tokenId, Date issuedAt) {
         return Jwts.builder()
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
+                .setId(tokenId)
+                .setIssuedAt(issuedAt)
+                .setExpiration(new Date(issuedAt.getTime() + jwtExpirationMs))
                 .signWith(key(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Refresh token: lleva el claim de tipo (no sirve como token de acceso) y un
+     * ID único, para que dos tokens emitidos en el mismo segundo no tengan el
+     * mismo hash.
+     */
     public String generateRefreshToken(String username) {
+        return generateRefreshToken(username, UUID.randomUUID().toString(), new Date());
+    }
+
+    /**
+     * Refresh token con ID y fecha de emisión dados (reproducible, como
+     * {@link #generateTokenFromUsername(String, String, Date)})
+     */
+    public String generateRefreshToken(String username, String tokenId, Date issuedAt) {
         return Jwts.builder()
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs * 7)) // 7 días
+                .setId(tokenId)
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
+                .setIssuedAt(issuedAt)
+                .setExpiration(new Date(issuedAt.getTime() + getRefreshExpirationTime())) // 7 días
                 .signWith(key(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -55,6 +88,11 @@ public class JwtUtils {
                 .parseClaimsJws(token).getBody().getSubject();
     }
 
+    public Claims getClaimsFromJwtToken(String token) {
+        return Jwts.parserBuilder().setSigningKey(key()).build()
+                .parseClaimsJws(token).getBody();
+    }
+
     public boolean validateJwtToken(String authToken) {
         try {
             Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
@@ -76,7 +114,15 @@ public class JwtUtils {
                 .parseClaimsJws(token).getBody().getExpiration();
     }
 
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class));
+    }
+
     public long getExpirationTime() {
         return jwtExpirationMs;
     }
+
+    public long getRefreshExpirationTime() {
+        return jwtExpirationMs * 7L;
+    }
 }
\ No newline at end of file
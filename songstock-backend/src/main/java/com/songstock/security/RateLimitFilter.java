@@ -0,0 +1,166 @@
+package com.songstock.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.songstock.util.ApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de límite de peticiones por usuario (o por IP si no hay sesión).
+ *
+ * Se ejecuta justo después de {@link AuthTokenFilter} para conocer al usuario
+ * autenticado. Cada clase de endpoint tiene su propio presupuesto (capacidad de
+ * ráfaga y tokens por minuto); al agotarse se responde 429 con
+ * {@code Retry-After} y se cuenta el rechazo en la métrica
+ * {@code songstock.rate_limit.rejections}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    public enum EndpointClass {
+        SEARCH, // Búsquedas del catálogo
+        CHECKOUT, // Creación de órdenes
+        WRITE // Resto de peticiones que modifican datos
+    }
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private RateLimiterBackend rateLimiterBackend;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.search.capacity:30}")
+    private int searchCapacity;
+
+    @Value("${rate-limit.search.refill-per-minute:120}")
+    private int searchRefillPerMinute;
+
+    @Value("${rate-limit.checkout.capacity:5}")
+    private int checkoutCapacity;
+
+    @Value("${rate-limit.checkout.refill-per-minute:10}")
+    private int checkoutRefillPerMinute;
+
+    @Value("${rate-limit.write.capacity:60}")
+    private int writeCapacity;
+
+    @Value("${rate-limit.write.refill-per-minute:300}")
+    private int writeRefillPerMinute;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        EndpointClass endpointClass = enabled ? classify(request) : null;
+        if (endpointClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String client = resolveClient();
+        String keyType = client != null ? "user" : "ip";
+        if (client == null) {
+            client = request.getRemoteAddr();
+        }
+
+        long waitNanos = rateLimiterBackend.tryConsume(endpointClass + ":" + keyType + ":" + client,
+                capacity(endpointClass), TimeUnit.MINUTES.toNanos(1) / refillPerMinute(endpointClass));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1,
+                (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        meterRegistry.counter("songstock.rate_limit.rejections",
+                "endpoint_class", endpointClass.name().toLowerCase(), "key_type", keyType).increment();
+        logger.debug("Límite de peticiones superado - Clase: {}, Cliente: {}:{}, Reintentar en {} s",
+                endpointClass, keyType, client, retryAfterSeconds);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(objectMapper.writeValueAsString(ApiResponse.error("Demasiadas peticiones",
+                "Intente de nuevo en " + retryAfterSeconds + " segundos")));
+    }
+
+    /**
+     * Clase de endpoint de la petición, o null si no está limitada
+     */
+    private EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if ("GET".equals(method)) {
+            return pathMatcher.match("/**/search", path) ? EndpointClass.SEARCH : null;
+        }
+        if ("POST".equals(method) && "/orders".equals(path)) {
+            return EndpointClass.CHECKOUT;
+        }
+        if ("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method) || "DELETE".equals(method)) {
+            return EndpointClass.WRITE;
+        }
+        return null;
+    }
+
+    /**
+     * Id del usuario autenticado; los proveedores se limitan por su usuario
+     */
+    private String resolveClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl) {
+            return String.valueOf(((UserDetailsImpl) authentication.getPrincipal()).getId());
+        }
+        return null;
+    }
+
+    private int capacity(EndpointClass endpointClass) {
+        switch (endpointClass) {
+            case SEARCH:
+                return searchCapacity;
+            case CHECKOUT:
+                return checkoutCapacity;
+            default:
+                return writeCapacity;
+        }
+    }
+
+    private int refillPerMinute(EndpointClass endpointClass) {
+        switch (endpointClass) {
+            case SEARCH:
+                return searchRefillPerMinute;
+            case CHECKOUT:
+                return checkoutRefillPerMinute;
+            default:
+                return writeRefillPerMinute;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.songstock.security;
+
+/**
+ * Almacén de los buckets del límite de peticiones.
+ *
+ * La implementación por defecto guarda los buckets en memoria del proceso
+ * ({@link InMemoryRateLimiterBackend}); en despliegues con varios nodos se puede
+ * registrar una implementación compartida y seleccionarla con la propiedad
+ * {@code rate-limit.backend}.
+ */
+public interface RateLimiterBackend {
+
+    /**
+     * Consumir un token del bucket indicado.
+     *
+     * @param bucketKey           clave del bucket (clase de endpoint y usuario o IP)
+     * @param capacity            tokens máximos acumulables (ráfaga permitida)
+     * @param refillIntervalNanos nanosegundos para reponer un token
+     * @return 0 si la petición se permite, o los nanosegundos hasta que haya un
+     *         token disponible
+     */
+    long tryConsume(String bucketKey, int capacity, long refillIntervalNanos);
+}
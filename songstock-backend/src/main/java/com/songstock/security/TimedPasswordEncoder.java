@@ -0,0 +1,42 @@
+package com.songstock.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} que mide cada cifrado y verificación de contraseñas.
+ *
+ * Publica el timer songstock.auth.password.hash (tags operation=encode|matches
+ * y cost), para ajustar el factor de trabajo de BCrypt al hardware: cada
+ * punto de cost duplica el tiempo de una verificación.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, int cost, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = meterRegistry.timer("songstock.auth.password.hash",
+                "operation", "encode", "cost", String.valueOf(cost));
+        this.matchesTimer = meterRegistry.timer("songstock.auth.password.hash",
+                "operation", "matches", "cost", String.valueOf(cost));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
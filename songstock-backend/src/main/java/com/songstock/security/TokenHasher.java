@@ -0,0 +1,31 @@
+package com.songstock.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hash de los tokens que se guardan en la base de datos (sesiones y refresh
+ * tokens). Se guarda el SHA-256 en hexadecimal, de longitud fija (64), nunca el
+ * token completo.
+ */
+public final class TokenHasher {
+
+    public static final int HASH_LENGTH = 64;
+
+    private TokenHasher() {
+    }
+
+    public static String hash(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
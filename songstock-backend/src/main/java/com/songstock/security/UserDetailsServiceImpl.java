@@ -2,15 +2,20 @@ package com.songstock.security;
 
 import com.songstock.entity.User;
 import com.songstock.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
     @Autowired
     UserRepository userRepository;
@@ -23,4 +28,28 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Guardar el hash re-cifrado tras un login exitoso. Lo invoca
+     * DaoAuthenticationProvider cuando el hash guardado tiene un factor de
+     * trabajo menor al configurado (ya se verificó la contraseña en claro).
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetailsImpl details = (UserDetailsImpl) user;
+        userRepository.updatePassword(details.getId(), newPassword);
+        logger.info("Contraseña re-cifrada con el factor de trabajo configurado - Usuario: {}", details.getId());
+
+        return new UserDetailsImpl(
+                details.getId(),
+                details.getUsername(),
+                details.getEmail(),
+                newPassword,
+                details.getAuthorities(),
+                details.isAccountNonExpired(),
+                details.isAccountNonLocked(),
+                details.isCredentialsNonExpired(),
+                details.isEnabled());
+    }
+}
@@ -9,6 +9,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -17,8 +18,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -48,6 +51,12 @@ public class AdminUserService {
     @Autowired
     private UserManagementMapper userManagementMapper;
 
+    @Autowired
+    private DashboardStatisticsService dashboardStatisticsService;
+
+    @Autowired
+    private ProviderLeaderboardService providerLeaderboardService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -89,11 +98,8 @@ public class AdminUserService {
                 filterDTO.getCreatedBefore(),
                 pageable);
 
-        return userPage.map(user -> {
-            UserManagementResponseDTO dto = userManagementMapper.toManagementResponseDTO(user);
-            enrichUserDTO(dto, user);
-            return dto;
-        });
+        return new PageImpl<>(toEnrichedDTOs(userPage.getContent()), userPage.getPageable(),
+                userPage.getTotalElements());
     }
 
     /**
@@ -237,13 +243,7 @@ public class AdminUserService {
     public List<UserManagementResponseDTO> getPendingProviders() {
         logger.info("Obteniendo proveedores pendientes de verificación");
 
-        return userRepository.findPendingProviders().stream()
-                .map(user -> {
-                    UserManagementResponseDTO dto = userManagementMapper.toManagementResponseDTO(user);
-                    enrichUserDTO(dto, user);
-                    return dto;
-                })
-                .toList();
+        return toEnrichedDTOs(userRepository.findPendingProviders());
     }
 
     /**
@@ -300,50 +300,13 @@ public class AdminUserService {
     // ============================================================
 
     /**
-     * Genera las estadísticas principales para el dashboard administrativo.
+     * Genera las estadísticas principales para el dashboard administrativo a
+     * partir de los contadores en memoria.
      *
      * @return DTO con métricas de usuarios, proveedores y productos.
      */
-    @Transactional(readOnly = true)
     public AdminDashboardDTO getDashboardStatistics() {
-        logger.info("Generando estadísticas del dashboard administrativo");
-
-        AdminDashboardDTO dashboard = new AdminDashboardDTO();
-
-        // Usuarios
-        Object[] userStats = userRepository.getUserStatistics();
-        if (userStats != null && userStats.length > 0) {
-            dashboard.setTotalUsers((Long) userStats[0]);
-            dashboard.setTotalAdmins((Long) userStats[1]);
-            dashboard.setTotalProviders((Long) userStats[2]);
-            dashboard.setTotalCustomers((Long) userStats[3]);
-            dashboard.setActiveUsers((Long) userStats[4]);
-            dashboard.setInactiveUsers((Long) userStats[5]);
-        }
-
-        // Proveedores
-        Object[] providerStats = userRepository.getProviderStatistics();
-        if (providerStats != null && providerStats.length > 0) {
-            dashboard.setVerifiedProviders((Long) providerStats[0]);
-            dashboard.setPendingProviders((Long) providerStats[1]);
-            dashboard.setRejectedProviders((Long) providerStats[2]);
-        }
-
-        // Productos
-        dashboard.setTotalProducts(productRepository.count());
-        dashboard.setActiveProducts((long) productRepository.findByIsActiveTrue().size());
-        dashboard.setDigitalProducts(productRepository.countByProductType(ProductType.DIGITAL));
-        dashboard.setPhysicalProducts(productRepository.countByProductType(ProductType.PHYSICAL));
-
-        // Estadísticas mensuales
-        LocalDateTime startOfMonth = YearMonth.now().atDay(1).atStartOfDay();
-        dashboard.setUsersRegisteredThisMonth(userRepository.countUsersRegisteredThisMonth(startOfMonth));
-        dashboard.setProvidersVerifiedThisMonth(userRepository.countProvidersVerifiedThisMonth(startOfMonth));
-
-        logger.info("Estadísticas generadas - Total usuarios: {}, Proveedores verificados: {}",
-                dashboard.getTotalUsers(), dashboard.getVerifiedProviders());
-
-        return dashboard;
+        return dashboardStatisticsService.getDashboard();
     }
 
     /**
@@ -356,13 +319,7 @@ public class AdminUserService {
     public List<UserManagementResponseDTO> searchUsers(String query) {
         logger.info("Buscando usuarios con query: {}", query);
 
-        return userRepository.searchUsers(query).stream()
-                .map(user -> {
-                    UserManagementResponseDTO dto = userManagementMapper.toManagementResponseDTO(user);
-                    enrichUserDTO(dto, user);
-                    return dto;
-                })
-                .toList();
+        return toEnrichedDTOs(userRepository.searchUsers(query));
     }
 
     /**
@@ -376,17 +333,12 @@ public class AdminUserService {
         logger.info("Obteniendo usuarios registrados en los últimos {} días", days);
 
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(days);
-        return userRepository.findRecentUsers(cutoffDate).stream()
-                .map(user -> {
-                    UserManagementResponseDTO dto = userManagementMapper.toManagementResponseDTO(user);
-                    enrichUserDTO(dto, user);
-                    return dto;
-                })
-                .toList();
+        return toEnrichedDTOs(userRepository.findRecentUsers(cutoffDate));
     }
 
     /**
-     * Obtiene el ranking de proveedores con más productos.
+     * Obtiene el ranking de proveedores con más productos activos a partir del
+     * ranking en memoria.
      *
      * @param limit Número máximo de resultados.
      * @return Lista de proveedores top con su número de productos.
@@ -395,20 +347,42 @@ public class AdminUserService {
     public List<UserManagementResponseDTO> getTopProviders(int limit) {
         logger.info("Obteniendo top {} proveedores por número de productos", limit);
 
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Object[]> results = userRepository.getTopProvidersByProductCount(pageable);
+        List<ProviderLeaderboardDTO> top = providerLeaderboardService.getTop(
+                ProviderLeaderboardService.Metric.ACTIVE_PRODUCTS, limit);
+        if (top.isEmpty()) {
+            return List.of();
+        }
 
-        return results.stream()
-                .map(result -> {
-                    User user = (User) result[0];
-                    Long productCount = (Long) result[1];
+        List<Long> providerIds = top.stream().map(ProviderLeaderboardDTO::getProviderId).toList();
+        Map<Long, Provider> providersById = new HashMap<>();
+        for (Provider provider : providerRepository.findWithUserByIdIn(providerIds)) {
+            providersById.put(provider.getId(), provider);
+        }
 
-                    UserManagementResponseDTO dto = userManagementMapper.toManagementResponseDTO(user);
-                    enrichUserDTO(dto, user);
-                    dto.setTotalProducts(productCount.intValue());
-                    return dto;
-                })
-                .toList();
+        List<UserManagementResponseDTO> dtos = new ArrayList<>(top.size());
+        for (ProviderLeaderboardDTO entry : top) {
+            Provider provider = providersById.get(entry.getProviderId());
+            if (provider == null) {
+                // Eliminado después de la última reconciliación
+                continue;
+            }
+            UserManagementResponseDTO dto = userManagementMapper.toManagementResponseDTO(provider.getUser());
+            applyProviderInfo(dto, provider, entry.getActiveProducts());
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    /**
+     * Obtiene el ranking de proveedores según una métrica, servido desde memoria.
+     *
+     * @param metric Métrica del ranking.
+     * @param limit  Número máximo de resultados.
+     * @return Posiciones del ranking con las tres métricas de cada proveedor.
+     */
+    public List<ProviderLeaderboardDTO> getProviderLeaderboard(ProviderLeaderboardService.Metric metric,
+            int limit) {
+        return providerLeaderboardService.getTop(metric, limit);
     }
 
     // ============================================================
@@ -424,13 +398,8 @@ public class AdminUserService {
      */
     private void enrichUserDTO(UserManagementResponseDTO dto, User user) {
         if (user.getRole() == UserRole.PROVIDER) {
-            providerRepository.findByUserId(user.getId()).ifPresent(provider -> {
-                dto.setProviderId(provider.getId());
-                dto.setBusinessName(provider.getBusinessName());
-                dto.setVerificationStatus(provider.getVerificationStatus());
-                dto.setVerificationDate(provider.getVerificationDate());
-                dto.setTotalProducts(productRepository.countActiveProductsByProvider(provider.getId()).intValue());
-            });
+            providerRepository.findByUserId(user.getId()).ifPresent(provider -> applyProviderInfo(dto, provider,
+                    productRepository.countActiveProductsByProvider(provider.getId())));
         }
 
         // Futuro: estadísticas de clientes (pedidos, etc.)
@@ -439,6 +408,55 @@ public class AdminUserService {
         }
     }
 
+    /**
+     * Convierte una lista de usuarios en DTOs enriquecidos. Las consultas de
+     * listado traen el proveedor junto con el usuario, y los conteos de
+     * productos se obtienen para toda la lista con una consulta agrupada.
+     *
+     * @param users Usuarios a convertir (con el proveedor ya cargado), en el
+     *              orden en que se devuelven.
+     * @return DTOs en el mismo orden que los usuarios.
+     */
+    private List<UserManagementResponseDTO> toEnrichedDTOs(List<User> users) {
+        List<UserManagementResponseDTO> dtos = new ArrayList<>(users.size());
+        List<Long> providerIds = new ArrayList<>();
+        for (User user : users) {
+            dtos.add(userManagementMapper.toManagementResponseDTO(user));
+            if (user.getRole() == UserRole.PROVIDER && user.getProvider() != null) {
+                providerIds.add(user.getProvider().getId());
+            }
+        }
+
+        if (providerIds.isEmpty()) {
+            return dtos;
+        }
+
+        Map<Long, Long> productCounts = new HashMap<>();
+        for (Object[] row : productRepository.countActiveProductsByProviders(providerIds)) {
+            productCounts.put((Long) row[0], (Long) row[1]);
+        }
+
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (user.getRole() == UserRole.PROVIDER && user.getProvider() != null) {
+                Provider provider = user.getProvider();
+                applyProviderInfo(dtos.get(i), provider, productCounts.getOrDefault(provider.getId(), 0L));
+            }
+        }
+        return dtos;
+    }
+
+    /**
+     * Copia al DTO los datos del proveedor y su número de productos activos.
+     */
+    private void applyProviderInfo(UserManagementResponseDTO dto, Provider provider, Long activeProducts) {
+        dto.setProviderId(provider.getId());
+        dto.setBusinessName(provider.getBusinessName());
+        dto.setVerificationStatus(provider.getVerificationStatus());
+        dto.setVerificationDate(provider.getVerificationDate());
+        dto.setTotalProducts(activeProducts.intValue());
+    }
+
     /**
      * Valida permisos y reglas de seguridad para operaciones administrativas.
      *
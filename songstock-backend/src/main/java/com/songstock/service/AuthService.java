@@ -3,12 +3,20 @@ package com.songstock.service;
 import com.songstock.dto.AuthResponseDTO;
 import com.songstock.dto.LoginRequestDTO;
 import com.songstock.entity.User;
+import com.songstock.entity.UserRole;
 import com.songstock.entity.UserSession;
 import com.songstock.repository.UserSessionRepository;
 import com.songstock.security.JwtUtils;
+import com.songstock.security.TokenHasher;
 import com.songstock.security.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,32 +24,58 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Servicio de autenticación de usuarios.
- * Maneja login, generación de tokens JWT, creación de sesiones y logout.
+ * Maneja login, generación de tokens JWT, creación de sesiones, renovación
+ * con refresh token y logout.
  */
 @Service
 @Transactional
 public class AuthService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+
     @Autowired
     AuthenticationManager authenticationManager;
 
     @Autowired
-    UserService userService;
+    UserSessionRepository userSessionRepository;
 
     @Autowired
-    UserSessionRepository userSessionRepository;
+    UserSessionWriter userSessionWriter;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
 
     @Autowired
     JwtUtils jwtUtils;
 
+    /** Tiempo durante el cual el refresh token recién rotado devuelve los tokens actuales */
+    @Value("${auth.refresh.reuse-grace-ms:30000}")
+    long refreshReuseGraceMs;
+
     /**
      * Autenticar usuario y generar tokens (JWT + Refresh).
      */
     public AuthResponseDTO authenticateUser(LoginRequestDTO loginRequest, HttpServletRequest request) {
+        return authenticateUser(loginRequest, getClientIpAddress(request), request.getHeader("User-Agent"));
+    }
+
+    /**
+     * Autenticar usuario y generar tokens, con los datos del cliente ya leídos
+     * del request (para ejecutarse fuera del hilo de la petición).
+     */
+    public AuthResponseDTO authenticateUser(LoginRequestDTO loginRequest, String ipAddress, String userAgent) {
         // Autenticación con Spring Security
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -57,19 +91,14 @@ public class AuthService {
         String jwt = jwtUtils.generateJwtToken(authentication);
         String refreshToken = jwtUtils.generateRefreshToken(userDetails.getUsername());
 
-        // Obtener usuario desde BD
-        User user = userService.getUserById(userDetails.getId());
-
-        // Crear sesión en base de datos
-        UserSession session = new UserSession();
-        session.setUser(user);
-        session.setSessionToken(jwt);
-        session.setRefreshToken(refreshToken);
-        session.setExpiresAt(LocalDateTime.now().plusSeconds(jwtUtils.getExpirationTime() / 1000));
-        session.setIpAddress(getClientIpAddress(request));
-        session.setUserAgent(request.getHeader("User-Agent"));
-
-        userSessionRepository.save(session);
+        // Registrar la sesión; se inserta en segundo plano, con los tokens como hash
+        userSessionWriter.enqueue(
+                userDetails.getId(),
+                TokenHasher.hash(jwt),
+                TokenHasher.hash(refreshToken),
+                LocalDateTime.now().plusSeconds(jwtUtils.getExpirationTime() / 1000),
+                ipAddress,
+                userAgent);
 
         // Retornar DTO con tokens y datos del usuario
         return new AuthResponseDTO(
@@ -78,33 +107,193 @@ public class AuthService {
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getEmail(),
+                getRole(userDetails),
+                jwtUtils.getExpirationTime());
+    }
+
+    /**
+     * Renovar los tokens con un refresh token, sin volver a verificar la
+     * contraseña (no pasa por el AuthenticationManager ni por BCrypt).
+     *
+     * - El refresh token se valida contra el hash guardado en la sesión, que
+     * queda bloqueada hasta el fin de la transacción.
+     * - Cada uso lo rota: la sesión pasa a tener un token de acceso y un refresh
+     * token nuevos, y el presentado deja de servir.
+     * - Renovaciones concurrentes con el mismo token (varias pestañas): durante
+     * el período de gracia, el refresh token recién rotado devuelve los mismos
+     * tokens que produjo la rotación, que se derivan del token anterior y de la
+     * fecha de rotación.
+     * - Fuera de ese período, si se presenta un refresh token ya rotado
+     * (reutilización), la sesión se revoca completa: quien lo robó y el cliente
+     * legítimo deben volver a hacer login. La revocación se confirma aunque la
+     * petición falle.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public AuthResponseDTO refreshToken(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtUtils.getClaimsFromJwtToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Refresh token inválido o expirado");
+        }
+        if (!jwtUtils.isRefreshToken(claims)) {
+            throw new BadCredentialsException("El token no es un refresh token");
+        }
+
+        String refreshTokenHash = TokenHasher.hash(refreshToken);
+        UserSession session = userSessionRepository.findWithUserByRefreshToken(refreshTokenHash).orElse(null);
+        if (session == null) {
+            UserSession rotatedSession = userSessionRepository.findByPreviousRefreshToken(refreshTokenHash)
+                    .orElse(null);
+            if (rotatedSession != null) {
+                AuthResponseDTO current = currentTokensWithinGrace(rotatedSession, refreshTokenHash,
+                        claims.getSubject());
+                if (current != null) {
+                    return current;
+                }
+                logger.warn("Refresh token reutilizado - Sesión: {}, Usuario: {}", rotatedSession.getId(),
+                        claims.getSubject());
+                revokeSession(rotatedSession.getId());
+            }
+            throw new BadCredentialsException("Refresh token inválido o ya utilizado");
+        }
+
+        User user = session.getUser();
+        if (!Boolean.TRUE.equals(session.getIsActive()) || !Boolean.TRUE.equals(user.getIsActive())
+                || !user.getUsername().equals(claims.getSubject())) {
+            throw new BadCredentialsException("Sesión inválida");
+        }
+
+        LocalDateTime rotatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        AuthResponseDTO response = rotationResponse(user, refreshTokenHash, rotatedAt);
+        int rotated = userSessionRepository.rotateTokens(
+                session.getId(),
+                refreshTokenHash,
+                TokenHasher.hash(response.getToken()),
+                TokenHasher.hash(response.getRefreshToken()),
+                rotatedAt,
+                rotatedAt.plusSeconds(jwtUtils.getExpirationTime() / 1000));
+        if (rotated == 0) {
+            // La sesión se cerró mientras se renovaba
+            logger.warn("Refresh token usado en una sesión cerrada - Sesión: {}, Usuario: {}", session.getId(),
+                    user.getUsername());
+            revokeSession(session.getId());
+            throw new BadCredentialsException("Refresh token inválido o ya utilizado");
+        }
+        return response;
+    }
+
+    /**
+     * Tokens actuales de una sesión que acaba de rotar el refresh token
+     * presentado, si la rotación está dentro del período de gracia y la sesión no
+     * volvió a rotar. Devuelve null si el uso debe tratarse como reutilización.
+     */
+    private AuthResponseDTO currentTokensWithinGrace(UserSession session, String refreshTokenHash, String username) {
+        User user = session.getUser();
+        LocalDateTime graceStart = LocalDateTime.now().minus(Duration.ofMillis(refreshReuseGraceMs));
+        if (!Boolean.TRUE.equals(session.getIsActive()) || session.getRotatedAt() == null
+                || session.getRotatedAt().isBefore(graceStart) || !user.getUsername().equals(username)) {
+            return null;
+        }
+        AuthResponseDTO response = rotationResponse(user, refreshTokenHash, session.getRotatedAt());
+        if (!TokenHasher.hash(response.getRefreshToken()).equals(session.getRefreshToken())) {
+            return null;
+        }
+        logger.debug("Renovación concurrente dentro del período de gracia - Sesión: {}, Usuario: {}",
+                session.getId(), username);
+        return response;
+    }
+
+    /**
+     * Tokens de la rotación de un refresh token: los IDs se derivan del hash del
+     * token rotado y la emisión es la fecha de rotación, así que se pueden
+     * volver a generar idénticos.
+     */
+    private AuthResponseDTO rotationResponse(User user, String rotatedRefreshTokenHash, LocalDateTime rotatedAt) {
+        Date issuedAt = Date.from(rotatedAt.atZone(ZoneId.systemDefault()).toInstant());
+        String jwt = jwtUtils.generateTokenFromUsername(user.getUsername(),
+                derivedTokenId(rotatedRefreshTokenHash, "access"), issuedAt);
+        String newRefreshToken = jwtUtils.generateRefreshToken(user.getUsername(),
+                derivedTokenId(rotatedRefreshTokenHash, "refresh"), issuedAt);
+        return new AuthResponseDTO(
+                jwt,
+                newRefreshToken,
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
                 user.getRole(),
                 jwtUtils.getExpirationTime());
     }
 
+    private String derivedTokenId(String rotatedRefreshTokenHash, String tokenType) {
+        return UUID.nameUUIDFromBytes((rotatedRefreshTokenHash + ":" + tokenType).getBytes(StandardCharsets.UTF_8))
+                .toString();
+    }
+
     /**
      * Cerrar sesión actual (invalida un token específico).
      */
     public void logout(String token) {
-        userSessionRepository.deactivateSession(token);
+        String tokenHash = TokenHasher.hash(token);
+        try {
+            tokenRevocationService.revokeToken(tokenHash, jwtUtils.getExpirationDateFromToken(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token vencido o inválido: ya no autentica, no hace falta revocarlo
+        }
+        userSessionWriter.deactivatePending(tokenHash);
+        userSessionRepository.deactivateSession(tokenHash);
     }
 
     /**
      * Cerrar todas las sesiones activas de un usuario.
      */
     public void logoutAllSessions(Long userId) {
+        tokenRevocationService.revokeAllForUser(userId);
+
+        // Los tokens emitidos en el mismo segundo que la revocación no los cubre
+        // revokeAllForUser: se revocan por el hash de su sesión
+        Date expiresAt = new Date(System.currentTimeMillis() + jwtUtils.getExpirationTime());
+        List<String> sessionTokenHashes = new ArrayList<>(userSessionWriter.deactivatePendingForUser(userId));
+        sessionTokenHashes.addAll(userSessionRepository.findActiveSessionTokensByUserId(userId));
+        sessionTokenHashes.forEach(hash -> tokenRevocationService.revokeToken(hash, expiresAt));
+
         userSessionRepository.deactivateAllUserSessions(userId);
     }
 
+    /**
+     * Revocar una sesión: deja de aceptar su refresh token y su token de acceso
+     * actual (leído de la BD, puede haber sido rotado por otra petición).
+     */
+    private void revokeSession(Long sessionId) {
+        String sessionTokenHash = userSessionRepository.findSessionTokenById(sessionId);
+        userSessionRepository.deactivateSessionById(sessionId);
+        if (sessionTokenHash != null) {
+            tokenRevocationService.revokeToken(sessionTokenHash,
+                    new Date(System.currentTimeMillis() + jwtUtils.getExpirationTime()));
+        }
+    }
+
+    /**
+     * Rol del usuario a partir de su autoridad (ROLE_X), sin volver a consultarlo.
+     */
+    private UserRole getRole(UserDetailsImpl userDetails) {
+        return userDetails.getAuthorities().stream()
+                .map(authority -> authority.getAuthority())
+                .filter(authority -> authority.startsWith("ROLE_"))
+                .map(authority -> UserRole.valueOf(authority.substring("ROLE_".length())))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Usuario sin rol"));
+    }
+
     /**
      * Obtener IP del cliente, considerando cabecera X-Forwarded-For.
      */
-    private String getClientIpAddress(HttpServletRequest request) {
+    public String getClientIpAddress(HttpServletRequest request) {
         String xForwardedForHeader = request.getHeader("X-Forwarded-For");
         if (xForwardedForHeader == null) {
             return request.getRemoteAddr();
         } else {
-            return xForwardedForHeader.split(",")[0];
+            return xForwardedForHeader.split(",")[0].trim();
         }
     }
 }
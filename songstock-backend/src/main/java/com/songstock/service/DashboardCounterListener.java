@@ -0,0 +1,150 @@
+package com.songstock.service;
+
+import com.songstock.entity.Product;
+import com.songstock.entity.ProductType;
+import com.songstock.entity.Provider;
+import com.songstock.entity.User;
+import com.songstock.entity.UserRole;
+import com.songstock.entity.VerificationStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Listener de Hibernate que mantiene los contadores del dashboard.
+ *
+ * Recibe las inserciones, actualizaciones y eliminaciones de usuarios,
+ * proveedores y productos solo después de que la transacción se confirma; en
+ * una actualización resta el estado anterior y suma el nuevo. Así cualquier
+ * ruta de escritura que pase por JPA queda cubierta sin tocar los servicios.
+ */
+@Component
+public class DashboardCounterListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DashboardStatisticsService dashboardStatisticsService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == User.class || type == Provider.class || type == Product.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        adjust(event.getEntity(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        adjust(event.getEntity(), -1);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // Sin estado anterior no se puede calcular el ajuste; la reconciliación lo corrige
+            return;
+        }
+        String[] properties = event.getPersister().getPropertyNames();
+
+        if (entity instanceof User) {
+            User user = (User) entity;
+            UserRole oldRole = (UserRole) value(properties, oldState, "role");
+            Boolean oldActive = (Boolean) value(properties, oldState, "isActive");
+            if (oldRole != user.getRole()
+                    || Boolean.TRUE.equals(oldActive) != Boolean.TRUE.equals(user.getIsActive())) {
+                dashboardStatisticsService.adjustUser(oldRole, oldActive, user.getCreatedAt(), -1);
+                dashboardStatisticsService.adjustUser(user.getRole(), user.getIsActive(), user.getCreatedAt(), 1);
+            }
+        } else if (entity instanceof Provider) {
+            Provider provider = (Provider) entity;
+            VerificationStatus oldStatus = (VerificationStatus) value(properties, oldState, "verificationStatus");
+            LocalDateTime oldDate = (LocalDateTime) value(properties, oldState, "verificationDate");
+            if (oldStatus != provider.getVerificationStatus()
+                    || !Objects.equals(oldDate, provider.getVerificationDate())) {
+                dashboardStatisticsService.adjustProvider(oldStatus, oldDate, -1);
+                dashboardStatisticsService.adjustProvider(provider.getVerificationStatus(),
+                        provider.getVerificationDate(), 1);
+            }
+        } else if (entity instanceof Product) {
+            Product product = (Product) entity;
+            ProductType oldType = (ProductType) value(properties, oldState, "productType");
+            Boolean oldActive = (Boolean) value(properties, oldState, "isActive");
+            if (oldType != product.getProductType()
+                    || Boolean.TRUE.equals(oldActive) != Boolean.TRUE.equals(product.getIsActive())) {
+                dashboardStatisticsService.adjustProduct(oldType, oldActive, product.getCreatedAt(), -1);
+                dashboardStatisticsService.adjustProduct(product.getProductType(), product.getIsActive(),
+                        product.getCreatedAt(), 1);
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // La transacción no se confirmó: no hay nada que ajustar
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // La transacción no se confirmó: no hay nada que ajustar
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // La transacción no se confirmó: no hay nada que ajustar
+    }
+
+    private void adjust(Object entity, int sign) {
+        if (entity instanceof User) {
+            User user = (User) entity;
+            dashboardStatisticsService.adjustUser(user.getRole(), user.getIsActive(), user.getCreatedAt(), sign);
+        } else if (entity instanceof Provider) {
+            Provider provider = (Provider) entity;
+            dashboardStatisticsService.adjustProvider(provider.getVerificationStatus(),
+                    provider.getVerificationDate(), sign);
+        } else if (entity instanceof Product) {
+            Product product = (Product) entity;
+            dashboardStatisticsService.adjustProduct(product.getProductType(), product.getIsActive(),
+                    product.getCreatedAt(), sign);
+        }
+    }
+
+    private Object value(String[] properties, Object[] state, String property) {
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i].equals(property)) {
+                return state[i];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,247 @@
+package com.songstock.service;
+
+import com.songstock.dto.AdminDashboardDTO;
+import com.songstock.entity.ProductType;
+import com.songstock.entity.UserRole;
+import com.songstock.entity.VerificationStatus;
+import com.songstock.repository.ProductRepository;
+import com.songstock.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Contadores en memoria del dashboard administrativo.
+ *
+ * - {@link DashboardCounterListener} los ajusta de forma incremental cuando se
+ * confirma una transacción que crea, modifica o elimina usuarios, proveedores o
+ * productos.
+ * - Se reconcilian periódicamente contra la base de datos (y al cambiar de mes)
+ * para corregir cualquier desvío, por ejemplo cambios hechos fuera de la
+ * aplicación.
+ * - El dashboard se arma leyendo los contadores, sin consultas.
+ */
+@Service
+public class DashboardStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStatisticsService.class);
+
+    private enum Counter {
+        TOTAL_USERS, ADMINS, PROVIDER_USERS, CUSTOMERS, ACTIVE_USERS, INACTIVE_USERS,
+        VERIFIED_PROVIDERS, PENDING_PROVIDERS, REJECTED_PROVIDERS,
+        TOTAL_PRODUCTS, ACTIVE_PRODUCTS, DIGITAL_PRODUCTS, PHYSICAL_PRODUCTS,
+        USERS_THIS_MONTH, PROVIDERS_VERIFIED_THIS_MONTH, PRODUCTS_THIS_MONTH
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserGrowthRollupService userGrowthRollupService;
+
+    /** Contadores vigentes; null hasta la primera reconciliación */
+    private final AtomicReference<Counters> counters = new AtomicReference<>();
+
+    // ================= Lectura =================
+
+    /**
+     * Estadísticas del dashboard a partir de los contadores en memoria
+     */
+    public AdminDashboardDTO getDashboard() {
+        Counters current = counters.get();
+        if (current == null || !current.month.equals(YearMonth.now())) {
+            reconcile();
+            current = counters.get();
+        }
+
+        AdminDashboardDTO dashboard = new AdminDashboardDTO();
+        dashboard.setTotalUsers(current.get(Counter.TOTAL_USERS));
+        dashboard.setTotalAdmins(current.get(Counter.ADMINS));
+        dashboard.setTotalProviders(current.get(Counter.PROVIDER_USERS));
+        dashboard.setTotalCustomers(current.get(Counter.CUSTOMERS));
+        dashboard.setActiveUsers(current.get(Counter.ACTIVE_USERS));
+        dashboard.setInactiveUsers(current.get(Counter.INACTIVE_USERS));
+        dashboard.setVerifiedProviders(current.get(Counter.VERIFIED_PROVIDERS));
+        dashboard.setPendingProviders(current.get(Counter.PENDING_PROVIDERS));
+        dashboard.setRejectedProviders(current.get(Counter.REJECTED_PROVIDERS));
+        dashboard.setTotalProducts(current.get(Counter.TOTAL_PRODUCTS));
+        dashboard.setActiveProducts(current.get(Counter.ACTIVE_PRODUCTS));
+        dashboard.setDigitalProducts(current.get(Counter.DIGITAL_PRODUCTS));
+        dashboard.setPhysicalProducts(current.get(Counter.PHYSICAL_PRODUCTS));
+        dashboard.setUsersRegisteredThisMonth(current.get(Counter.USERS_THIS_MONTH));
+        dashboard.setProvidersVerifiedThisMonth(current.get(Counter.PROVIDERS_VERIFIED_THIS_MONTH));
+        dashboard.setProductsCreatedThisMonth(current.get(Counter.PRODUCTS_THIS_MONTH));
+        return dashboard;
+    }
+
+    // ================= Ajustes incrementales =================
+
+    /**
+     * Sumar (sign = 1) o restar (sign = -1) un usuario con el estado indicado
+     */
+    public void adjustUser(UserRole role, Boolean active, LocalDateTime createdAt, int sign) {
+        Counters current = counters.get();
+        if (current == null) {
+            return;
+        }
+        current.add(Counter.TOTAL_USERS, sign);
+        if (role == UserRole.ADMIN) {
+            current.add(Counter.ADMINS, sign);
+        } else if (role == UserRole.PROVIDER) {
+            current.add(Counter.PROVIDER_USERS, sign);
+        } else if (role == UserRole.CUSTOMER) {
+            current.add(Counter.CUSTOMERS, sign);
+        }
+        current.add(Boolean.TRUE.equals(active) ? Counter.ACTIVE_USERS : Counter.INACTIVE_USERS, sign);
+        if (current.isThisMonth(createdAt)) {
+            current.add(Counter.USERS_THIS_MONTH, sign);
+        }
+    }
+
+    /**
+     * Sumar o restar un proveedor con el estado de verificación indicado
+     */
+    public void adjustProvider(VerificationStatus status, LocalDateTime verificationDate, int sign) {
+        Counters current = counters.get();
+        if (current == null || status == null) {
+            return;
+        }
+        switch (status) {
+            case VERIFIED:
+                current.add(Counter.VERIFIED_PROVIDERS, sign);
+                if (current.isThisMonth(verificationDate)) {
+                    current.add(Counter.PROVIDERS_VERIFIED_THIS_MONTH, sign);
+                }
+                break;
+            case PENDING:
+                current.add(Counter.PENDING_PROVIDERS, sign);
+                break;
+            case REJECTED:
+                current.add(Counter.REJECTED_PROVIDERS, sign);
+                break;
+        }
+    }
+
+    /**
+     * Sumar o restar un producto con el tipo y estado indicados
+     */
+    public void adjustProduct(ProductType type, Boolean active, LocalDateTime createdAt, int sign) {
+        Counters current = counters.get();
+        if (current == null) {
+            return;
+        }
+        current.add(Counter.TOTAL_PRODUCTS, sign);
+        if (Boolean.TRUE.equals(active)) {
+            current.add(Counter.ACTIVE_PRODUCTS, sign);
+            if (type == ProductType.DIGITAL) {
+                current.add(Counter.DIGITAL_PRODUCTS, sign);
+            } else if (type == ProductType.PHYSICAL) {
+                current.add(Counter.PHYSICAL_PRODUCTS, sign);
+            }
+        }
+        if (current.isThisMonth(createdAt)) {
+            current.add(Counter.PRODUCTS_THIS_MONTH, sign);
+        }
+    }
+
+    // ================= Reconciliación =================
+
+    /**
+     * Recalcular todos los contadores desde la base de datos
+     */
+    @Scheduled(fixedDelayString = "${dashboard.counters.reconcile-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        YearMonth month = YearMonth.now();
+        LocalDateTime startOfMonth = month.atDay(1).atStartOfDay();
+        Counters fresh = new Counters(month);
+
+        Object[] users = row(userRepository.getUserStatistics());
+        fresh.set(Counter.TOTAL_USERS, users[0]);
+        fresh.set(Counter.ADMINS, users[1]);
+        fresh.set(Counter.PROVIDER_USERS, users[2]);
+        fresh.set(Counter.CUSTOMERS, users[3]);
+        fresh.set(Counter.ACTIVE_USERS, users[4]);
+        fresh.set(Counter.INACTIVE_USERS, users[5]);
+
+        Object[] providers = row(userRepository.getProviderStatistics());
+        fresh.set(Counter.VERIFIED_PROVIDERS, providers[0]);
+        fresh.set(Counter.PENDING_PROVIDERS, providers[1]);
+        fresh.set(Counter.REJECTED_PROVIDERS, providers[2]);
+
+        Object[] products = row(productRepository.getDashboardStatistics(startOfMonth));
+        fresh.set(Counter.TOTAL_PRODUCTS, products[0]);
+        fresh.set(Counter.ACTIVE_PRODUCTS, products[1]);
+        fresh.set(Counter.DIGITAL_PRODUCTS, products[2]);
+        fresh.set(Counter.PHYSICAL_PRODUCTS, products[3]);
+        fresh.set(Counter.PRODUCTS_THIS_MONTH, products[4]);
+
+        fresh.set(Counter.USERS_THIS_MONTH,
+                userGrowthRollupService.countRegistrations(month.atDay(1), month.atEndOfMonth()));
+        fresh.set(Counter.PROVIDERS_VERIFIED_THIS_MONTH,
+                userGrowthRollupService.countVerifiedProviders(month.atDay(1), month.atEndOfMonth()));
+
+        Counters previous = counters.getAndSet(fresh);
+        if (previous != null && previous.month.equals(month)) {
+            for (Counter counter : Counter.values()) {
+                long drift = fresh.get(counter) - previous.get(counter);
+                if (drift != 0) {
+                    logger.info("Contador del dashboard corregido - {}: {} -> {}", counter, previous.get(counter),
+                            fresh.get(counter));
+                }
+            }
+        }
+        logger.debug("Contadores del dashboard reconciliados - Usuarios: {}, Productos: {}",
+                fresh.get(Counter.TOTAL_USERS), fresh.get(Counter.TOTAL_PRODUCTS));
+    }
+
+    /**
+     * Fila de una consulta agregada; según la versión de Spring Data llega sola
+     * o envuelta en otro arreglo
+     */
+    private Object[] row(Object[] result) {
+        if (result != null && result.length == 1 && result[0] instanceof Object[]) {
+            return (Object[]) result[0];
+        }
+        return result;
+    }
+
+    /**
+     * Valores de los contadores de un mes
+     */
+    private static final class Counters {
+        private final YearMonth month;
+        private final AtomicLongArray values = new AtomicLongArray(Counter.values().length);
+
+        private Counters(YearMonth month) {
+            this.month = month;
+        }
+
+        private long get(Counter counter) {
+            return values.get(counter.ordinal());
+        }
+
+        private void set(Counter counter, Object value) {
+            values.set(counter.ordinal(), value != null ? ((Number) value).longValue() : 0L);
+        }
+
+        private void add(Counter counter, long delta) {
+            values.addAndGet(counter.ordinal(), delta);
+        }
+
+        private boolean isThisMonth(LocalDateTime dateTime) {
+            return dateTime != null && YearMonth.from(dateTime).equals(month);
+        }
+    }
+}
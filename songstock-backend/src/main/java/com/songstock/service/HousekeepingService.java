@@ -0,0 +1,98 @@
+package com.songstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limpieza periódica de registros vencidos de autenticación.
+ *
+ * - Elimina las sesiones de usuario vencidas, pasado el margen que necesita el
+ * refresh token.
+ * - Elimina los tokens de recuperación de contraseña vencidos.
+ * - Marca como EXPIRED las invitaciones de proveedor pendientes vencidas.
+ *
+ * Cada sentencia afecta como máximo un bloque de filas, recorriendo el índice de
+ * expires_at, para no mantener bloqueos largos. Las filas afectadas y la
+ * duración de cada ejecución se registran en el log y en las métricas
+ * songstock.housekeeping.rows (por tabla) y songstock.housekeeping.duration.
+ */
+@Service
+public class HousekeepingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HousekeepingService.class);
+
+    private static final String DELETE_SESSIONS_SQL = "DELETE FROM user_sessions WHERE expires_at < ? LIMIT ?";
+
+    private static final String DELETE_RESET_TOKENS_SQL = "DELETE FROM password_reset_tokens "
+            + "WHERE expires_at < ? LIMIT ?";
+
+    private static final String EXPIRE_INVITATIONS_SQL = "UPDATE provider_invitations SET status = 'EXPIRED' "
+            + "WHERE expires_at < ? AND status = 'PENDING' LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${housekeeping.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${housekeeping.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    @Value("${housekeeping.sessions.grace-hours:168}")
+    private long sessionGraceHours;
+
+    /**
+     * Ejecutar la limpieza de las tres tablas
+     */
+    @Scheduled(fixedDelayString = "${housekeeping.interval-ms:3600000}",
+            initialDelayString = "${housekeeping.initial-delay-ms:300000}")
+    public void run() {
+        long startTime = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        int sessions = runInChunks("user_sessions", DELETE_SESSIONS_SQL, now.minusHours(sessionGraceHours));
+        int resetTokens = runInChunks("password_reset_tokens", DELETE_RESET_TOKENS_SQL, now);
+        int invitations = runInChunks("provider_invitations", EXPIRE_INVITATIONS_SQL, now);
+
+        long elapsedNanos = System.nanoTime() - startTime;
+        meterRegistry.timer("songstock.housekeeping.duration").record(elapsedNanos, TimeUnit.NANOSECONDS);
+        logger.info("Limpieza de vencidos - Sesiones eliminadas: {}, Tokens de recuperación eliminados: {}, "
+                + "Invitaciones expiradas: {}, Tiempo: {} ms", sessions, resetTokens, invitations,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    /**
+     * Ejecutar la sentencia por bloques hasta que afecte menos filas que el
+     * tamaño del bloque o se alcance el máximo por ejecución
+     */
+    private int runInChunks(String table, String sql, LocalDateTime before) {
+        int total = 0;
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                int affected = jdbcTemplate.update(sql, Timestamp.valueOf(before), chunkSize);
+                total += affected;
+                if (affected < chunkSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Un error en una tabla no impide limpiar las demás
+            logger.error("Error en la limpieza de {}: {}", table, e.getMessage());
+        }
+        meterRegistry.summary("songstock.housekeeping.rows", "table", table).record(total);
+        return total;
+    }
+}
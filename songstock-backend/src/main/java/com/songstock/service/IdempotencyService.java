@@ -0,0 +1,212 @@
+package com.songstock.service;
+
+import com.songstock.entity.IdempotencyRecord;
+import com.songstock.entity.IdempotencyStatus;
+import com.songstock.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio del almacén de claves de idempotencia.
+ *
+ * - Reserva la clave antes de ejecutar la petición original, con un lease que
+ * se renueva mientras la petición sigue en ejecución en esta instancia.
+ * - Una clave en curso solo se vuelve a ejecutar si su lease venció (caída del
+ * servidor a mitad de la petición), y la toma una sola petición: la toma es un
+ * UPDATE condicionado al lease leído.
+ * - Guarda el código y cuerpo de la respuesta al terminar, para contestar los
+ * reintentos con el mismo resultado.
+ * - Elimina periódicamente las claves vencidas.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public enum Decision {
+        PROCEED, // Clave reservada: ejecutar la petición
+        REPLAY, // Respuesta guardada disponible
+        MISMATCH, // La clave ya se usó con otra petición
+        IN_PROGRESS // La petición original sigue en ejecución
+    }
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.in-progress-timeout-ms:30000}")
+    private long inProgressTimeoutMs;
+
+    @Value("${idempotency.max-stored-response-bytes:262144}")
+    private int maxStoredResponseBytes;
+
+    /** Registros de las peticiones en ejecución en esta instancia, con lease a renovar */
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Reservar la clave de un usuario para una petición, o resolver qué responder
+     * si ya existe
+     */
+    @Transactional
+    public Claim begin(String username, String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findByUsernameAndIdempotencyKey(username,
+                key);
+
+        if (existing.isEmpty()) {
+            IdempotencyRecord record = idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(username, key,
+                    requestHash, leaseFrom(now), now.plusHours(ttlHours)));
+            return proceed(record.getId());
+        }
+
+        IdempotencyRecord record = existing.get();
+
+        // Clave vencida: se reutiliza como si fuera nueva
+        if (record.getExpiresAt().isBefore(now)) {
+            return takeOver(record, requestHash, now);
+        }
+
+        if (!record.getRequestHash().equals(requestHash)) {
+            return new Claim(Decision.MISMATCH, record.getId(), null, null);
+        }
+
+        if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+            return new Claim(Decision.REPLAY, record.getId(), record.getResponseStatus(), record.getResponseBody());
+        }
+
+        // Ejecución abandonada: nadie renovó el lease (caída del servidor a mitad de la petición)
+        if (record.getLeaseExpiresAt().isBefore(now)) {
+            logger.warn("Clave de idempotencia abandonada, se vuelve a ejecutar - Usuario: {}, Clave: {}", username,
+                    key);
+            return takeOver(record, requestHash, now);
+        }
+
+        return new Claim(Decision.IN_PROGRESS, record.getId(), null, null);
+    }
+
+    /**
+     * Guardar la respuesta de la petición original
+     */
+    @Transactional
+    public void complete(Long recordId, int status, String body) {
+        running.remove(recordId);
+        idempotencyRecordRepository.findById(recordId).ifPresent(record -> {
+            record.setStatus(IdempotencyStatus.COMPLETED);
+            record.setResponseStatus(status);
+            // Las respuestas muy grandes se guardan sin cuerpo
+            record.setResponseBody(body != null && body.getBytes(StandardCharsets.UTF_8).length <= maxStoredResponseBytes
+                    ? body
+                    : null);
+        });
+    }
+
+    /**
+     * Liberar la clave cuando la petición falló sin respuesta definitiva, para
+     * que el reintento vuelva a ejecutarla
+     */
+    @Transactional
+    public void release(Long recordId) {
+        running.remove(recordId);
+        idempotencyRecordRepository.deleteById(recordId);
+    }
+
+    /**
+     * Renovar el lease de las peticiones que siguen en ejecución en esta
+     * instancia, para que no se consideren abandonadas
+     */
+    @Scheduled(fixedDelayString = "${idempotency.lease-renew-interval-ms:10000}")
+    @Transactional
+    public void renewLeases() {
+        if (running.isEmpty()) {
+            return;
+        }
+        idempotencyRecordRepository.renewLeases(Set.copyOf(running), IdempotencyStatus.IN_PROGRESS,
+                leaseFrom(LocalDateTime.now()));
+    }
+
+    /**
+     * Eliminar las claves vencidas
+     */
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Claves de idempotencia vencidas eliminadas: {}", deleted);
+        }
+    }
+
+    public long getInProgressTimeoutMs() {
+        return inProgressTimeoutMs;
+    }
+
+    /**
+     * Volver a tomar una clave leída; si otra petición la tomó o renovó antes,
+     * esa petición sigue en curso
+     */
+    private Claim takeOver(IdempotencyRecord record, String requestHash, LocalDateTime now) {
+        int updated = idempotencyRecordRepository.takeOver(record.getId(), record.getLeaseExpiresAt(), requestHash,
+                IdempotencyStatus.IN_PROGRESS, now, leaseFrom(now),
+                now.plusHours(ttlHours));
+        if (updated == 0) {
+            return new Claim(Decision.IN_PROGRESS, record.getId(), null, null);
+        }
+        return proceed(record.getId());
+    }
+
+    private LocalDateTime leaseFrom(LocalDateTime now) {
+        return now.plus(Duration.ofMillis(inProgressTimeoutMs));
+    }
+
+    private Claim proceed(Long recordId) {
+        running.add(recordId);
+        return new Claim(Decision.PROCEED, recordId, null, null);
+    }
+
+    /**
+     * Resultado de la reserva de una clave
+     */
+    public static final class Claim {
+        private final Decision decision;
+        private final Long recordId;
+        private final Integer responseStatus;
+        private final String responseBody;
+
+        private Claim(Decision decision, Long recordId, Integer responseStatus, String responseBody) {
+            this.decision = decision;
+            this.recordId = recordId;
+            this.responseStatus = responseStatus;
+            this.responseBody = responseBody;
+        }
+
+        public Decision getDecision() {
+            return decision;
+        }
+
+        public Long getRecordId() {
+            return recordId;
+        }
+
+        public Integer getResponseStatus() {
+            return responseStatus;
+        }
+
+        public String getResponseBody() {
+            return responseBody;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.songstock.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.songstock.dto.InventoryImportResultDTO;
+import com.songstock.dto.InventoryImportResultDTO.Status;
+import com.songstock.entity.InventoryMovementType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Servicio de importación masiva de inventario por SKU.
+ *
+ * - Lee el archivo (CSV o NDJSON) línea a línea, sin cargarlo completo en memoria.
+ * - Agrupa las filas en lotes; cada lote valida la propiedad de todos sus SKUs con
+ * una sola consulta y aplica los cambios con un batch JDBC de UPDATEs en su
+ * propia transacción.
+ * - Escribe el resultado de cada fila como una línea NDJSON en cuanto su lote
+ * se confirma.
+ *
+ * Columnas reconocidas: sku, stock (valor absoluto) o adjustment (variación con
+ * signo), y reason opcional. El CSV requiere cabecera y no admite comas dentro
+ * de los valores.
+ */
+@Service
+public class InventoryImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryImportService.class);
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final String UPDATE_STOCK_SQL = "UPDATE products SET stock_quantity = ?, updated_at = ? "
+            + "WHERE id = ? AND provider_id = ?";
+
+    private static final String DEFAULT_REASON = "Importación masiva de inventario";
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.import.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Importar el stock de un proveedor desde un archivo y escribir el resultado
+     * de cada fila en la salida
+     */
+    public void importStock(Long providerId, InputStream input, Format format, OutputStream output)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        Map<String, Integer> csvColumns = null;
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        long processed = 0;
+        long updated = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            if (format == Format.CSV && csvColumns == null) {
+                csvColumns = parseCsvHeader(line);
+                if (!csvColumns.containsKey("sku")
+                        || (!csvColumns.containsKey("stock") && !csvColumns.containsKey("adjustment"))) {
+                    writeResult(output, new InventoryImportResultDTO(lineNumber, null, Status.REJECTED,
+                            null, null, null, "La cabecera debe incluir sku y stock o adjustment"));
+                    break;
+                }
+                continue;
+            }
+
+            chunk.add(format == Format.CSV ? parseCsvRow(lineNumber, line, csvColumns)
+                    : parseJsonRow(lineNumber, line));
+
+            if (chunk.size() >= chunkSize) {
+                updated += applyAndWrite(providerId, chunk, output);
+                processed += chunk.size();
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            updated += applyAndWrite(providerId, chunk, output);
+            processed += chunk.size();
+        }
+
+        output.flush();
+        logger.info("Importación de inventario - Proveedor: {}, Filas: {}, Actualizadas: {}",
+                providerId, processed, updated);
+    }
+
+    /**
+     * Aplicar un lote y escribir sus resultados. Si el lote falla, todas sus
+     * filas se reportan como rechazadas y la importación continúa con el siguiente.
+     */
+    private int applyAndWrite(Long providerId, List<ImportRow> rows, OutputStream output)
+            throws IOException {
+        List<InventoryImportResultDTO> results;
+        try {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            results = transactionTemplate.execute(status -> applyChunk(providerId, rows));
+        } catch (RuntimeException e) {
+            logger.error("Error aplicando lote de importación - Proveedor: {}, Líneas {}-{}: {}", providerId,
+                    rows.get(0).line, rows.get(rows.size() - 1).line, e.getMessage());
+            results = new ArrayList<>(rows.size());
+            for (ImportRow row : rows) {
+                results.add(new InventoryImportResultDTO(row.line, row.sku, Status.REJECTED, null, null, null,
+                        "Error al aplicar el lote"));
+            }
+        }
+
+        int updated = 0;
+        for (InventoryImportResultDTO result : results) {
+            if (result.getStatus() == Status.UPDATED) {
+                updated++;
+            }
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+        return updated;
+    }
+
+    /**
+     * Validar y aplicar un lote de filas dentro de la transacción actual
+     */
+    private List<InventoryImportResultDTO> applyChunk(Long providerId, List<ImportRow> rows) {
+        Set<String> skus = new LinkedHashSet<>();
+        for (ImportRow row : rows) {
+            if (row.error == null) {
+                skus.add(row.sku);
+            }
+        }
+
+        // Una sola consulta para validar la propiedad de todos los SKUs del lote
+        Map<String, StockRow> stockBySku = new HashMap<>();
+        if (!skus.isEmpty()) {
+            String placeholders = String.join(",", Collections.nCopies(skus.size(), "?"));
+            List<Object> params = new ArrayList<>(skus.size() + 1);
+            params.add(providerId);
+            params.addAll(skus);
+            jdbcTemplate.query("SELECT id, sku, stock_quantity, is_active FROM products "
+                    + "WHERE provider_id = ? AND sku IN (" + placeholders + ") FOR UPDATE",
+                    rs -> {
+                        stockBySku.put(rs.getString("sku"), new StockRow(rs.getLong("id"),
+                                rs.getInt("stock_quantity"), rs.getBoolean("is_active")));
+                    },
+                    params.toArray());
+        }
+
+        List<InventoryImportResultDTO> results = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            if (row.error != null) {
+                results.add(new InventoryImportResultDTO(row.line, row.sku, Status.REJECTED, null, null, null,
+                        row.error));
+                continue;
+            }
+
+            StockRow stock = stockBySku.get(row.sku);
+            if (stock == null) {
+                results.add(new InventoryImportResultDTO(row.line, row.sku, Status.NOT_FOUND, null, null, null,
+                        "SKU no encontrado en el catálogo del proveedor"));
+                continue;
+            }
+            if (!stock.active) {
+                results.add(new InventoryImportResultDTO(row.line, row.sku, Status.REJECTED, stock.id,
+                        stock.quantity, stock.quantity, "No se puede actualizar stock de un producto inactivo"));
+                continue;
+            }
+
+            int previous = stock.quantity;
+            int target = row.stock != null ? row.stock : previous + row.adjustment;
+            if (target < 0) {
+                results.add(new InventoryImportResultDTO(row.line, row.sku, Status.REJECTED, stock.id, previous,
+                        previous, "El stock no puede ser negativo"));
+                continue;
+            }
+            if (target == previous) {
+                results.add(new InventoryImportResultDTO(row.line, row.sku, Status.UNCHANGED, stock.id, previous,
+                        previous, null));
+                continue;
+            }
+
+            // Un mismo SKU puede repetirse en el lote: se aplica en orden sobre el valor en memoria
+            stock.quantity = target;
+            stock.changed = true;
+            inventoryLedgerService.record(stock.id, providerId, InventoryMovementType.BULK_IMPORT, previous, target,
+                    row.reason != null ? row.reason : DEFAULT_REASON);
+            results.add(new InventoryImportResultDTO(row.line, row.sku, Status.UPDATED, stock.id, previous, target,
+                    null));
+        }
+
+        List<StockRow> changed = new ArrayList<>();
+        for (StockRow stock : stockBySku.values()) {
+            if (stock.changed) {
+                changed.add(stock);
+            }
+        }
+        if (!changed.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(UPDATE_STOCK_SQL, changed, changed.size(), (ps, stock) -> {
+                ps.setInt(1, stock.quantity);
+                ps.setTimestamp(2, now);
+                ps.setLong(3, stock.id);
+                ps.setLong(4, providerId);
+            });
+        }
+
+        return results;
+    }
+
+    private void writeResult(OutputStream output, InventoryImportResultDTO result) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(result));
+        output.write('\n');
+        output.flush();
+    }
+
+    // ================= Parseo de filas =================
+
+    private Map<String, Integer> parseCsvHeader(String line) {
+        String[] columns = line.split(",", -1);
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            String name = unquote(columns[i]);
+            // Ignorar el BOM que agregan algunas hojas de cálculo
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            indexes.put(name.toLowerCase(Locale.ROOT), i);
+        }
+        return indexes;
+    }
+
+    private ImportRow parseCsvRow(long lineNumber, String line, Map<String, Integer> columns) {
+        String[] values = line.split(",", -1);
+        String sku = csvValue(values, columns.get("sku"));
+        String stock = csvValue(values, columns.get("stock"));
+        String adjustment = csvValue(values, columns.get("adjustment"));
+        String reason = csvValue(values, columns.get("reason"));
+        return buildRow(lineNumber, sku, stock, adjustment, reason);
+    }
+
+    private ImportRow parseJsonRow(long lineNumber, String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            return ImportRow.rejected(lineNumber, null, "JSON inválido");
+        }
+        if (node == null || !node.isObject()) {
+            return ImportRow.rejected(lineNumber, null, "Se esperaba un objeto JSON por línea");
+        }
+        return buildRow(lineNumber, jsonText(node, "sku"), jsonText(node, "stock"), jsonText(node, "adjustment"),
+                jsonText(node, "reason"));
+    }
+
+    private ImportRow buildRow(long lineNumber, String sku, String stock, String adjustment, String reason) {
+        if (sku == null || sku.isEmpty()) {
+            return ImportRow.rejected(lineNumber, sku, "El SKU es obligatorio");
+        }
+        if ((stock == null) == (adjustment == null)) {
+            return ImportRow.rejected(lineNumber, sku, "Debe indicar stock o adjustment, pero no ambos");
+        }
+
+        ImportRow row = new ImportRow(lineNumber, sku);
+        row.reason = reason;
+        try {
+            if (stock != null) {
+                row.stock = Integer.valueOf(stock);
+                if (row.stock < 0) {
+                    return ImportRow.rejected(lineNumber, sku, "El stock no puede ser negativo");
+                }
+            } else {
+                row.adjustment = Integer.valueOf(adjustment);
+            }
+        } catch (NumberFormatException e) {
+            return ImportRow.rejected(lineNumber, sku, "Cantidad no numérica");
+        }
+        return row;
+    }
+
+    private String csvValue(String[] values, Integer index) {
+        if (index == null || index >= values.length) {
+            return null;
+        }
+        String value = unquote(values[index]);
+        return value.isEmpty() ? null : value;
+    }
+
+    private String jsonText(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+
+    /**
+     * Fila leída del archivo
+     */
+    private static final class ImportRow {
+        private final long line;
+        private final String sku;
+        private Integer stock;
+        private Integer adjustment;
+        private String reason;
+        private String error;
+
+        private ImportRow(long line, String sku) {
+            this.line = line;
+            this.sku = sku;
+        }
+
+        private static ImportRow rejected(long line, String sku, String error) {
+            ImportRow row = new ImportRow(line, sku);
+            row.error = error;
+            return row;
+        }
+    }
+
+    /**
+     * Stock actual de un producto del lote
+     */
+    private static final class StockRow {
+        private final long id;
+        private int quantity;
+        private final boolean active;
+        private boolean changed;
+
+        private StockRow(long id, int quantity, boolean active) {
+            this.id = id;
+            this.quantity = quantity;
+            this.active = active;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.songstock.service;
+
+import com.songstock.dto.InventoryAuditDTO;
+import com.songstock.dto.InventoryMovementDTO;
+import com.songstock.dto.InventoryMovementPageDTO;
+import com.songstock.entity.InventoryMovement;
+import com.songstock.entity.InventoryMovementType;
+import com.songstock.entity.InventorySnapshot;
+import com.songstock.entity.Product;
+import com.songstock.exception.ResourceNotFoundException;
+import com.songstock.repository.InventoryMovementRepository;
+import com.songstock.repository.InventorySnapshotRepository;
+import com.songstock.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio del ledger de inventario.
+ *
+ * - Registra cada cambio de stock como un movimiento de solo inserción. Los
+ * movimientos de una transacción se acumulan y se insertan en un único batch
+ * JDBC justo antes del commit (IDENTITY impide el batching de Hibernate).
+ * - Compacta periódicamente el ledger en snapshots por producto.
+ * - Permite auditar y reconstruir el stock de un producto a partir del último
+ * snapshot más los movimientos posteriores.
+ */
+@Service
+public class InventoryLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedgerService.class);
+
+    private static final String INSERT_MOVEMENT_SQL = "INSERT INTO inventory_movements "
+            + "(product_id, provider_id, movement_type, quantity_delta, stock_after, reason, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int REASON_MAX_LENGTH = 255;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /** Clave del buffer de movimientos ligado a la transacción actual */
+    private static final Object BUFFER_KEY = new Object();
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Autowired
+    private InventorySnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.snapshot.chunk-size:5000}")
+    private int snapshotChunkSize;
+
+    /**
+     * Registrar el cambio de stock de un producto ya modificado en memoria.
+     * No registra nada si el stock no cambió.
+     *
+     * @param product       producto con el stock nuevo
+     * @param previousStock stock antes del cambio (null si el producto es nuevo)
+     */
+    public void record(Product product, InventoryMovementType type, Integer previousStock, String reason) {
+        int stockAfter = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+        record(product.getId(), product.getProvider().getId(), type, previousStock, stockAfter, reason);
+    }
+
+    /**
+     * Registrar un cambio de stock aplicado sin pasar por la entidad
+     * (por ejemplo, con UPDATE por lotes)
+     */
+    public void record(Long productId, Long providerId, InventoryMovementType type, Integer previousStock,
+            int stockAfter, String reason) {
+        int delta = stockAfter - (previousStock != null ? previousStock : 0);
+        if (delta == 0) {
+            return;
+        }
+
+        PendingMovement movement = new PendingMovement(productId, providerId, type, delta, stockAfter,
+                truncate(reason), LocalDateTime.now());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insertBatch(List.of(movement));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<PendingMovement> buffer = (List<PendingMovement>) TransactionSynchronizationManager
+                .getResource(BUFFER_KEY);
+        if (buffer == null) {
+            List<PendingMovement> newBuffer = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(BUFFER_KEY, newBuffer);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insertBatch(newBuffer);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BUFFER_KEY);
+                }
+            });
+            buffer = newBuffer;
+        }
+        buffer.add(movement);
+    }
+
+    /**
+     * Insertar los movimientos pendientes en un solo batch JDBC
+     */
+    private void insertBatch(List<PendingMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, movements, movements.size(), (ps, m) -> {
+            ps.setLong(1, m.productId);
+            ps.setLong(2, m.providerId);
+            ps.setString(3, m.type.name());
+            ps.setInt(4, m.delta);
+            ps.setInt(5, m.stockAfter);
+            ps.setString(6, m.reason);
+            ps.setTimestamp(7, Timestamp.valueOf(m.createdAt));
+        });
+        logger.debug("Ledger de inventario: {} movimientos insertados", movements.size());
+        movements.clear();
+    }
+
+    /**
+     * Historial de movimientos de un proveedor, opcionalmente filtrado por
+     * producto, paginado por cursor de ID descendente
+     */
+    @Transactional(readOnly = true)
+    public InventoryMovementPageDTO getProviderMovements(Long providerId, Long productId, Long beforeId,
+            Integer size) {
+        int pageSize = size == null || size <= 0 ? 50 : Math.min(size, MAX_PAGE_SIZE);
+
+        List<InventoryMovement> movements = movementRepository.findProviderMovements(providerId, productId,
+                beforeId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = movements.size() > pageSize;
+        if (hasMore) {
+            movements = movements.subList(0, pageSize);
+        }
+
+        List<InventoryMovementDTO> dtos = movements.stream()
+                .map(m -> new InventoryMovementDTO(m.getId(), m.getProductId(), m.getMovementType(),
+                        m.getQuantityDelta(), m.getStockAfter(), m.getReason(), m.getCreatedAt()))
+                .collect(Collectors.toList());
+        Long nextCursor = hasMore ? movements.get(movements.size() - 1).getId() : null;
+
+        return new InventoryMovementPageDTO(dtos, nextCursor, hasMore);
+    }
+
+    /**
+     * Auditar el stock de un producto contra el ledger.
+     * Si providerId no es null, valida que el producto le pertenezca.
+     */
+    @Transactional(readOnly = true)
+    public InventoryAuditDTO auditProduct(Long productId, Long providerId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productId));
+
+        if (providerId != null && !product.getProvider().getId().equals(providerId)) {
+            throw new RuntimeException("No tienes permisos para auditar este producto");
+        }
+
+        InventorySnapshot snapshot = snapshotRepository.findById(productId).orElse(null);
+        Integer ledgerStock = computeLedgerStock(productId, snapshot);
+        boolean consistent = ledgerStock == null || ledgerStock.equals(product.getStockQuantity());
+
+        return new InventoryAuditDTO(productId, product.getStockQuantity(), ledgerStock,
+                snapshot != null ? snapshot.getStockQuantity() : null,
+                snapshot != null ? snapshot.getLastMovementId() : null,
+                consistent);
+    }
+
+    /**
+     * Reconstruir el stock de un producto a partir del ledger
+     */
+    @Transactional
+    public InventoryAuditDTO rebuildProductStock(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productId));
+
+        InventorySnapshot snapshot = snapshotRepository.findById(productId).orElse(null);
+        Integer ledgerStock = computeLedgerStock(productId, snapshot);
+        if (ledgerStock == null) {
+            throw new RuntimeException("El producto no tiene movimientos de inventario registrados");
+        }
+
+        if (!ledgerStock.equals(product.getStockQuantity())) {
+            logger.warn("Stock reconstruido desde el ledger - Producto: {}, Stock anterior: {}, Stock ledger: {}",
+                    productId, product.getStockQuantity(), ledgerStock);
+            product.setStockQuantity(ledgerStock);
+            productRepository.save(product);
+        }
+
+        return new InventoryAuditDTO(productId, ledgerStock, ledgerStock,
+                snapshot != null ? snapshot.getStockQuantity() : null,
+                snapshot != null ? snapshot.getLastMovementId() : null,
+                true);
+    }
+
+    /**
+     * Stock según el ledger: snapshot + variaciones posteriores, o bien el stock
+     * anterior al primer movimiento + todas las variaciones si aún no hay
+     * snapshot. Devuelve null si el producto no tiene movimientos.
+     */
+    private Integer computeLedgerStock(Long productId, InventorySnapshot snapshot) {
+        if (snapshot != null) {
+            Long delta = movementRepository.sumDeltaAfter(productId, snapshot.getLastMovementId());
+            return snapshot.getStockQuantity() + delta.intValue();
+        }
+
+        return movementRepository.findFirstByProductIdOrderByIdAsc(productId)
+                .map(first -> {
+                    int opening = first.getStockAfter() - first.getQuantityDelta();
+                    Long delta = movementRepository.sumDeltaAfter(productId, first.getId() - 1);
+                    return opening + delta.intValue();
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Compactar el ledger en snapshots por producto.
+     * Recorre los movimientos nuevos por rangos de ID acotados; cada rango se
+     * confirma en su propia transacción.
+     */
+    @Scheduled(fixedDelayString = "${inventory.snapshot.interval-ms:3600000}",
+            initialDelayString = "${inventory.snapshot.initial-delay-ms:300000}")
+    public void compactSnapshots() {
+        long watermark = snapshotRepository.findWatermark();
+        long maxId = movementRepository.findMaxId();
+        if (maxId <= watermark) {
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int updated = 0;
+        long from = watermark;
+        while (from < maxId) {
+            long to = Math.min(from + snapshotChunkSize, maxId);
+            long fromId = from;
+            Integer count = transactionTemplate.execute(status -> compactRange(fromId, to));
+            updated += count != null ? count : 0;
+            from = to;
+        }
+
+        logger.info("Compactación de inventario completada - Movimientos hasta ID: {}, Snapshots actualizados: {}",
+                maxId, updated);
+    }
+
+    private int compactRange(long fromId, long toId) {
+        List<InventoryMovement> latest = movementRepository.findLatestPerProductInRange(fromId, toId);
+        if (latest.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, InventorySnapshot> existing = snapshotRepository
+                .findAllById(latest.stream().map(InventoryMovement::getProductId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(InventorySnapshot::getProductId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<InventorySnapshot> snapshots = new ArrayList<>(latest.size());
+        for (InventoryMovement movement : latest) {
+            InventorySnapshot snapshot = existing.getOrDefault(movement.getProductId(),
+                    new InventorySnapshot(movement.getProductId(), movement.getProviderId()));
+            snapshot.setProviderId(movement.getProviderId());
+            snapshot.setStockQuantity(movement.getStockAfter());
+            snapshot.setLastMovementId(movement.getId());
+            snapshot.setSnapshotAt(now);
+            snapshots.add(snapshot);
+        }
+        snapshotRepository.saveAll(snapshots);
+        return snapshots.size();
+    }
+
+    private String truncate(String reason) {
+        if (reason == null || reason.length() <= REASON_MAX_LENGTH) {
+            return reason;
+        }
+        return reason.substring(0, REASON_MAX_LENGTH);
+    }
+
+    /**
+     * Movimiento pendiente de inserción
+     */
+    private static final class PendingMovement {
+        private final Long productId;
+        private final Long providerId;
+        private final InventoryMovementType type;
+        private final int delta;
+        private final int stockAfter;
+        private final String reason;
+        private final LocalDateTime createdAt;
+
+        private PendingMovement(Long productId, Long providerId, InventoryMovementType type, int delta,
+                int stockAfter, String reason, LocalDateTime createdAt) {
+            this.productId = productId;
+            this.providerId = providerId;
+            this.type = type;
+            this.delta = delta;
+            this.stockAfter = stockAfter;
+            this.reason = reason;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.songstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool acotado para los logins (verificación de la contraseña con BCrypt).
+ *
+ * - Los logins no ocupan hilos de Tomcat mientras se verifica la contraseña:
+ * una ráfaga de logins no deja sin hilos al catálogo ni al resto de la API.
+ * - La cola es acotada: con la cola llena el login se rechaza de inmediato
+ * ({@link RejectedExecutionException}) en lugar de acumular esperas.
+ *
+ * Métricas: songstock.auth.login.queue.size, songstock.auth.login.queue_wait
+ * (espera en la cola) y songstock.auth.login.rejected.
+ */
+@Service
+public class LoginExecutor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.login.threads:4}")
+    private int threads;
+
+    @Value("${auth.login.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer queueWaitTimer;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        meterRegistry.gauge("songstock.auth.login.queue.size", executor.getQueue(), BlockingQueue::size);
+        queueWaitTimer = meterRegistry.timer("songstock.auth.login.queue_wait");
+        rejectedCounter = meterRegistry.counter("songstock.auth.login.rejected");
+    }
+
+    /**
+     * Ejecutar un login en el pool.
+     *
+     * @throws RejectedExecutionException si la cola está llena
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> login) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return login.get();
+                } finally {
+                    // El login deja la autenticación en el hilo; no debe pasar al siguiente
+                    SecurityContextHolder.clearContext();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
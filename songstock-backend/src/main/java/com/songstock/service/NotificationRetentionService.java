@@ -0,0 +1,259 @@
+package com.songstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Job de retención de la tabla de notificaciones.
+ *
+ * En cada ejecución, por lotes de tamaño acotado y cada lote en su propia
+ * transacción:
+ * - Agrupa las notificaciones PROVIDER_NEW_ORDER repetidas (una por producto de
+ * la misma orden) en una sola; las sobrantes pasan al archivo.
+ * - Mueve las notificaciones leídas más antiguas que el umbral a
+ * notifications_archive.
+ * - Elimina las que superan el límite de retención, en la tabla principal y en
+ * el archivo.
+ *
+ * Las filas afectadas por ejecución se publican como métricas
+ * songstock.notifications.retention.rows, etiquetadas por acción.
+ */
+@Service
+public class NotificationRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    private static final String ARCHIVE_COLUMNS = "id, user_id, type, title, message, is_read, order_id, created_at";
+
+    private static final String SELECT_ARCHIVABLE_SQL = "SELECT id FROM notifications "
+            + "WHERE is_read = TRUE AND created_at < ? LIMIT ?";
+
+    private static final String SELECT_DUPLICATE_GROUPS_SQL = "SELECT n.user_id, n.order_id, o.order_number, "
+            + "MAX(n.id), COUNT(*), SUM(CASE WHEN n.is_read THEN 0 ELSE 1 END) "
+            + "FROM notifications n JOIN orders o ON o.id = n.order_id "
+            + "WHERE n.type = 'PROVIDER_NEW_ORDER' AND n.created_at < ? "
+            + "GROUP BY n.user_id, n.order_id, o.order_number HAVING COUNT(*) > 1 LIMIT ?";
+
+    // Las del grupo anteriores a la que se conserva
+    private static final String DUPLICATES_WHERE = " WHERE type = 'PROVIDER_NEW_ORDER' AND user_id = ? "
+            + "AND order_id = ? AND id < ?";
+
+    private static final String SELECT_EXPIRED_SQL = "SELECT id, user_id, is_read FROM notifications "
+            + "WHERE created_at < ? LIMIT ?";
+
+    private static final String DELETE_EXPIRED_ARCHIVE_SQL = "DELETE FROM notifications_archive "
+            + "WHERE created_at < ? LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private NotificationUnreadCounterService unreadCounterService;
+
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notifications.retention.archive-after-days:30}")
+    private int archiveAfterDays;
+
+    @Value("${notifications.retention.compact-after-hours:1}")
+    private int compactAfterHours;
+
+    @Value("${notifications.retention.hard-limit-days:365}")
+    private int hardLimitDays;
+
+    @Value("${notifications.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notifications.retention.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    /**
+     * Ejecutar las tres fases de retención
+     */
+    @Scheduled(fixedDelayString = "${notifications.retention.interval-ms:3600000}",
+            initialDelayString = "${notifications.retention.initial-delay-ms:600000}")
+    public void runRetention() {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        int compacted = compactProviderNotifications(now.minusHours(compactAfterHours));
+        int archived = archiveRead(now.minusDays(archiveAfterDays));
+        int deleted = deleteExpired(now.minusDays(hardLimitDays));
+
+        record("compacted", compacted);
+        record("archived", archived);
+        record("deleted", deleted);
+
+        logger.info("Retención de notificaciones - Agrupadas: {}, Archivadas: {}, Eliminadas: {}, Tiempo: {} ms",
+                compacted, archived, deleted, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Agrupar las notificaciones de nuevo pedido repetidas de un proveedor para
+     * la misma orden. Se conserva la más reciente, con un mensaje que resume la
+     * orden, y queda sin leer si alguna del grupo lo estaba.
+     */
+    int compactProviderNotifications(LocalDateTime createdBefore) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int[] total = { 0 };
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer groups = transactionTemplate.execute(status -> {
+                List<Object[]> rows = jdbcTemplate.query(SELECT_DUPLICATE_GROUPS_SQL,
+                        (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getLong(4),
+                                rs.getLong(5), rs.getLong(6) },
+                        Timestamp.valueOf(createdBefore), batchSize);
+                if (!rows.isEmpty()) {
+                    total[0] += compactGroups(rows);
+                }
+                return rows.size();
+            });
+            if (groups == null || groups < batchSize) {
+                break;
+            }
+        }
+        return total[0];
+    }
+
+    private int compactGroups(List<Object[]> groups) {
+        List<Object[]> duplicateParams = new ArrayList<>(groups.size());
+        List<Object[]> keptParams = new ArrayList<>(groups.size());
+        Map<Long, Long> unreadRemoved = new HashMap<>();
+        for (Object[] group : groups) {
+            Long userId = (Long) group[0];
+            long count = (Long) group[4];
+            long unread = (Long) group[5];
+            duplicateParams.add(new Object[] { userId, group[1], group[3] });
+            keptParams.add(new Object[] { "Has recibido un pedido #" + group[2] + " con " + count + " productos",
+                    unread == 0, group[3] });
+            if (unread > 1) {
+                unreadRemoved.merge(userId, unread - 1, Long::sum);
+            }
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO notifications_archive (" + ARCHIVE_COLUMNS + ") SELECT "
+                + ARCHIVE_COLUMNS + " FROM notifications" + DUPLICATES_WHERE, duplicateParams);
+        int[] deleted = jdbcTemplate.batchUpdate("DELETE FROM notifications" + DUPLICATES_WHERE, duplicateParams);
+        jdbcTemplate.batchUpdate("UPDATE notifications SET message = ?, is_read = ? WHERE id = ?", keptParams);
+
+        unreadRemoved.forEach(this::applyUnreadRemoved);
+        return sum(deleted);
+    }
+
+    /**
+     * Mover a la tabla de archivo las notificaciones leídas creadas antes de la
+     * fecha indicada
+     */
+    int archiveRead(LocalDateTime createdBefore) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(SELECT_ARCHIVABLE_SQL, Long.class,
+                        Timestamp.valueOf(createdBefore), batchSize);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                String in = " WHERE id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+                Object[] params = ids.toArray();
+                jdbcTemplate.update("INSERT INTO notifications_archive (" + ARCHIVE_COLUMNS + ") SELECT "
+                        + ARCHIVE_COLUMNS + " FROM notifications" + in, params);
+                jdbcTemplate.update("DELETE FROM notifications" + in, params);
+                return ids.size();
+            });
+            int count = moved != null ? moved : 0;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Eliminar las notificaciones, leídas o no, y las archivadas, creadas antes
+     * de la fecha indicada
+     */
+    int deleteExpired(LocalDateTime createdBefore) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Object[]> rows = jdbcTemplate.query(SELECT_EXPIRED_SQL,
+                        (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getLong(2), rs.getBoolean(3) },
+                        Timestamp.valueOf(createdBefore), batchSize);
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+                Map<Long, Long> unreadRemoved = new HashMap<>();
+                for (Object[] row : rows) {
+                    if (!(Boolean) row[2]) {
+                        unreadRemoved.merge((Long) row[1], 1L, Long::sum);
+                    }
+                }
+                jdbcTemplate.update("DELETE FROM notifications WHERE id IN ("
+                        + String.join(",", Collections.nCopies(rows.size(), "?")) + ")",
+                        rows.stream().map(row -> row[0]).toArray());
+                unreadRemoved.forEach(this::applyUnreadRemoved);
+                return rows.size();
+            });
+            int count = deleted != null ? deleted : 0;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(DELETE_EXPIRED_ARCHIVE_SQL,
+                    Timestamp.valueOf(createdBefore), batchSize));
+            int count = deleted != null ? deleted : 0;
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    // Las filas se borran por JDBC: el contador y el canal se ajustan a mano
+    private void applyUnreadRemoved(Long userId, Long count) {
+        unreadCounterService.adjust(userId, -count);
+        notificationStreamService.publishUnreadDelta(userId, -count);
+    }
+
+    private void record(String action, int rows) {
+        meterRegistry.summary("songstock.notifications.retention.rows", "action", action).record(rows);
+    }
+
+    private int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // Algunos drivers devuelven SUCCESS_NO_INFO (-2) en los lotes
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
@@ -1,26 +1,45 @@
 package com.songstock.service;
 
 import com.songstock.dto.NotificationDTO;
+import com.songstock.dto.NotificationPageDTO;
 import com.songstock.entity.Notification;
 import com.songstock.entity.User;
 import com.songstock.repository.NotificationRepository;
 import com.songstock.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class NotificationService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_TITLES_IN_MESSAGE = 5;
+
     @Autowired
     private NotificationRepository notificationRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
+    @Autowired
+    private NotificationUnreadCounterService unreadCounterService;
+
     public void createOrderNotification(Long userId, Long orderId, String orderNumber) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -33,29 +52,81 @@ public class NotificationService {
         notification.setOrderId(orderId);
         notification.setIsRead(false);
 
-        notificationRepository.save(notification);
+        publish(notificationRepository.save(notification));
     }
 
-    public void createProviderOrderNotification(Long providerId, Long orderId, String orderNumber, String productName) {
-        User providerUser = userRepository.findByProviderId(providerId)
-                .orElseThrow(() -> new RuntimeException("Usuario proveedor no encontrado"));
+    /**
+     * Crear las notificaciones agrupadas de nuevo pedido, una por proveedor, con
+     * una sola consulta de usuarios para todos los proveedores
+     */
+    public void createProviderOrderNotifications(
+            Collection<ProviderNotificationCoalescer.PendingProviderNotification> pending) {
+        Map<Long, User> usersByProvider = userRepository.findWithProviderByProviderIdIn(pending.stream()
+                .map(ProviderNotificationCoalescer.PendingProviderNotification::getProviderId)
+                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(user -> user.getProvider().getId(), Function.identity()));
 
-        Notification notification = new Notification();
-        notification.setUser(providerUser);
-        notification.setType(Notification.NotificationType.PROVIDER_NEW_ORDER);
-        notification.setTitle("Nuevo pedido recibido");
-        notification.setMessage("Has recibido un pedido #" + orderNumber + " para: " + productName);
-        notification.setOrderId(orderId);
-        notification.setIsRead(false);
+        List<Notification> notifications = new ArrayList<>(pending.size());
+        for (ProviderNotificationCoalescer.PendingProviderNotification item : pending) {
+            User providerUser = usersByProvider.get(item.getProviderId());
+            if (providerUser == null) {
+                continue; // Proveedor eliminado mientras la notificación esperaba
+            }
 
-        notificationRepository.save(notification);
+            List<Long> orderIds = new ArrayList<>(item.getOrders().keySet());
+            Notification notification = new Notification();
+            notification.setUser(providerUser);
+            notification.setType(Notification.NotificationType.PROVIDER_NEW_ORDER);
+            notification.setTitle(orderIds.size() == 1 ? "Nuevo pedido recibido" : "Nuevos pedidos recibidos");
+            notification.setMessage(providerOrderMessage(item));
+            notification.setOrderId(orderIds.get(orderIds.size() - 1));
+            notification.setIsRead(false);
+            notifications.add(notification);
+        }
+
+        notificationRepository.saveAll(notifications).forEach(this::publish);
     }
 
-    public List<NotificationDTO> getUserNotifications(Long userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId)
-                .stream()
+    /**
+     * Feed de notificaciones del usuario, paginado por cursor (createdAt, id)
+     * descendente. Con unreadOnly solo devuelve las no leídas.
+     */
+    @Transactional(readOnly = true)
+    public NotificationPageDTO getUserNotifications(Long userId, String cursor, Integer size, boolean unreadOnly) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        LocalDateTime beforeCreatedAt = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                beforeCreatedAt = LocalDateTime.parse(cursor.substring(0, separator));
+                beforeId = Long.valueOf(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+                throw new RuntimeException("Cursor de notificaciones inválido");
+            }
+        }
+
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Notification> notifications = unreadOnly
+                ? notificationRepository.findUnreadFeed(userId, beforeCreatedAt, beforeId, page)
+                : notificationRepository.findFeed(userId, beforeCreatedAt, beforeId, page);
+        boolean hasMore = notifications.size() > pageSize;
+        if (hasMore) {
+            notifications = notifications.subList(0, pageSize);
+        }
+
+        List<NotificationDTO> dtos = notifications.stream()
                 .map(NotificationDTO::new)
                 .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            Notification last = notifications.get(notifications.size() - 1);
+            nextCursor = last.getCreatedAt() + "_" + last.getId();
+        }
+
+        return new NotificationPageDTO(dtos, nextCursor, hasMore);
     }
 
     public List<NotificationDTO> getUnreadNotifications(Long userId) {
@@ -65,14 +136,80 @@ public class NotificationService {
                 .collect(Collectors.toList());
     }
 
+    // Servido desde el contador en memoria, sin abrir transacción; solo consulta
+    // la base la primera vez
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return unreadCounterService.getUnreadCount(userId);
+    }
+
+    public void markAsRead(Long userId, Long notificationId) {
+        int updated = notificationRepository.markAsRead(userId, List.of(notificationId));
+        // Sin cambios puede ser que ya estuviera leída; solo entonces se consulta
+        if (updated == 0 && !notificationRepository.existsByIdAndUserId(notificationId, userId)) {
+            throw new RuntimeException("Notificación no encontrada");
+        }
+        applyRead(userId, updated);
+    }
+
+    /**
+     * Marcar como leídas varias notificaciones del usuario con un solo UPDATE;
+     * los IDs ajenos o ya leídos se ignoran. Devuelve cuántas cambiaron.
+     */
+    public int markAsRead(Long userId, Collection<Long> notificationIds) {
+        int updated = notificationRepository.markAsRead(userId, notificationIds);
+        applyRead(userId, updated);
+        return updated;
+    }
+
+    /**
+     * Marcar como leídas todas las notificaciones del usuario con un solo UPDATE.
+     * Devuelve cuántas cambiaron.
+     */
+    public int markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllAsRead(userId);
+        applyRead(userId, updated);
+        return updated;
+    }
+
+    // El UPDATE masivo no pasa por las entidades: el contador y el canal se
+    // ajustan con el número de filas cambiadas
+    private void applyRead(Long userId, int updated) {
+        if (updated > 0) {
+            unreadCounterService.adjust(userId, -updated);
+            notificationStreamService.publishUnreadDelta(userId, -updated);
+        }
+    }
+
+    // "Has recibido un pedido #N con 3 productos: A, B, C"; los títulos se
+    // recortan a MAX_TITLES_IN_MESSAGE
+    private String providerOrderMessage(ProviderNotificationCoalescer.PendingProviderNotification item) {
+        Collection<String> orderNumbers = item.getOrders().values();
+        List<String> titles = item.getProductTitles();
+
+        StringBuilder message = new StringBuilder("Has recibido ");
+        if (orderNumbers.size() == 1) {
+            message.append("un pedido #").append(orderNumbers.iterator().next());
+        } else {
+            message.append(orderNumbers.size()).append(" pedidos (")
+                    .append(orderNumbers.stream().map(number -> "#" + number).collect(Collectors.joining(", ")))
+                    .append(")");
+        }
+        if (orderNumbers.size() == 1 && titles.size() == 1) {
+            return message.append(" para: ").append(titles.get(0)).toString();
+        }
+
+        message.append(" con ").append(titles.size()).append(" productos: ")
+                .append(String.join(", ", titles.subList(0, Math.min(titles.size(), MAX_TITLES_IN_MESSAGE))));
+        if (titles.size() > MAX_TITLES_IN_MESSAGE) {
+            message.append(" y ").append(titles.size() - MAX_TITLES_IN_MESSAGE).append(" más");
+        }
+        return message.toString();
     }
 
-    public void markAsRead(Long notificationId) {
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new RuntimeException("Notificación no encontrada"));
-        notification.setIsRead(true);
-        notificationRepository.save(notification);
+    // Enviar la notificación recién creada por el canal de eventos del usuario
+    private void publish(Notification notification) {
+        unreadCounterService.adjust(notification.getUser().getId(), 1);
+        notificationStreamService.publishCreated(notification.getUser().getId(), new NotificationDTO(notification));
     }
 }
\ No newline at end of file
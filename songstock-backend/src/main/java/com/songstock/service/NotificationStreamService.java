@@ -0,0 +1,371 @@
+package com.songstock.service;
+
+import com.songstock.dto.NotificationDTO;
+import com.songstock.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Canal push de notificaciones con Server-Sent Events.
+ *
+ * - Registro de conexiones por usuario; un usuario puede tener varias pestañas
+ * abiertas.
+ * - Eventos: {@code notification} (id = ID de la notificación),
+ * {@code unread-count} (valor absoluto al conectar) y {@code unread-delta}
+ * (cambio del contador de no leídas).
+ * - Al reconectar con Last-Event-ID se reenvían las notificaciones posteriores.
+ * - Un heartbeat periódico mantiene viva la conexión a través de proxies y
+ * detecta los clientes desconectados.
+ *
+ * Cada conexión tiene su propia cola acotada de eventos, que vacía un pool
+ * pequeño de hilos (una sola tarea por conexión a la vez, así se conserva el
+ * orden). Un cliente lento solo retrasa su propia conexión: si su cola se llena
+ * o un envío tarda más que el límite, la conexión se cierra y el cliente
+ * recupera lo perdido al reconectar con Last-Event-ID.
+ */
+@Service
+public class NotificationStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    public static final String EVENT_NOTIFICATION = "notification";
+    public static final String EVENT_UNREAD_COUNT = "unread-count";
+    public static final String EVENT_UNREAD_DELTA = "unread-delta";
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationUnreadCounterService unreadCounterService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notifications.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${notifications.stream.max-replay:100}")
+    private int maxReplay;
+
+    @Value("${notifications.stream.sender-threads:8}")
+    private int senderThreads;
+
+    @Value("${notifications.stream.max-queued-per-connection:256}")
+    private int maxQueuedPerConnection;
+
+    @Value("${notifications.stream.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /** Conexiones abiertas por usuario */
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+
+    /** Hilos que vacían las colas de las conexiones */
+    private ExecutorService sender;
+
+    private Counter droppedConnections;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Cola sin límite propio: cada conexión tiene como máximo una tarea pendiente
+        sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "notification-stream-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        droppedConnections = meterRegistry.counter("songstock.notifications.stream.dropped_connections");
+    }
+
+    // ================= Conexiones =================
+
+    /**
+     * Abrir el canal de un usuario. Con lastEventId se reenvían primero las
+     * notificaciones creadas después de ese ID; luego se envía el contador de no
+     * leídas.
+     */
+    public SseEmitter connect(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(userId, emitter, maxQueuedPerConnection);
+        Set<Connection> userConnections = connections.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>());
+        userConnections.add(connection);
+
+        Runnable remove = () -> unregister(connection);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        // Pasan por la cola de la conexión, antes que cualquier evento posterior
+        if (lastEventId != null) {
+            notificationRepository
+                    .findByUserIdAndIdGreaterThanOrderByIdAsc(userId, lastEventId, PageRequest.of(0, maxReplay))
+                    .stream().map(NotificationDTO::new)
+                    .forEach(notification -> enqueue(connection, () -> notificationEvent(notification)));
+        }
+        long unreadCount = unreadCounterService.getUnreadCount(userId);
+        enqueue(connection, () -> SseEmitter.event().name(EVENT_UNREAD_COUNT)
+                .data(Map.of("unreadCount", unreadCount)));
+
+        logger.debug("Canal de notificaciones abierto - Usuario: {}, Conexiones: {}", userId,
+                userConnections.size());
+        return emitter;
+    }
+
+    private void unregister(Connection connection) {
+        connection.closed = true;
+        connection.outbox.clear();
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    /**
+     * Cerrar una conexión que falló o no sigue el ritmo de los eventos. Deja de
+     * recibir eventos en el acto; el emitter lo completa la tarea de envío de la
+     * conexión (send y completeWithError se excluyen entre sí, y un envío
+     * bloqueado no debe bloquear también a quien cierra).
+     */
+    private void close(Connection connection, Exception cause) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closeCause = cause;
+        unregister(connection);
+        schedule(connection);
+    }
+
+    private void complete(Connection connection) {
+        if (!connection.completed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            connection.emitter.completeWithError(connection.closeCause);
+        } catch (RuntimeException e) {
+            // La conexión ya estaba cerrada por el contenedor
+        }
+    }
+
+    // ================= Publicación =================
+
+    /**
+     * Publicar una notificación nueva y el incremento del contador de no leídas.
+     * Dentro de una transacción se publica al confirmarse.
+     */
+    public void publishCreated(Long userId, NotificationDTO notification) {
+        afterCommit(() -> {
+            dispatch(userId, () -> notificationEvent(notification));
+            if (!Boolean.TRUE.equals(notification.getIsRead())) {
+                dispatch(userId, () -> deltaEvent(1));
+            }
+        });
+    }
+
+    /**
+     * Publicar un cambio del contador de no leídas (negativo al marcar como leídas)
+     */
+    public void publishUnreadDelta(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> dispatch(userId, () -> deltaEvent(delta)));
+    }
+
+    /**
+     * Número de usuarios con al menos una conexión abierta
+     */
+    public int getConnectedUsers() {
+        return connections.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Encolar un evento en todas las conexiones del usuario. El builder de
+     * SseEmitter se modifica al construirse, así que cada conexión recibe el suyo.
+     */
+    private void dispatch(Long userId, Supplier<SseEmitter.SseEventBuilder> event) {
+        Set<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        for (Connection connection : userConnections) {
+            enqueue(connection, event);
+        }
+    }
+
+    private void enqueue(Connection connection, Supplier<SseEmitter.SseEventBuilder> event) {
+        if (connection.closed) {
+            return;
+        }
+        if (!connection.outbox.offer(event)) {
+            // Cliente que no consume: se cierra en lugar de descartar eventos
+            logger.warn("Canal de notificaciones cerrado por cola llena - Usuario: {}", connection.userId);
+            droppedConnections.increment();
+            close(connection, new IOException("Cola de eventos llena"));
+            return;
+        }
+        schedule(connection);
+    }
+
+    private void schedule(Connection connection) {
+        if (!connection.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            // Pool detenido (apagado de la aplicación)
+            connection.draining.set(false);
+        }
+    }
+
+    /**
+     * Enviar en orden los eventos pendientes de una conexión
+     */
+    private void drain(Connection connection) {
+        try {
+            Supplier<SseEmitter.SseEventBuilder> event;
+            while (!connection.closed && (event = connection.outbox.poll()) != null) {
+                connection.sendStartedAt = System.nanoTime();
+                try {
+                    connection.emitter.send(event.get());
+                } catch (IOException | IllegalStateException e) {
+                    connection.closeCause = e;
+                    unregister(connection);
+                } finally {
+                    connection.sendStartedAt = 0L;
+                }
+            }
+        } finally {
+            connection.draining.set(false);
+        }
+        if (connection.closed) {
+            if (connection.closeCause != null) {
+                complete(connection);
+            }
+        } else if (!connection.outbox.isEmpty()) {
+            // Un evento encolado mientras se liberaba la tarea
+            schedule(connection);
+        }
+    }
+
+    private SseEmitter.SseEventBuilder notificationEvent(NotificationDTO notification) {
+        return SseEmitter.event().id(String.valueOf(notification.getId())).name(EVENT_NOTIFICATION)
+                .data(notification);
+    }
+
+    private SseEmitter.SseEventBuilder deltaEvent(long delta) {
+        return SseEmitter.event().name(EVENT_UNREAD_DELTA).data(Map.of("delta", delta));
+    }
+
+    // ================= Heartbeat =================
+
+    /**
+     * Enviar un comentario a todas las conexiones para mantenerlas abiertas y
+     * descartar las de clientes que ya se desconectaron
+     */
+    @Scheduled(fixedDelayString = "${notifications.stream.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> {
+            // Con eventos pendientes la conexión ya tiene tráfico
+            if (connection.outbox.isEmpty()) {
+                enqueue(connection, () -> SseEmitter.event().comment("ping"));
+            }
+        }));
+    }
+
+    /**
+     * Cerrar las conexiones con un envío bloqueado más allá del límite (cliente
+     * que no lee y con el buffer TCP lleno): dejan de acumular eventos y se
+     * completan cuando el envío en curso termina (a más tardar, al vencer el
+     * timeout de escritura del contenedor). Mientras tanto ocupan un solo hilo
+     * de envío; el resto de conexiones sigue en los demás.
+     */
+    @Scheduled(fixedDelayString = "${notifications.stream.send-timeout-ms:10000}")
+    public void closeStalledConnections() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> {
+            long startedAt = connection.sendStartedAt;
+            if (startedAt != 0L && now - startedAt > timeoutNanos) {
+                logger.warn("Canal de notificaciones cerrado por envío bloqueado - Usuario: {}", connection.userId);
+                droppedConnections.increment();
+                close(connection, new IOException("Envío bloqueado más de " + sendTimeoutMs + " ms"));
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> {
+            connection.closed = true;
+            connection.emitter.complete();
+        }));
+        connections.clear();
+    }
+
+    /**
+     * Conexión SSE abierta con su cola de eventos pendientes
+     */
+    private static final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> outbox;
+        /** Hay una tarea del pool enviando (o por enviar) esta cola */
+        private final AtomicBoolean draining = new AtomicBoolean();
+        /** Inicio (nanoTime) del envío en curso; 0 si no hay ninguno */
+        private volatile long sendStartedAt;
+        private volatile boolean closed;
+        /** Motivo del cierre; null si lo cerró el contenedor (ya completado) */
+        private volatile Exception closeCause;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Connection(Long userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.outbox = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.songstock.service;
+
+import com.songstock.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores en memoria de notificaciones no leídas por usuario.
+ *
+ * - Se cargan desde la base de datos la primera vez que se piden.
+ * - {@link NotificationService} los ajusta de forma atómica al confirmarse la
+ * creación de una notificación o su marcado como leída.
+ * - Un barrido periódico los reconcilia en lotes con la base de datos y libera
+ * los de usuarios que no los consultan hace tiempo.
+ */
+@Service
+public class NotificationUnreadCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationUnreadCounterService.class);
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${notifications.unread.idle-eviction-ms:3600000}")
+    private long idleEvictionMs;
+
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Número de notificaciones no leídas del usuario; solo consulta la base de
+     * datos si el contador todavía no está cargado
+     */
+    public long getUnreadCount(Long userId) {
+        Counter counter = counters.get(userId);
+        if (counter == null) {
+            Counter loaded = new Counter(notificationRepository.countByUserIdAndIsReadFalse(userId));
+            Counter existing = counters.putIfAbsent(userId, loaded);
+            counter = existing != null ? existing : loaded;
+        }
+        counter.lastAccessNanos = System.nanoTime();
+        return Math.max(0L, counter.value.get());
+    }
+
+    /**
+     * Ajustar el contador del usuario. Dentro de una transacción se aplica al
+     * confirmarse; si el contador no está cargado se leerá actualizado después.
+     */
+    public void adjust(Long userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        Runnable apply = () -> {
+            Counter counter = counters.get(userId);
+            if (counter != null) {
+                counter.value.addAndGet(delta);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Liberar los contadores inactivos y reconciliar el resto con la base de datos
+     */
+    @Scheduled(fixedDelayString = "${notifications.unread.reconcile-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        long idleLimit = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleEvictionMs);
+        counters.entrySet().removeIf(entry -> entry.getValue().lastAccessNanos < idleLimit);
+
+        List<Long> userIds = new ArrayList<>(counters.keySet());
+        int corrected = 0;
+        for (int start = 0; start < userIds.size(); start += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(start, Math.min(start + RECONCILE_BATCH_SIZE, userIds.size()));
+
+            Map<Long, Long> actual = new HashMap<>();
+            for (Object[] row : notificationRepository.countUnreadByUserIds(batch)) {
+                actual.put((Long) row[0], (Long) row[1]);
+            }
+            for (Long userId : batch) {
+                Counter counter = counters.get(userId);
+                long value = actual.getOrDefault(userId, 0L);
+                if (counter != null && counter.value.getAndSet(value) != value) {
+                    corrected++;
+                }
+            }
+        }
+
+        if (corrected > 0) {
+            logger.info("Contadores de no leídas corregidos: {} de {}", corrected, userIds.size());
+        }
+    }
+
+    /**
+     * Contador de un usuario y el momento de su última lectura
+     */
+    private static final class Counter {
+        private final AtomicLong value;
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private Counter(long value) {
+            this.value = new AtomicLong(value);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.songstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Servicio de exportación del historial de órdenes.
+ *
+ * - Recorre los items con un cursor JDBC de solo avance, sin cargar entidades ni
+ * DTOs, así que la memoria usada no depende del número de filas.
+ * - Escribe cada fila directamente en la salida (CSV o NDJSON), opcionalmente
+ * comprimida con gzip.
+ *
+ * Se exporta una fila por item de orden, con los datos de la orden repetidos.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportService.class);
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final String[] COLUMNS = {
+            "order_number", "order_id", "order_created_at", "order_status", "payment_method", "customer_username",
+            "shipping_city", "shipping_country", "item_id", "provider_id", "provider_name", "product_id", "sku",
+            "album_title", "quantity", "unit_price", "subtotal", "item_status", "shipped_at"
+    };
+
+    private static final String EXPORT_SQL = "SELECT o.order_number, o.id, o.created_at, o.status, o.payment_method, "
+            + "u.username, o.shipping_city, o.shipping_country, oi.id, oi.provider_id, pr.business_name, "
+            + "oi.product_id, p.sku, a.title, oi.quantity, oi.unit_price, oi.subtotal, oi.status, oi.shipped_at "
+            + "FROM order_items oi "
+            + "JOIN orders o ON o.id = oi.order_id "
+            + "JOIN users u ON u.id = o.user_id "
+            + "JOIN providers pr ON pr.id = oi.provider_id "
+            + "JOIN products p ON p.id = oi.product_id "
+            + "JOIN albums a ON a.id = p.album_id "
+            + "WHERE 1 = 1";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${orders.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Exportar los items de orden en la salida. Sin proveedor se exportan los de
+     * todos los proveedores; las fechas filtran por la creación de la orden.
+     */
+    public void export(Long providerId, LocalDate from, LocalDate to, Format format, boolean gzip,
+            OutputStream output) throws IOException {
+        StringBuilder sql = new StringBuilder(EXPORT_SQL);
+        List<Object> params = new ArrayList<>();
+        if (providerId != null) {
+            sql.append(" AND oi.provider_id = ?");
+            params.add(providerId);
+        }
+        if (from != null) {
+            sql.append(" AND o.created_at >= ?");
+            params.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND o.created_at < ?");
+            params.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        sql.append(" ORDER BY oi.order_id, oi.id");
+
+        GZIPOutputStream gzipOutput = gzip ? new GZIPOutputStream(output, WRITE_BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzipOutput != null ? gzipOutput : output, StandardCharsets.UTF_8),
+                WRITE_BUFFER_SIZE);
+
+        if (format == Format.CSV) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        long startTime = System.currentTimeMillis();
+        long[] rows = { 0 };
+        try {
+            jdbcTemplate.query(streamingStatement(sql.toString(), params), resultSet -> {
+                try {
+                    writeRow(writer, resultSet, format);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            // El cliente cerró la conexión a mitad de la exportación
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gzipOutput != null) {
+            gzipOutput.finish();
+        }
+        output.flush();
+
+        logger.info("Exportación de órdenes - Proveedor: {}, Formato: {}, Filas: {}, Tiempo: {} ms",
+                providerId != null ? providerId : "todos", format, rows[0], System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Sentencia de solo avance y solo lectura. Con MySQL el driver solo transmite
+     * fila a fila con fetch size Integer.MIN_VALUE; con otros motores se usa el
+     * fetch size configurado.
+     */
+    private PreparedStatementCreator streamingStatement(String sql, List<Object> params) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        };
+    }
+
+    private void writeRow(Writer writer, ResultSet resultSet, Format format) throws SQLException, IOException {
+        if (format == Format.CSV) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(value(resultSet, i + 1)));
+            }
+        } else {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                row.put(COLUMNS[i], value(resultSet, i + 1));
+            }
+            writer.write(objectMapper.writeValueAsString(row));
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Valor de una columna listo para serializar (las fechas en formato ISO)
+     */
+    private Object value(ResultSet resultSet, int column) throws SQLException {
+        Object value = resultSet.getObject(column);
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toString();
+        }
+        return value;
+    }
+
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString()
+                : value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -9,12 +9,23 @@ import com.songstock.dto.OrderReviewDTO;
 import com.songstock.exception.ResourceNotFoundException;
 import com.songstock.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import com.songstock.exception.BusinessException;
 import java.time.format.DateTimeFormatter;
@@ -39,6 +50,29 @@ public class OrderService {
     private UserRepository userRepository;
     @Autowired
     private ProviderRepository providerRepository;
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private ProviderNotificationCoalescer providerNotificationCoalescer;
+
+    private static final int INBOX_DEFAULT_PAGE_SIZE = 20;
+    private static final int INBOX_MAX_PAGE_SIZE = 100;
+
+    /** IDs por sentencia en los cambios de estado masivos de items */
+    private static final int ITEM_BATCH_CHUNK_SIZE = 1000;
+
+    /** Estados de origen permitidos para cada estado destino de un item */
+    private static final Map<OrderItemStatus, Set<OrderItemStatus>> ITEM_TRANSITIONS = new EnumMap<>(
+            OrderItemStatus.class);
+
+    static {
+        ITEM_TRANSITIONS.put(OrderItemStatus.ACCEPTED, EnumSet.of(OrderItemStatus.PENDING));
+        ITEM_TRANSITIONS.put(OrderItemStatus.REJECTED, EnumSet.of(OrderItemStatus.PENDING, OrderItemStatus.ACCEPTED));
+        ITEM_TRANSITIONS.put(OrderItemStatus.PROCESSING, EnumSet.of(OrderItemStatus.ACCEPTED));
+        ITEM_TRANSITIONS.put(OrderItemStatus.SHIPPED,
+                EnumSet.of(OrderItemStatus.ACCEPTED, OrderItemStatus.PROCESSING));
+        ITEM_TRANSITIONS.put(OrderItemStatus.DELIVERED, EnumSet.of(OrderItemStatus.SHIPPED));
+    }
 
     public OrderDTO createOrder(Long userId, CreateOrderDTO createDTO) {
         User user = userRepository.findById(userId)
@@ -56,6 +90,7 @@ public class OrderService {
         order.setStatus(OrderStatus.PENDING);
 
         BigDecimal total = BigDecimal.ZERO;
+        Map<Long, List<String>> productTitlesByProvider = new LinkedHashMap<>();
         for (CreateOrderDTO.OrderItemRequestDTO itemDTO : createDTO.getItems()) {
             Product product = productRepository.findById(itemDTO.getProductId())
                     .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
@@ -74,25 +109,31 @@ public class OrderService {
             order.getItems().add(item);
             total = total.add(item.getSubtotal());
 
-            // Notificar al proveedor del producto
-            notificationService.createProviderOrderNotification(provider.getId(), order.getId(), order.getOrderNumber(),
-                    product.getAlbum().getTitle());
+            productTitlesByProvider.computeIfAbsent(provider.getId(), id -> new ArrayList<>())
+                    .add(product.getAlbum().getTitle());
         }
 
         order.setTotal(total);
         Order savedOrder = orderRepository.save(order);
 
+        // Una notificación por proveedor con todos sus productos de la orden
+        productTitlesByProvider.forEach((providerId, titles) -> providerNotificationCoalescer.enqueue(providerId,
+                savedOrder.getId(), savedOrder.getOrderNumber(), titles));
+
         // Crear notificación
         notificationService.createOrderNotification(userId, savedOrder.getId(), savedOrder.getOrderNumber());
 
+        salesRollupService.recordNewOrder(savedOrder.getId());
+
         return mapToDTO(savedOrder);
     }
 
     /**
      * Obtener órdenes con items pendientes de un proveedor
      */
+    @Transactional(readOnly = true)
     public List<OrderDTO> getProviderPendingOrders(Long providerId) {
-        List<Order> orders = orderRepository.findOrdersWithPendingItemsByProviderId(providerId);
+        List<Order> orders = orderRepository.findWithDetailsWithPendingItemsByProviderId(providerId);
         return orders.stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
@@ -116,26 +157,87 @@ public class OrderService {
         OrderItem item = orderItemRepository.findById(itemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Item no encontrado"));
 
+        SalesRollupService.ContributionSnapshot sales = salesRollupService
+                .snapshot(List.of(item.getOrder().getId()));
+
         item.setStatus(OrderItemStatus.REJECTED);
         item.setRejectionReason(reason);
         orderItemRepository.save(item);
+
+        // El item rechazado deja de contar en el rollup de ventas
+        salesRollupService.applyChangesSince(sales);
     }
 
     /**
      * Obtener todas las órdenes de un proveedor
      */
+    @Transactional(readOnly = true)
     public List<OrderDTO> getProviderOrders(Long providerId) {
-        List<Order> orders = orderRepository.findOrdersByProviderId(providerId);
+        List<Order> orders = orderRepository.findWithDetailsByProviderId(providerId);
         return orders.stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtener una página de la bandeja de órdenes de un proveedor.
+     * Paginación por cursor (createdAt, id): la primera página se pide sin cursor
+     * y las siguientes con el cursor devuelto en la página anterior.
+     */
+    @Transactional(readOnly = true)
+    public ProviderOrderInboxDTO getProviderOrderInbox(Long providerId, OrderItemStatus status,
+            LocalDateTime cursorCreatedAt, Long cursorId, Integer size) {
+        if ((cursorCreatedAt == null) != (cursorId == null)) {
+            throw new BusinessException("El cursor requiere cursorCreatedAt y cursorId");
+        }
+        int pageSize = size == null || size <= 0 ? INBOX_DEFAULT_PAGE_SIZE : Math.min(size, INBOX_MAX_PAGE_SIZE);
+
+        // Se pide un elemento extra para saber si hay más páginas
+        List<Long> ids = orderRepository.findProviderInboxPage(providerId, status, cursorCreatedAt, cursorId,
+                PageRequest.of(0, pageSize + 1));
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+        if (ids.isEmpty()) {
+            return new ProviderOrderInboxDTO(List.of(), null, null, false);
+        }
+
+        List<Order> orders = orderRepository.findWithDetailsByIdIn(ids);
+        Order last = orders.get(orders.size() - 1);
+        List<OrderDTO> dtos = orders.stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+
+        return hasMore
+                ? new ProviderOrderInboxDTO(dtos, last.getCreatedAt(), last.getId(), true)
+                : new ProviderOrderInboxDTO(dtos, null, null, false);
+    }
+
+    /**
+     * Obtener el conteo de órdenes por estado de item de un proveedor
+     * (pestañas del dashboard)
+     */
+    @Transactional(readOnly = true)
+    public ProviderOrderSummaryDTO getProviderOrderSummary(Long providerId) {
+        Map<OrderItemStatus, Long> counts = new EnumMap<>(OrderItemStatus.class);
+        for (OrderItemStatus status : OrderItemStatus.values()) {
+            counts.put(status, 0L);
+        }
+        for (Object[] row : orderItemRepository.countOrdersByStatusForProvider(providerId)) {
+            if (row[0] != null) {
+                counts.put((OrderItemStatus) row[0], (Long) row[1]);
+            }
+        }
+        return new ProviderOrderSummaryDTO(counts, orderRepository.countOrdersByProviderId(providerId));
+    }
+
     /**
      * Obtener órdenes de un usuario
      */
+    @Transactional(readOnly = true)
     public List<OrderDTO> getUserOrders(Long userId) {
-        return orderRepository.findByUserIdOrderByCreatedAtDesc(userId)
+        return orderRepository.findWithDetailsByUserId(userId)
                 .stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
@@ -157,6 +259,12 @@ public class OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Orden no encontrada"));
 
+        // Cancelar o rechazar la orden (o revertirlo) cambia su aporte al rollup de ventas
+        boolean affectsSales = isCountedAsSale(order.getStatus()) != isCountedAsSale(newStatus);
+        SalesRollupService.ContributionSnapshot sales = affectsSales
+                ? salesRollupService.snapshot(List.of(orderId))
+                : null;
+
         order.setStatus(newStatus);
         if (newStatus == OrderStatus.REJECTED && rejectionReason != null) {
             order.setRejectionReason(rejectionReason);
@@ -168,7 +276,13 @@ public class OrderService {
             order.setDeliveredAt(LocalDateTime.now());
         }
 
-        return mapToDTO(orderRepository.save(order));
+        Order savedOrder = orderRepository.save(order);
+        salesRollupService.applyChangesSince(sales);
+        return mapToDTO(savedOrder);
+    }
+
+    private boolean isCountedAsSale(OrderStatus status) {
+        return status != OrderStatus.CANCELLED && status != OrderStatus.REJECTED;
     }
 
     /**
@@ -278,6 +392,147 @@ public class OrderService {
         }
     }
 
+    /**
+     * Cambiar de estado varios items de un proveedor en una sola operación.
+     * Valida propiedad y transición de todos los items con una consulta por lote,
+     * aplica el cambio con un UPDATE por lote y recalcula el estado de cada orden
+     * afectada una sola vez al final.
+     */
+    @Transactional
+    public OrderItemBatchResultDTO transitionOrderItems(Long providerId, OrderItemBatchTransitionDTO dto) {
+        OrderItemStatus target = dto.getTargetStatus();
+        Set<OrderItemStatus> fromStatuses = ITEM_TRANSITIONS.get(target);
+        if (fromStatuses == null) {
+            throw new BusinessException("No se pueden pasar items al estado " + target);
+        }
+
+        String reason = null;
+        if (target == OrderItemStatus.REJECTED) {
+            if (dto.getReason() == null || dto.getReason().isBlank()) {
+                throw new BusinessException("La razón es obligatoria para rechazar items");
+            }
+            reason = dto.getReason();
+        }
+        LocalDateTime shippedAt = null;
+        if (target == OrderItemStatus.SHIPPED) {
+            shippedAt = dto.getShippedAt() != null ? dto.getShippedAt() : LocalDateTime.now();
+        }
+
+        List<Long> itemIds = dto.getItemIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        OrderItemBatchResultDTO result = new OrderItemBatchResultDTO(target);
+        Set<Long> affectedOrderIds = new LinkedHashSet<>();
+
+        for (int from = 0; from < itemIds.size(); from += ITEM_BATCH_CHUNK_SIZE) {
+            List<Long> chunk = itemIds.subList(from, Math.min(from + ITEM_BATCH_CHUNK_SIZE, itemIds.size()));
+
+            Map<Long, Object[]> rowsById = new HashMap<>();
+            for (Object[] row : orderItemRepository.findStatusByProviderIdAndIdIn(providerId, chunk)) {
+                rowsById.put((Long) row[0], row);
+            }
+
+            List<Long> validIds = new ArrayList<>(chunk.size());
+            Set<Long> chunkOrderIds = new LinkedHashSet<>();
+            for (Long itemId : chunk) {
+                Object[] row = rowsById.get(itemId);
+                if (row == null) {
+                    result.getFailures().put(itemId, "Item no encontrado");
+                } else if (!fromStatuses.contains((OrderItemStatus) row[1])) {
+                    result.getFailures().put(itemId, "No se puede pasar de " + row[1] + " a " + target);
+                } else {
+                    validIds.add(itemId);
+                    chunkOrderIds.add((Long) row[2]);
+                }
+            }
+
+            if (validIds.isEmpty()) {
+                continue;
+            }
+            affectedOrderIds.addAll(chunkOrderIds);
+
+            // Solo el rechazo cambia el aporte de los items al rollup de ventas
+            SalesRollupService.ContributionSnapshot sales = target == OrderItemStatus.REJECTED
+                    ? salesRollupService.snapshot(chunkOrderIds)
+                    : null;
+
+            int updated;
+            if (target == OrderItemStatus.SHIPPED) {
+                updated = orderItemRepository.markShipped(providerId, validIds, fromStatuses, shippedAt);
+            } else if (target == OrderItemStatus.REJECTED) {
+                updated = orderItemRepository.markRejected(providerId, validIds, fromStatuses, reason);
+            } else {
+                updated = orderItemRepository.transitionStatus(providerId, validIds, fromStatuses, target);
+            }
+            if (updated != validIds.size()) {
+                throw new BusinessException(
+                        "Algunos items cambiaron de estado durante la operación, intenta de nuevo");
+            }
+            salesRollupService.applyChangesSince(sales);
+            result.getUpdatedItemIds().addAll(validIds);
+        }
+
+        result.setUpdatedOrderIds(rollUpOrderStatuses(affectedOrderIds));
+        return result;
+    }
+
+    /**
+     * Recalcular el estado general de un conjunto de órdenes a partir del conteo
+     * de sus items por estado. Devuelve los IDs de las órdenes que cambiaron.
+     */
+    private List<Long> rollUpOrderStatuses(Collection<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(orderIds);
+        List<Long> changedOrderIds = new ArrayList<>();
+
+        for (int from = 0; from < ids.size(); from += ITEM_BATCH_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ITEM_BATCH_CHUNK_SIZE, ids.size()));
+
+            // Solo interesan las órdenes cuyos items están todos en un mismo estado
+            Map<Long, OrderItemStatus> uniformStatus = new HashMap<>();
+            Map<Long, LocalDateTime> lastShippedAt = new HashMap<>();
+            Set<Long> mixed = new LinkedHashSet<>();
+            for (Object[] row : orderItemRepository.summarizeStatusByOrderIdIn(chunk)) {
+                Long orderId = (Long) row[0];
+                if (uniformStatus.putIfAbsent(orderId, (OrderItemStatus) row[1]) != null) {
+                    mixed.add(orderId);
+                }
+                if (row[3] != null) {
+                    lastShippedAt.merge(orderId, (LocalDateTime) row[3],
+                            (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+            uniformStatus.keySet().removeAll(mixed);
+            uniformStatus.values().removeIf(status -> status != OrderItemStatus.SHIPPED
+                    && status != OrderItemStatus.DELIVERED);
+            if (uniformStatus.isEmpty()) {
+                continue;
+            }
+
+            List<Order> changed = new ArrayList<>();
+            for (Order order : orderRepository.findAllById(uniformStatus.keySet())) {
+                OrderItemStatus itemStatus = uniformStatus.get(order.getId());
+                if (itemStatus == OrderItemStatus.SHIPPED && order.getStatus() != OrderStatus.SHIPPED
+                        && order.getStatus() != OrderStatus.DELIVERED && order.getStatus() != OrderStatus.RECEIVED) {
+                    order.setStatus(OrderStatus.SHIPPED);
+                    order.setShippedAt(lastShippedAt.getOrDefault(order.getId(), LocalDateTime.now()));
+                    changed.add(order);
+                } else if (itemStatus == OrderItemStatus.DELIVERED && order.getStatus() != OrderStatus.DELIVERED
+                        && order.getStatus() != OrderStatus.RECEIVED) {
+                    order.setStatus(OrderStatus.DELIVERED);
+                    order.setDeliveredAt(LocalDateTime.now());
+                    changed.add(order);
+                }
+            }
+
+            orderRepository.saveAll(changed);
+            changed.forEach(order -> changedOrderIds.add(order.getId()));
+        }
+
+        return changedOrderIds;
+    }
+
     @Transactional
     public void confirmOrderReceived(Long orderId, Long userId) {
         Order order = orderRepository.findById(orderId)
@@ -46,6 +46,7 @@ import java.util.Comparator;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.Objects;
 
 @Service
 @Transactional
@@ -53,6 +54,12 @@ public class ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
+    /** IDs por sentencia en las actualizaciones masivas set-based */
+    private static final int BULK_UPDATE_CHUNK_SIZE = 1000;
+
+    /** Máximo de productos por actualización masiva de precios */
+    private static final int MAX_BULK_PRICE_PRODUCTS = 50000;
+
     @Autowired
     private ProductRepository productRepository;
 
@@ -68,6 +75,9 @@ public class ProductService {
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
     /**
      * Crear un nuevo producto
      */
@@ -98,6 +108,7 @@ public class ProductService {
 
         Product product = productMapper.toEntity(productDTO, album, provider, category);
         Product savedProduct = productRepository.save(product);
+        inventoryLedgerService.record(savedProduct, InventoryMovementType.INITIAL_STOCK, null, null);
 
         logger.info("Producto creado exitosamente con ID: {}", savedProduct.getId());
         return productMapper.toDTO(savedProduct);
@@ -302,8 +313,10 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + id));
 
+        Integer previousStock = product.getStockQuantity();
         product.setStockQuantity(newStock);
         Product updatedProduct = productRepository.save(product);
+        inventoryLedgerService.record(updatedProduct, InventoryMovementType.MANUAL_SET, previousStock, null);
 
         logger.info("Stock actualizado exitosamente para producto ID: {}", id);
         return productMapper.toDTO(updatedProduct);
@@ -483,6 +496,48 @@ public class ProductService {
         return stats;
     }
 
+    // Métricas agregadas del catálogo de un proveedor
+    private static final class ProviderProductStats {
+        private final String businessName;
+        private final int totalProducts;
+        private final int activeProducts;
+        private final int featuredProducts;
+        private final int productsInStock;
+        private final int physicalProducts;
+        private final int digitalProducts;
+        private final int newProducts;
+        private final BigDecimal totalPrice;
+        private final BigDecimal totalCatalogValue;
+        private final int activeUnitsInStock;
+        private final int activeProductsInStock;
+
+        private ProviderProductStats(Object[] row) {
+            this.businessName = (String) row[0];
+            this.totalProducts = intValue(row[1]);
+            this.activeProducts = intValue(row[2]);
+            this.featuredProducts = intValue(row[3]);
+            this.productsInStock = intValue(row[4]);
+            this.physicalProducts = intValue(row[5]);
+            this.digitalProducts = intValue(row[6]);
+            this.newProducts = intValue(row[7]);
+            this.totalPrice = row[8] != null ? (BigDecimal) row[8] : BigDecimal.ZERO;
+            this.totalCatalogValue = row[9] != null ? (BigDecimal) row[9] : BigDecimal.ZERO;
+            this.activeUnitsInStock = intValue(row[10]);
+            this.activeProductsInStock = intValue(row[11]);
+        }
+
+        private BigDecimal averagePrice() {
+            if (totalProducts == 0) {
+                return BigDecimal.ZERO;
+            }
+            return totalPrice.divide(BigDecimal.valueOf(totalProducts), 2, RoundingMode.HALF_UP);
+        }
+
+        private static int intValue(Object value) {
+            return value != null ? ((Number) value).intValue() : 0;
+        }
+    }
+
     // DTO interno para estadísticas
     public static class ProductStatisticsDTO {
         private Long totalProducts;
@@ -569,8 +624,10 @@ public class ProductService {
         product.setStockQuantity(updateDTO.getStockQuantity());
         product.setUpdatedAt(LocalDateTime.now());
 
-        // Guardar el producto
+        // Guardar el producto y registrar el movimiento en el ledger
         Product savedProduct = productRepository.save(product);
+        inventoryLedgerService.record(savedProduct, InventoryMovementType.MANUAL_SET, previousStock,
+                updateDTO.getUpdateReason());
 
         logger.info("Stock actualizado - Producto: {}, Stock anterior: {}, Stock nuevo: {}, Proveedor: {}, Razón: {}",
                 productId, previousStock, updateDTO.getStockQuantity(), providerId, updateDTO.getUpdateReason());
@@ -622,8 +679,10 @@ public class ProductService {
         product.setStockQuantity(newStock);
         product.setUpdatedAt(LocalDateTime.now());
 
-        // Guardar el producto
+        // Guardar el producto y registrar el movimiento en el ledger
         Product savedProduct = productRepository.save(product);
+        inventoryLedgerService.record(savedProduct, InventoryMovementType.ADJUSTMENT, currentStock,
+                adjustmentDTO.getReason());
 
         // Log del cambio
         logger.info(
@@ -656,39 +715,26 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public ProviderInventorySummaryDTO getProviderInventorySummary(Long providerId) {
-        // Validar que el proveedor existe
-        Provider provider = providerRepository.findById(providerId)
-                .orElseThrow(() -> new RuntimeException("Proveedor no encontrado con ID: " + providerId));
-
-        // Obtener todos los productos del proveedor
-        List<Product> providerProducts = productRepository.findByProviderIdAndIsActiveTrue(providerId);
+        ProviderProductStats stats = loadProviderProductStats(providerId);
 
-        // Mapear a DTOs de respuesta
-        List<ProductInventoryResponseDTO> productInventoryList = providerProducts.stream()
-                .map(this::mapToInventoryResponseDTO)
-                .collect(Collectors.toList());
-
-        // Calcular estadísticas
-        Integer totalProducts = providerProducts.size();
-        Integer totalUnitsInStock = providerProducts.stream()
-                .mapToInt(Product::getStockQuantity)
-                .sum();
-        Integer productsWithStock = (int) providerProducts.stream()
-                .filter(p -> p.getStockQuantity() > 0)
-                .count();
-        Integer productsOutOfStock = totalProducts - productsWithStock;
-
-        // Crear el DTO de resumen
-        ProviderInventorySummaryDTO summary = new ProviderInventorySummaryDTO(
+        // La lista de productos se obtiene paginada con getProviderInventoryProducts
+        return new ProviderInventorySummaryDTO(
                 providerId,
-                provider.getBusinessName(),
-                totalProducts,
-                totalUnitsInStock,
-                productsWithStock,
-                productsOutOfStock,
-                productInventoryList);
+                stats.businessName,
+                stats.activeProducts,
+                stats.activeUnitsInStock,
+                stats.activeProductsInStock,
+                stats.activeProducts - stats.activeProductsInStock,
+                null);
+    }
 
-        return summary;
+    /**
+     * Obtener el inventario activo del proveedor paginado
+     */
+    @Transactional(readOnly = true)
+    public Page<ProductInventoryResponseDTO> getProviderInventoryProducts(Long providerId, Pageable pageable) {
+        return productRepository.findInventoryViewByProviderId(providerId, pageable)
+                .map(this::mapToInventoryResponseDTO);
     }
 
     /**
@@ -791,6 +837,7 @@ public class ProductService {
 
         // Guardar el producto
         Product savedProduct = productRepository.save(product);
+        inventoryLedgerService.record(savedProduct, InventoryMovementType.INITIAL_STOCK, null, null);
 
         logger.info("Producto creado en catálogo - ID: {}, SKU: {}, Proveedor: {}",
                 savedProduct.getId(), savedProduct.getSku(), providerId);
@@ -852,6 +899,7 @@ public class ProductService {
             product.setPrice(updateDTO.getPrice());
         }
 
+        Integer previousStock = product.getStockQuantity();
         if (updateDTO.getStockQuantity() != null) {
             product.setStockQuantity(updateDTO.getStockQuantity());
         }
@@ -889,6 +937,8 @@ public class ProductService {
 
         // Guardar cambios
         Product savedProduct = productRepository.save(product);
+        inventoryLedgerService.record(savedProduct, InventoryMovementType.MANUAL_SET, previousStock,
+                updateDTO.getUpdateReason());
 
         logger.info("Producto actualizado - ID: {}, Proveedor: {}, Razón: {}",
                 productId, providerId, updateDTO.getUpdateReason());
@@ -901,54 +951,27 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public ProviderCatalogSummaryDTO getProviderCatalog(Long providerId) {
-        // Validar que el proveedor existe
-        Provider provider = providerRepository.findById(providerId)
-                .orElseThrow(() -> new RuntimeException("Proveedor no encontrado con ID: " + providerId));
-
-        // Obtener todos los productos del proveedor
-        List<Product> allProducts = productRepository.findByProviderId(providerId);
+        ProviderProductStats stats = loadProviderProductStats(providerId);
 
-        // Calcular estadísticas
-        ProviderCatalogSummaryDTO summary = new ProviderCatalogSummaryDTO(providerId, provider.getBusinessName());
+        ProviderCatalogSummaryDTO summary = new ProviderCatalogSummaryDTO(providerId, stats.businessName);
 
-        summary.setTotalProducts(allProducts.size());
-        summary.setActiveProducts((int) allProducts.stream().filter(Product::getIsActive).count());
-        summary.setInactiveProducts(summary.getTotalProducts() - summary.getActiveProducts());
-        summary.setFeaturedProducts((int) allProducts.stream().filter(Product::getFeatured).count());
-        summary.setProductsInStock((int) allProducts.stream().filter(p -> p.getStockQuantity() > 0).count());
-        summary.setProductsOutOfStock(summary.getTotalProducts() - summary.getProductsInStock());
+        summary.setTotalProducts(stats.totalProducts);
+        summary.setActiveProducts(stats.activeProducts);
+        summary.setInactiveProducts(stats.totalProducts - stats.activeProducts);
+        summary.setFeaturedProducts(stats.featuredProducts);
+        summary.setProductsInStock(stats.productsInStock);
+        summary.setProductsOutOfStock(stats.totalProducts - stats.productsInStock);
 
-        summary.setPhysicalProducts((int) allProducts.stream()
-                .filter(p -> p.getProductType() == ProductType.PHYSICAL).count());
-        summary.setDigitalProducts((int) allProducts.stream()
-                .filter(p -> p.getProductType() == ProductType.DIGITAL).count());
+        summary.setPhysicalProducts(stats.physicalProducts);
+        summary.setDigitalProducts(stats.digitalProducts);
 
-        summary.setNewProducts((int) allProducts.stream()
-                .filter(p -> p.getConditionType() == ConditionType.NEW).count());
-        summary.setUsedProducts(summary.getTotalProducts() - summary.getNewProducts());
+        summary.setNewProducts(stats.newProducts);
+        summary.setUsedProducts(stats.totalProducts - stats.newProducts);
 
-        // Calcular precio promedio
-        BigDecimal averagePrice = BigDecimal.ZERO;
-        if (!allProducts.isEmpty()) {
-            BigDecimal totalPrice = allProducts.stream()
-                    .map(Product::getPrice)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            averagePrice = totalPrice.divide(BigDecimal.valueOf(allProducts.size()), 2, RoundingMode.HALF_UP);
-        }
-        summary.setAveragePrice(averagePrice);
-
-        // Calcular valor total del catálogo
-        BigDecimal totalValue = allProducts.stream()
-                .map(p -> p.getPrice().multiply(BigDecimal.valueOf(p.getStockQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        summary.setTotalCatalogValue(totalValue);
-
-        // Mapear productos a DTOs
-        List<ProductCatalogResponseDTO> productDTOs = allProducts.stream()
-                .map(this::mapToCatalogResponseDTO)
-                .collect(Collectors.toList());
-        summary.setProducts(productDTOs);
+        summary.setAveragePrice(stats.averagePrice());
+        summary.setTotalCatalogValue(stats.totalCatalogValue);
 
+        // La lista de productos se obtiene paginada en /catalog/my-products
         return summary;
     }
 
@@ -1484,8 +1507,7 @@ public class ProductService {
             if (activeOnly != null && activeOnly) {
                 productsPage = productRepository.findByProviderIdAndIsActiveTrue(providerId, pageable);
             } else {
-                productsPage = productRepository.findByProviderIdAndIsActiveTrue(providerId, pageable);
-
+                productsPage = productRepository.findByProviderId(providerId, pageable);
             }
         }
 
@@ -1500,53 +1522,30 @@ public class ProductService {
     public QuickMetricsDTO getProviderQuickStats(Long providerId) {
         logger.info("Obteniendo estadísticas rápidas para proveedor ID: {}", providerId);
 
-        // Validar que el proveedor existe
-        if (!providerRepository.existsById(providerId)) {
-            throw new RuntimeException("Proveedor no encontrado con ID: " + providerId);
-        }
-
-        // Obtener todos los productos del proveedor
-        List<Product> allProducts = productRepository.findByProviderId(providerId);
-
-        if (allProducts.isEmpty()) {
-            return new QuickMetricsDTO(0, 0, 0, 0, 0, 0,
-                    BigDecimal.ZERO, BigDecimal.ZERO, 0, 0);
-        }
-
-        // Calcular métricas
-        Integer totalProducts = allProducts.size();
-        Integer activeProducts = (int) allProducts.stream().filter(Product::getIsActive).count();
-        Integer inactiveProducts = totalProducts - activeProducts;
-        Integer productsInStock = (int) allProducts.stream().filter(p -> p.getStockQuantity() > 0).count();
-        Integer productsOutOfStock = totalProducts - productsInStock;
-        Integer featuredProducts = (int) allProducts.stream().filter(Product::getFeatured).count();
-
-        Integer physicalProducts = (int) allProducts.stream()
-                .filter(p -> p.getProductType() == ProductType.PHYSICAL).count();
-        Integer digitalProducts = (int) allProducts.stream()
-                .filter(p -> p.getProductType() == ProductType.DIGITAL).count();
+        ProviderProductStats stats = loadProviderProductStats(providerId);
 
-        // Calcular valor total del catálogo
-        BigDecimal totalCatalogValue = allProducts.stream()
-                .map(p -> p.getPrice().multiply(BigDecimal.valueOf(p.getStockQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new QuickMetricsDTO(stats.totalProducts, stats.activeProducts,
+                stats.totalProducts - stats.activeProducts,
+                stats.productsInStock, stats.totalProducts - stats.productsInStock, stats.featuredProducts,
+                stats.totalCatalogValue, stats.averagePrice(), stats.physicalProducts, stats.digitalProducts);
+    }
 
-        // Calcular precio promedio
-        BigDecimal averagePrice = BigDecimal.ZERO;
-        if (!allProducts.isEmpty()) {
-            BigDecimal totalPrice = allProducts.stream()
-                    .map(Product::getPrice)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            averagePrice = totalPrice.divide(BigDecimal.valueOf(allProducts.size()), 2, RoundingMode.HALF_UP);
+    /**
+     * Métricas del catálogo del proveedor calculadas por la base de datos en una
+     * sola consulta agregada
+     */
+    private ProviderProductStats loadProviderProductStats(Long providerId) {
+        List<Object[]> rows = productRepository.getProviderProductStatistics(providerId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Proveedor no encontrado con ID: " + providerId);
         }
-
-        return new QuickMetricsDTO(totalProducts, activeProducts, inactiveProducts,
-                productsInStock, productsOutOfStock, featuredProducts,
-                totalCatalogValue, averagePrice, physicalProducts, digitalProducts);
+        return new ProviderProductStats(rows.get(0));
     }
 
     /**
-     * Actualización masiva de precios
+     * Actualización masiva de precios.
+     * Se ejecuta por lotes de IDs con UPDATE set-based filtrado por proveedor; si
+     * algún lote no encuentra todos sus productos, la operación completa se revierte.
      */
     @Transactional
     public List<ProductCatalogResponseDTO> bulkUpdatePrices(Long providerId, ProductBulkUpdateDTO bulkUpdateDTO) {
@@ -1558,27 +1557,68 @@ public class ProductService {
             throw new RuntimeException("Proveedor no encontrado con ID: " + providerId);
         }
 
-        // Obtener todos los productos a actualizar
-        List<Product> productsToUpdate = productRepository.findAllById(bulkUpdateDTO.getProductIds());
-
-        // Validar que todos los productos pertenecen al proveedor
-        List<Product> invalidProducts = productsToUpdate.stream()
-                .filter(p -> !p.getProvider().getId().equals(providerId))
+        List<Long> productIds = bulkUpdateDTO.getProductIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
                 .collect(Collectors.toList());
+        if (productIds.size() > MAX_BULK_PRICE_PRODUCTS) {
+            throw new RuntimeException("No se pueden actualizar más de " + MAX_BULK_PRICE_PRODUCTS
+                    + " productos en una sola operación");
+        }
 
-        if (!invalidProducts.isEmpty()) {
-            throw new RuntimeException("Algunos productos no pertenecen al proveedor autenticado");
+        BigDecimal value = bulkUpdateDTO.getValue();
+        if (value == null || value.signum() <= 0) {
+            throw new RuntimeException("El valor de la actualización debe ser mayor a 0");
         }
 
-        // Guardar todos los productos actualizados
-        List<Product> updatedProducts = productsToUpdate;
-        List<Product> savedProducts = productRepository.saveAll(updatedProducts);
+        ProductBulkUpdateDTO.PriceRounding rounding = bulkUpdateDTO.getPriceRounding() != null
+                ? bulkUpdateDTO.getPriceRounding()
+                : ProductBulkUpdateDTO.PriceRounding.CENTS;
+
+        // Factor multiplicador para porcentajes, o precio fijo ya redondeado
+        BigDecimal factor = null;
+        BigDecimal fixedPrice = null;
+        switch (bulkUpdateDTO.getUpdateType()) {
+            case PRICE_INCREASE_PERCENTAGE:
+                factor = BigDecimal.ONE.add(value.movePointLeft(2));
+                break;
+            case PRICE_DECREASE_PERCENTAGE:
+                if (value.compareTo(BigDecimal.valueOf(100)) >= 0) {
+                    throw new RuntimeException("El porcentaje de descuento debe ser menor a 100");
+                }
+                factor = BigDecimal.ONE.subtract(value.movePointLeft(2));
+                break;
+            case PRICE_SET_FIXED:
+                fixedPrice = value.setScale(rounding.getScale(), RoundingMode.HALF_UP).setScale(2);
+                if (fixedPrice.signum() <= 0) {
+                    throw new RuntimeException("El precio redondeado debe ser mayor a 0");
+                }
+                break;
+            default:
+                throw new RuntimeException("Tipo de actualización no soportado para precios: "
+                        + bulkUpdateDTO.getUpdateType());
+        }
+
+        // Aplicar el cambio por lotes; el conteo de filas valida la propiedad de los productos
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < productIds.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + BULK_UPDATE_CHUNK_SIZE, productIds.size()));
+            int matched = factor != null
+                    ? productRepository.scalePrices(providerId, chunk, factor, rounding.getScale(), now)
+                    : productRepository.setPrices(providerId, chunk, fixedPrice, now);
+            if (matched != chunk.size()) {
+                throw new RuntimeException("Algunos productos no pertenecen al proveedor autenticado");
+            }
+        }
+
+        // Leer los productos actualizados en una sola consulta
+        List<Product> updatedProducts = productRepository.findCatalogViewByProviderIdAndIdIn(providerId, productIds);
 
         logger.info("Actualización masiva completada - {} productos actualizados, Razón: {}",
-                savedProducts.size(), bulkUpdateDTO.getReason());
+                updatedProducts.size(), bulkUpdateDTO.getReason());
 
         // Mapear a DTOs de respuesta
-        return savedProducts.stream()
+        return updatedProducts.stream()
                 .map(this::mapToCatalogResponseDTO)
                 .collect(Collectors.toList());
     }
@@ -1713,6 +1753,7 @@ public class ProductService {
         List<Product> updatedProducts = new ArrayList<>();
 
         for (Product product : productsToUpdate) {
+            Integer previousStock = product.getStockQuantity();
             switch (bulkUpdateDTO.getUpdateType()) {
                 case PRICE_INCREASE_PERCENTAGE:
                     if (bulkUpdateDTO.getValue() != null) {
@@ -1776,6 +1817,8 @@ public class ProductService {
 
             product.setUpdatedAt(LocalDateTime.now());
             updatedProducts.add(product);
+            inventoryLedgerService.record(product, InventoryMovementType.BULK_UPDATE, previousStock,
+                    bulkUpdateDTO.getReason());
         }
 
         // Guardar todos los productos actualizados
@@ -0,0 +1,147 @@
+package com.songstock.service;
+
+import com.songstock.entity.Product;
+import com.songstock.entity.Provider;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Listener de Hibernate que mantiene el ranking de proveedores.
+ *
+ * Recibe los cambios de productos (creación, eliminación, activación y cambios
+ * de precio o stock) y de proveedores solo después de que la transacción se
+ * confirma; en una actualización resta la contribución anterior del producto y
+ * suma la nueva.
+ */
+@Component
+public class ProviderLeaderboardListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProviderLeaderboardService providerLeaderboardService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return type == Product.class || type == Provider.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Product) {
+            Product product = (Product) entity;
+            providerLeaderboardService.adjustProduct(providerId(product.getProvider()), product.getIsActive(),
+                    product.getPrice(), product.getStockQuantity(), 1);
+        } else if (entity instanceof Provider) {
+            updateProvider((Provider) entity);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Product) {
+            Product product = (Product) entity;
+            providerLeaderboardService.adjustProduct(providerId(product.getProvider()), product.getIsActive(),
+                    product.getPrice(), product.getStockQuantity(), -1);
+        } else if (entity instanceof Provider) {
+            providerLeaderboardService.removeProvider(((Provider) entity).getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Provider) {
+            updateProvider((Provider) entity);
+            return;
+        }
+        if (!(entity instanceof Product)) {
+            return;
+        }
+
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // Sin estado anterior no se puede calcular el ajuste; la reconciliación lo corrige
+            return;
+        }
+        String[] properties = event.getPersister().getPropertyNames();
+
+        Product product = (Product) entity;
+        Long oldProviderId = providerId((Provider) value(properties, oldState, "provider"));
+        Boolean oldActive = (Boolean) value(properties, oldState, "isActive");
+        BigDecimal oldPrice = (BigDecimal) value(properties, oldState, "price");
+        Integer oldStock = (Integer) value(properties, oldState, "stockQuantity");
+        Long providerId = providerId(product.getProvider());
+
+        if (!Objects.equals(oldProviderId, providerId)
+                || Boolean.TRUE.equals(oldActive) != Boolean.TRUE.equals(product.getIsActive())
+                || !Objects.equals(oldPrice, product.getPrice())
+                || !Objects.equals(oldStock, product.getStockQuantity())) {
+            providerLeaderboardService.adjustProduct(oldProviderId, oldActive, oldPrice, oldStock, -1);
+            providerLeaderboardService.adjustProduct(providerId, product.getIsActive(), product.getPrice(),
+                    product.getStockQuantity(), 1);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // La transacción no se confirmó: no hay nada que ajustar
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // La transacción no se confirmó: no hay nada que ajustar
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // La transacción no se confirmó: no hay nada que ajustar
+    }
+
+    private void updateProvider(Provider provider) {
+        Long userId = provider.getUser() != null ? provider.getUser().getId() : null;
+        providerLeaderboardService.updateProvider(provider.getId(), userId, provider.getBusinessName());
+    }
+
+    private Long providerId(Provider provider) {
+        return provider != null ? provider.getId() : null;
+    }
+
+    private Object value(String[] properties, Object[] state, String property) {
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i].equals(property)) {
+                return state[i];
+            }
+        }
+        return null;
+    }
+}
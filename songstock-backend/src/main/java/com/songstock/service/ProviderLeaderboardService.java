@@ -0,0 +1,377 @@
+package com.songstock.service;
+
+import com.songstock.dto.ProviderLeaderboardDTO;
+import com.songstock.repository.ProductRepository;
+import com.songstock.repository.ProviderRepository;
+import com.songstock.repository.SalesDailyRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Ranking en memoria de proveedores por productos activos, valor del inventario
+ * activo e ingresos por ventas.
+ *
+ * - Cada métrica tiene un índice ordenado, así que el top N se lee recorriendo
+ * los primeros N elementos, sin consultas.
+ * - {@link ProviderLeaderboardListener} lo ajusta al confirmarse cambios de
+ * productos y proveedores; las ventas llegan desde el rollup de ventas.
+ * - Se reconcilia periódicamente contra la base de datos para corregir desvíos,
+ * por ejemplo ajustes de stock hechos con consultas masivas. Los ajustes que
+ * llegan mientras se reconstruye se aplican también al ranking nuevo; un ajuste
+ * confirmado justo antes de leer la base de datos pero recibido después puede
+ * contarse dos veces hasta la siguiente reconciliación.
+ * - Los ajustes comparten el ranking (se coordinan por proveedor); la lectura
+ * del top y el reemplazo del ranking lo toman en exclusiva, así el top es una
+ * foto consistente: ningún proveedor aparece dos veces ni se salta.
+ */
+@Service
+public class ProviderLeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderLeaderboardService.class);
+
+    public enum Metric {
+        ACTIVE_PRODUCTS, INVENTORY_VALUE, SALES
+    }
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SalesDailyRollupRepository salesDailyRollupRepository;
+
+    /** Ranking vigente; null hasta la primera reconciliación */
+    private final AtomicReference<Board> board = new AtomicReference<>();
+
+    /** Compartido por los ajustes; exclusivo para leer el top y reemplazar el ranking */
+    private final ReadWriteLock boardLock = new ReentrantReadWriteLock();
+
+    /** Ajustes recibidos durante una reconstrucción; null si no hay ninguna en curso */
+    private List<Consumer<Board>> rebuildChanges;
+
+    // ================= Lectura =================
+
+    /**
+     * Top N de proveedores según la métrica. Solo incluye proveedores con valor
+     * mayor que cero.
+     */
+    public List<ProviderLeaderboardDTO> getTop(Metric metric, int limit) {
+        Board current = board.get();
+        if (current == null) {
+            reconcile();
+            current = board.get();
+        }
+
+        List<ProviderLeaderboardDTO> top = new ArrayList<>(Math.min(Math.max(limit, 0), 100));
+        boardLock.writeLock().lock();
+        try {
+            current = board.get();
+            for (RankKey key : current.rankings.get(metric)) {
+                if (top.size() >= limit || key.value <= 0) {
+                    break;
+                }
+                Standing standing = current.standings.get(key.providerId);
+                if (standing != null) {
+                    top.add(standing.toDTO(top.size() + 1));
+                }
+            }
+        } finally {
+            boardLock.writeLock().unlock();
+        }
+        return top;
+    }
+
+    // ================= Ajustes incrementales =================
+
+    /**
+     * Registrar o actualizar los datos de identificación de un proveedor
+     */
+    public void updateProvider(Long providerId, Long userId, String businessName) {
+        if (providerId == null) {
+            return;
+        }
+        change(current -> {
+            Standing standing = current.standing(providerId);
+            standing.userId = userId;
+            standing.businessName = businessName;
+        });
+    }
+
+    /**
+     * Quitar un proveedor eliminado del ranking
+     */
+    public void removeProvider(Long providerId) {
+        if (providerId == null) {
+            return;
+        }
+        change(current -> {
+            Standing standing = current.standings.remove(providerId);
+            if (standing != null) {
+                synchronized (standing) {
+                    for (Metric metric : Metric.values()) {
+                        current.rankings.get(metric).remove(new RankKey(standing.value(metric), providerId));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Sumar (sign = 1) o restar (sign = -1) la contribución de un producto
+     */
+    public void adjustProduct(Long providerId, Boolean active, BigDecimal price, Integer stock, int sign) {
+        if (!Boolean.TRUE.equals(active)) {
+            return;
+        }
+        BigDecimal value = price != null && stock != null ? price.multiply(BigDecimal.valueOf(stock))
+                : BigDecimal.ZERO;
+        adjust(providerId, sign, sign * toCents(value), 0);
+    }
+
+    /**
+     * Aplicar cambios en los ingresos por ventas de los proveedores. Dentro de una
+     * transacción se aplican al confirmarse.
+     */
+    public void adjustSales(Map<Long, BigDecimal> revenueByProvider) {
+        if (revenueByProvider.isEmpty()) {
+            return;
+        }
+        Map<Long, BigDecimal> deltas = new HashMap<>(revenueByProvider);
+        Runnable apply = () -> deltas.forEach((providerId, revenue) -> adjust(providerId, 0, 0, toCents(revenue)));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void adjust(Long providerId, long products, long inventoryCents, long salesCents) {
+        if (providerId == null) {
+            return;
+        }
+        change(current -> {
+            Standing standing = current.standing(providerId);
+            synchronized (standing) {
+                for (Metric metric : Metric.values()) {
+                    current.rankings.get(metric).remove(new RankKey(standing.value(metric), providerId));
+                }
+                standing.activeProducts += products;
+                standing.inventoryCents += inventoryCents;
+                standing.salesCents += salesCents;
+                for (Metric metric : Metric.values()) {
+                    current.rankings.get(metric).add(new RankKey(standing.value(metric), providerId));
+                }
+            }
+        });
+    }
+
+    /**
+     * Aplicar un ajuste al ranking vigente y, si se está reconstruyendo, guardarlo
+     * para aplicarlo también al ranking nuevo
+     */
+    private void change(Consumer<Board> change) {
+        boardLock.readLock().lock();
+        try {
+            Board current = board.get();
+            if (current != null) {
+                change.accept(current);
+            }
+            List<Consumer<Board>> pending = rebuildChanges;
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            boardLock.readLock().unlock();
+        }
+    }
+
+    // ================= Reconciliación =================
+
+    /**
+     * Recalcular el ranking completo desde la base de datos
+     */
+    @Scheduled(fixedDelayString = "${leaderboard.providers.reconcile-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public synchronized void reconcile() {
+        boardLock.writeLock().lock();
+        try {
+            rebuildChanges = Collections.synchronizedList(new ArrayList<>());
+        } finally {
+            boardLock.writeLock().unlock();
+        }
+
+        Board fresh;
+        try {
+            fresh = load();
+        } catch (RuntimeException e) {
+            boardLock.writeLock().lock();
+            try {
+                rebuildChanges = null;
+            } finally {
+                boardLock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        // Los ajustes llegados durante la reconstrucción se aplican antes de publicarla
+        int replayed;
+        boardLock.writeLock().lock();
+        try {
+            replayed = rebuildChanges.size();
+            rebuildChanges.forEach(change -> change.accept(fresh));
+            rebuildChanges = null;
+            board.set(fresh);
+        } finally {
+            boardLock.writeLock().unlock();
+        }
+        logger.debug("Ranking de proveedores reconciliado - Proveedores: {}, Ajustes reaplicados: {}",
+                fresh.standings.size(), replayed);
+    }
+
+    /**
+     * Construir un ranking nuevo desde la base de datos
+     */
+    private Board load() {
+        Board fresh = new Board();
+
+        for (Object[] row : providerRepository.findAllIdentities()) {
+            Standing standing = fresh.standing((Long) row[0]);
+            standing.userId = (Long) row[1];
+            standing.businessName = (String) row[2];
+        }
+        for (Object[] row : productRepository.getActiveInventoryByProvider()) {
+            Standing standing = fresh.standing((Long) row[0]);
+            standing.activeProducts = row[1] != null ? ((Number) row[1]).longValue() : 0L;
+            standing.inventoryCents = row[2] != null ? toCents((BigDecimal) row[2]) : 0L;
+        }
+        for (Object[] row : salesDailyRollupRepository.sumRevenueByProvider()) {
+            Standing standing = fresh.standing((Long) row[0]);
+            standing.salesCents = row[1] != null ? toCents((BigDecimal) row[1]) : 0L;
+        }
+
+        for (Standing standing : fresh.standings.values()) {
+            for (Metric metric : Metric.values()) {
+                fresh.rankings.get(metric).add(new RankKey(standing.value(metric), standing.providerId));
+            }
+        }
+        return fresh;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValue();
+    }
+
+    /**
+     * Estado completo del ranking
+     */
+    private static final class Board {
+        private final ConcurrentHashMap<Long, Standing> standings = new ConcurrentHashMap<>();
+        private final Map<Metric, ConcurrentSkipListSet<RankKey>> rankings = new EnumMap<>(Metric.class);
+
+        private Board() {
+            for (Metric metric : Metric.values()) {
+                rankings.put(metric, new ConcurrentSkipListSet<>());
+            }
+        }
+
+        private Standing standing(Long providerId) {
+            return standings.computeIfAbsent(providerId, Standing::new);
+        }
+    }
+
+    /**
+     * Métricas de un proveedor; los importes se guardan en centavos
+     */
+    private static final class Standing {
+        private final Long providerId;
+        private volatile Long userId;
+        private volatile String businessName;
+        private long activeProducts;
+        private long inventoryCents;
+        private long salesCents;
+
+        private Standing(Long providerId) {
+            this.providerId = providerId;
+        }
+
+        private long value(Metric metric) {
+            switch (metric) {
+                case INVENTORY_VALUE:
+                    return inventoryCents;
+                case SALES:
+                    return salesCents;
+                case ACTIVE_PRODUCTS:
+                default:
+                    return activeProducts;
+            }
+        }
+
+        private synchronized ProviderLeaderboardDTO toDTO(int rank) {
+            return new ProviderLeaderboardDTO(rank, providerId, userId, businessName, activeProducts,
+                    BigDecimal.valueOf(inventoryCents, 2), BigDecimal.valueOf(salesCents, 2));
+        }
+    }
+
+    /**
+     * Posición en el índice de una métrica: mayor valor primero y, a igual valor,
+     * menor ID de proveedor
+     */
+    private static final class RankKey implements Comparable<RankKey> {
+        private final long value;
+        private final long providerId;
+
+        private RankKey(long value, long providerId) {
+            this.value = value;
+            this.providerId = providerId;
+        }
+
+        @Override
+        public int compareTo(RankKey other) {
+            int byValue = Long.compare(other.value, value);
+            return byValue != 0 ? byValue : Long.compare(providerId, other.providerId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RankKey)) {
+                return false;
+            }
+            RankKey that = (RankKey) o;
+            return value == that.value && providerId == that.providerId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(value) * 31 + Long.hashCode(providerId);
+        }
+    }
+}
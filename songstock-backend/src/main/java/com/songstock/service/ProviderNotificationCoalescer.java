@@ -0,0 +1,160 @@
+package com.songstock.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Etapa de agrupación de las notificaciones de nuevo pedido para proveedores.
+ *
+ * - Al confirmarse una orden se acumulan sus items por proveedor, en lugar de
+ * crear una notificación por item.
+ * - Cada ventana corta se vacía el acumulado: cada proveedor recibe una sola
+ * notificación con las órdenes, el número de productos y sus títulos, aunque
+ * haya recibido varias órdenes en la ventana.
+ *
+ * - Si falla la creación, el lote vuelve al acumulado (junto a lo que haya
+ * llegado mientras tanto) y se reintenta en la siguiente ventana, hasta un
+ * número máximo de intentos.
+ *
+ * Lo acumulado vive en memoria; una caída antes de vaciar la ventana pierde
+ * esas notificaciones, pero las órdenes siguen en la bandeja del proveedor.
+ */
+@Service
+public class ProviderNotificationCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderNotificationCoalescer.class);
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Value("${notifications.provider.coalesce-max-attempts:3}")
+    private int maxAttempts;
+
+    /** Notificaciones pendientes por ID de proveedor */
+    private final ConcurrentHashMap<Long, PendingProviderNotification> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Acumular los productos de una orden para su proveedor cuando se confirme
+     * la transacción en curso
+     */
+    public void enqueue(Long providerId, Long orderId, String orderNumber, List<String> productTitles) {
+        afterCommit(() -> pending.compute(providerId, (id, current) -> {
+            PendingProviderNotification next = current != null ? current : new PendingProviderNotification(id);
+            next.add(orderId, orderNumber, productTitles);
+            return next;
+        }));
+    }
+
+    /**
+     * Crear una notificación por proveedor con lo acumulado en la ventana
+     */
+    @Scheduled(fixedDelayString = "${notifications.provider.coalesce-window-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<PendingProviderNotification> batch = new ArrayList<>();
+        for (Long providerId : pending.keySet()) {
+            PendingProviderNotification notification = pending.remove(providerId);
+            if (notification != null) {
+                batch.add(notification);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            notificationService.createProviderOrderNotifications(batch);
+        } catch (RuntimeException e) {
+            logger.error("No se pudieron crear las notificaciones de {} proveedores: {}", batch.size(),
+                    e.getMessage());
+            requeue(batch);
+        }
+    }
+
+    /**
+     * Devolver al acumulado un lote que no se pudo guardar, delante de lo que
+     * haya llegado para cada proveedor desde que se vació la ventana
+     */
+    private void requeue(List<PendingProviderNotification> batch) {
+        for (PendingProviderNotification failed : batch) {
+            if (++failed.attempts >= maxAttempts) {
+                logger.error("Se descarta la notificación del proveedor {} ({} órdenes) tras {} intentos",
+                        failed.getProviderId(), failed.orders.size(), failed.attempts);
+                continue;
+            }
+            pending.merge(failed.getProviderId(), failed, (newer, older) -> {
+                older.addAll(newer);
+                return older;
+            });
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Órdenes y productos pendientes de notificar a un proveedor
+     */
+    public static final class PendingProviderNotification {
+        private final Long providerId;
+        private final Map<Long, String> orders = new LinkedHashMap<>();
+        private final List<String> productTitles = new ArrayList<>();
+        /** Intentos fallidos de crear la notificación */
+        private int attempts;
+
+        private PendingProviderNotification(Long providerId) {
+            this.providerId = providerId;
+        }
+
+        private void add(Long orderId, String orderNumber, List<String> titles) {
+            orders.put(orderId, orderNumber);
+            productTitles.addAll(titles);
+        }
+
+        private void addAll(PendingProviderNotification other) {
+            orders.putAll(other.orders);
+            productTitles.addAll(other.productTitles);
+        }
+
+        public Long getProviderId() {
+            return providerId;
+        }
+
+        /** Números de orden por ID, en orden de llegada */
+        public Map<Long, String> getOrders() {
+            return Collections.unmodifiableMap(orders);
+        }
+
+        public List<String> getProductTitles() {
+            return Collections.unmodifiableList(productTitles);
+        }
+    }
+}
@@ -372,14 +372,12 @@ public class ProviderService {
     // ================= MÉTODOS DE UTILIDAD =================
 
     /**
-     * Limpiar invitaciones expiradas (tarea programada)
+     * Marcar como expiradas las invitaciones pendientes vencidas, sin cargarlas.
+     * La tarea programada es {@link HousekeepingService}.
      */
-    public void cleanupExpiredInvitations() {
-        List<ProviderInvitation> expired = invitationRepository.findExpiredInvitations(LocalDateTime.now());
-        expired.forEach(invitation -> {
-            invitation.setStatus(InvitationStatus.EXPIRED);
-        });
-        invitationRepository.saveAll(expired);
+    public int cleanupExpiredInvitations() {
+        return invitationRepository.expirePendingInvitations(LocalDateTime.now(), InvitationStatus.PENDING,
+                InvitationStatus.EXPIRED);
     }
 
     /**
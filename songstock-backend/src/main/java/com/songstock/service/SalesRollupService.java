@@ -0,0 +1,451 @@
+package com.songstock.service;
+
+import com.songstock.dto.SalesRollupDTO;
+import com.songstock.entity.Album;
+import com.songstock.entity.Genre;
+import com.songstock.entity.ProductType;
+import com.songstock.entity.Provider;
+import com.songstock.entity.SalesDailyRollupId;
+import com.songstock.exception.BusinessException;
+import com.songstock.repository.AlbumRepository;
+import com.songstock.repository.GenreRepository;
+import com.songstock.repository.OrderItemRepository;
+import com.songstock.repository.ProviderRepository;
+import com.songstock.repository.SalesDailyRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio del rollup diario de ventas.
+ *
+ * - Mantiene los agregados de forma incremental: se toma la contribución de las
+ * órdenes antes de un cambio, se vuelve a tomar después y solo se aplica la
+ * diferencia con un upsert por lotes.
+ * - Los reportes de proveedor y admin consultan únicamente el rollup, nunca las
+ * filas de órdenes. Las órdenes distintas se cuentan aparte, por agrupación
+ * (sales_daily_order_counts): no se pueden sumar desde las filas del rollup.
+ * - Permite reconstruir un rango de fechas desde las órdenes (carga inicial o
+ * corrección).
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    public enum GroupBy {
+        DAY, PROVIDER, ALBUM, GENRE, PRODUCT_TYPE
+    }
+
+    /** Género usado para los álbumes sin género */
+    private static final long NO_GENRE = 0L;
+
+    /** provider_id de los conteos de órdenes de todos los proveedores */
+    private static final long ALL_PROVIDERS = 0L;
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    /** Items que cuentan como venta, para reconstruir un rango de fechas */
+    private static final String SALES_LINES_FROM = "FROM order_items oi "
+            + "JOIN orders o ON o.id = oi.order_id "
+            + "JOIN products p ON p.id = oi.product_id "
+            + "JOIN albums a ON a.id = p.album_id "
+            + "WHERE o.created_at >= ? AND o.created_at < ? "
+            + "AND oi.status <> 'REJECTED' AND o.status NOT IN ('CANCELLED', 'REJECTED') ";
+
+    private static final String UPSERT_SQL = "INSERT INTO sales_daily_rollups "
+            + "(sales_date, provider_id, album_id, genre_id, product_type, units, revenue, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE units = units + VALUES(units), revenue = revenue + VALUES(revenue), "
+            + "updated_at = VALUES(updated_at)";
+
+    private static final String UPSERT_ORDER_COUNT_SQL = "INSERT INTO sales_daily_order_counts "
+            + "(sales_date, dimension, provider_id, dimension_key, orders_count) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE orders_count = orders_count + VALUES(orders_count)";
+
+    private static final String DELETE_RANGE_SQL = "DELETE FROM sales_daily_rollups WHERE sales_date BETWEEN ? AND ?";
+
+    private static final String DELETE_ORDER_COUNTS_RANGE_SQL = "DELETE FROM sales_daily_order_counts "
+            + "WHERE sales_date BETWEEN ? AND ?";
+
+    /** Órdenes distintas por clave de una agrupación: %s es la columna de la clave */
+    private static final String SELECT_ORDER_COUNTS_SQL = "SELECT %s, SUM(orders_count) FROM sales_daily_order_counts "
+            + "WHERE dimension = ? AND provider_id = ? AND sales_date BETWEEN ? AND ? GROUP BY %s";
+
+    private static final String REBUILD_RANGE_SQL = "INSERT INTO sales_daily_rollups "
+            + "(sales_date, provider_id, album_id, genre_id, product_type, units, revenue, updated_at) "
+            + "SELECT DATE(o.created_at), oi.provider_id, p.album_id, COALESCE(a.genre_id, 0), p.product_type, "
+            + "SUM(oi.quantity), SUM(oi.subtotal), CURRENT_TIMESTAMP "
+            + SALES_LINES_FROM
+            + "GROUP BY DATE(o.created_at), oi.provider_id, p.album_id, COALESCE(a.genre_id, 0), p.product_type";
+
+    /**
+     * Conteo de órdenes de una agrupación: %1$s es la expresión de provider_id
+     * (0 o el proveedor), %2$s la de la clave y %3$s las columnas de agrupación
+     * además del día (sin constantes: en GROUP BY serían posiciones)
+     */
+    private static final String REBUILD_ORDER_COUNTS_SQL = "INSERT INTO sales_daily_order_counts "
+            + "(sales_date, dimension, provider_id, dimension_key, orders_count) "
+            + "SELECT DATE(o.created_at), ?, %1$s, %2$s, COUNT(DISTINCT o.id) "
+            + SALES_LINES_FROM
+            + "GROUP BY DATE(o.created_at)%3$s";
+
+    /** Expresión SQL de dimension_key en la reconstrucción, por agrupación */
+    private static final Map<GroupBy, String> REBUILD_KEY_EXPRESSIONS = Map.of(
+            GroupBy.DAY, "''",
+            GroupBy.PROVIDER, "CAST(oi.provider_id AS CHAR)",
+            GroupBy.ALBUM, "CAST(p.album_id AS CHAR)",
+            GroupBy.GENRE, "CAST(COALESCE(a.genre_id, 0) AS CHAR)",
+            GroupBy.PRODUCT_TYPE, "p.product_type");
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private SalesDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProviderLeaderboardService providerLeaderboardService;
+
+    // ================= Mantenimiento incremental =================
+
+    /**
+     * Registrar en el rollup una orden recién creada
+     */
+    public void recordNewOrder(Long orderId) {
+        applyChangesSince(new ContributionSnapshot(List.of(orderId), new Contribution()));
+    }
+
+    /**
+     * Tomar la contribución actual de las órdenes al rollup, antes de modificarlas
+     */
+    public ContributionSnapshot snapshot(Collection<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        return new ContributionSnapshot(ids, loadContribution(ids));
+    }
+
+    /**
+     * Aplicar al rollup la diferencia entre la contribución tomada en el snapshot
+     * y la contribución actual de las mismas órdenes
+     */
+    public void applyChangesSince(ContributionSnapshot before) {
+        if (before == null || before.orderIds.isEmpty()) {
+            return;
+        }
+
+        Contribution after = loadContribution(before.orderIds);
+
+        Set<SalesDailyRollupId> keys = new HashSet<>(before.contribution.totals.keySet());
+        keys.addAll(after.totals.keySet());
+
+        List<Object[]> deltas = new ArrayList<>();
+        for (SalesDailyRollupId key : keys) {
+            Totals previous = before.contribution.totals.getOrDefault(key, Totals.EMPTY);
+            Totals current = after.totals.getOrDefault(key, Totals.EMPTY);
+            int units = current.units - previous.units;
+            BigDecimal revenue = current.revenue.subtract(previous.revenue);
+            if (units != 0 || revenue.signum() != 0) {
+                deltas.add(new Object[] { key, units, revenue });
+            }
+        }
+
+        Set<OrderCountKey> orderCountKeys = new HashSet<>(before.contribution.orders.keySet());
+        orderCountKeys.addAll(after.orders.keySet());
+
+        List<Object[]> orderCountDeltas = new ArrayList<>();
+        for (OrderCountKey key : orderCountKeys) {
+            int orders = after.orders.getOrDefault(key, Set.of()).size()
+                    - before.contribution.orders.getOrDefault(key, Set.of()).size();
+            if (orders != 0) {
+                orderCountDeltas.add(new Object[] { key, orders });
+            }
+        }
+
+        if (deltas.isEmpty() && orderCountDeltas.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            SalesDailyRollupId key = (SalesDailyRollupId) delta[0];
+            ps.setDate(1, Date.valueOf(key.getSalesDate()));
+            ps.setLong(2, key.getProviderId());
+            ps.setLong(3, key.getAlbumId());
+            ps.setLong(4, key.getGenreId());
+            ps.setString(5, key.getProductType().name());
+            ps.setInt(6, (Integer) delta[1]);
+            ps.setBigDecimal(7, (BigDecimal) delta[2]);
+            ps.setTimestamp(8, now);
+        });
+        jdbcTemplate.batchUpdate(UPSERT_ORDER_COUNT_SQL, orderCountDeltas, orderCountDeltas.size(), (ps, delta) -> {
+            OrderCountKey key = (OrderCountKey) delta[0];
+            ps.setDate(1, Date.valueOf(key.salesDate));
+            ps.setString(2, key.dimension.name());
+            ps.setLong(3, key.providerId);
+            ps.setString(4, key.dimensionKey);
+            ps.setInt(5, (Integer) delta[1]);
+        });
+
+        Map<Long, BigDecimal> revenueByProvider = new HashMap<>();
+        for (Object[] delta : deltas) {
+            revenueByProvider.merge(((SalesDailyRollupId) delta[0]).getProviderId(), (BigDecimal) delta[2],
+                    BigDecimal::add);
+        }
+        providerLeaderboardService.adjustSales(revenueByProvider);
+        logger.debug("Rollup de ventas: {} filas ajustadas para {} órdenes", deltas.size(), before.orderIds.size());
+    }
+
+    /**
+     * Contribución de las órdenes agrupada por clave del rollup, y órdenes
+     * distintas por clave de cada agrupación
+     */
+    private Contribution loadContribution(List<Long> orderIds) {
+        Contribution contribution = new Contribution();
+        if (orderIds.isEmpty()) {
+            return contribution;
+        }
+
+        for (Object[] row : orderItemRepository.findSalesLinesByOrderIdIn(orderIds)) {
+            Long orderId = (Long) row[0];
+            LocalDateTime createdAt = (LocalDateTime) row[1];
+            SalesDailyRollupId key = new SalesDailyRollupId(createdAt.toLocalDate(), (Long) row[2], (Long) row[3],
+                    row[4] != null ? (Long) row[4] : NO_GENRE, (ProductType) row[5]);
+            Totals entry = contribution.totals.computeIfAbsent(key, k -> new Totals());
+            entry.units += (Integer) row[6];
+            entry.revenue = entry.revenue.add((BigDecimal) row[7]);
+
+            // La orden cuenta una vez por clave, para todos los proveedores y para el suyo
+            for (GroupBy dimension : GroupBy.values()) {
+                String dimensionKey = dimensionKey(dimension, key);
+                for (long providerId : new long[] { ALL_PROVIDERS, key.getProviderId() }) {
+                    contribution.orders.computeIfAbsent(
+                            new OrderCountKey(key.getSalesDate(), dimension, providerId, dimensionKey),
+                            k -> new HashSet<>()).add(orderId);
+                }
+            }
+        }
+        return contribution;
+    }
+
+    private String dimensionKey(GroupBy dimension, SalesDailyRollupId key) {
+        switch (dimension) {
+            case PROVIDER:
+                return String.valueOf(key.getProviderId());
+            case ALBUM:
+                return String.valueOf(key.getAlbumId());
+            case GENRE:
+                return String.valueOf(key.getGenreId());
+            case PRODUCT_TYPE:
+                return key.getProductType().name();
+            case DAY:
+            default:
+                return "";
+        }
+    }
+
+    // ================= Reportes =================
+
+    /**
+     * Ventas agregadas en un rango de fechas, opcionalmente de un solo proveedor
+     */
+    @Transactional(readOnly = true)
+    public List<SalesRollupDTO> getSales(Long providerId, LocalDate from, LocalDate to, GroupBy groupBy) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        validateRange(start, end);
+
+        GroupBy dimension = groupBy != null ? groupBy : GroupBy.DAY;
+        Map<String, Long> orders = countOrders(dimension, providerId, start, end);
+        switch (dimension) {
+            case PROVIDER: {
+                List<Object[]> rows = rollupRepository.sumByProvider(providerId, start, end);
+                Map<Long, String> names = providerRepository.findAllById(ids(rows)).stream()
+                        .collect(Collectors.toMap(Provider::getId, Provider::getBusinessName));
+                return toDTOs(rows, orders, key -> names.get((Long) key));
+            }
+            case ALBUM: {
+                List<Object[]> rows = rollupRepository.sumByAlbum(providerId, start, end);
+                Map<Long, String> titles = albumRepository.findAllById(ids(rows)).stream()
+                        .collect(Collectors.toMap(Album::getId, Album::getTitle));
+                return toDTOs(rows, orders, key -> titles.get((Long) key));
+            }
+            case GENRE: {
+                List<Object[]> rows = rollupRepository.sumByGenre(providerId, start, end);
+                Map<Long, String> names = genreRepository.findAllById(ids(rows)).stream()
+                        .collect(Collectors.toMap(Genre::getId, Genre::getName));
+                return toDTOs(rows, orders, key -> ((Long) key) == NO_GENRE ? "Sin género" : names.get((Long) key));
+            }
+            case PRODUCT_TYPE:
+                return toDTOs(rollupRepository.sumByProductType(providerId, start, end), orders, key -> null);
+            case DAY:
+            default:
+                return toDTOs(rollupRepository.sumByDay(providerId, start, end), orders, key -> null);
+        }
+    }
+
+    /**
+     * Órdenes distintas por clave de la agrupación (la fecha, para DAY)
+     */
+    private Map<String, Long> countOrders(GroupBy dimension, Long providerId, LocalDate from, LocalDate to) {
+        String keyColumn = dimension == GroupBy.DAY ? "sales_date" : "dimension_key";
+        Map<String, Long> orders = new HashMap<>();
+        jdbcTemplate.query(String.format(SELECT_ORDER_COUNTS_SQL, keyColumn, keyColumn), rs -> {
+            orders.put(rs.getString(1), rs.getLong(2));
+        }, dimension.name(), providerId != null ? providerId : ALL_PROVIDERS, Date.valueOf(from), Date.valueOf(to));
+        return orders;
+    }
+
+    /**
+     * Reconstruir el rollup de un rango de fechas a partir de las órdenes
+     */
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        int deleted = jdbcTemplate.update(DELETE_RANGE_SQL, Date.valueOf(from), Date.valueOf(to));
+        int inserted = jdbcTemplate.update(REBUILD_RANGE_SQL, start, end);
+
+        jdbcTemplate.update(DELETE_ORDER_COUNTS_RANGE_SQL, Date.valueOf(from), Date.valueOf(to));
+        for (GroupBy dimension : GroupBy.values()) {
+            String keyExpression = REBUILD_KEY_EXPRESSIONS.get(dimension);
+            String keyGroupBy = dimension == GroupBy.DAY ? "" : ", " + keyExpression;
+            // Todos los proveedores (provider_id = 0) y cada proveedor
+            jdbcTemplate.update(String.format(REBUILD_ORDER_COUNTS_SQL, ALL_PROVIDERS, keyExpression, keyGroupBy),
+                    dimension.name(), start, end);
+            jdbcTemplate.update(String.format(REBUILD_ORDER_COUNTS_SQL, "oi.provider_id", keyExpression,
+                    ", oi.provider_id" + keyGroupBy), dimension.name(), start, end);
+        }
+
+        logger.info("Rollup de ventas reconstruido - Rango: {} a {}, Filas eliminadas: {}, Filas generadas: {}",
+                from, to, deleted, inserted);
+        return inserted;
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new BusinessException("Debe indicar la fecha inicial y final");
+        }
+        if (from.isAfter(to)) {
+            throw new BusinessException("La fecha inicial no puede ser posterior a la final");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BusinessException("El rango no puede superar " + MAX_RANGE_DAYS + " días");
+        }
+    }
+
+    private List<Long> ids(List<Object[]> rows) {
+        return rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+    }
+
+    private List<SalesRollupDTO> toDTOs(List<Object[]> rows, Map<String, Long> orders,
+            Function<Object, String> labeler) {
+        return rows.stream()
+                .map(row -> {
+                    String key = String.valueOf(row[0]);
+                    return new SalesRollupDTO(key, labeler.apply(row[0]), ((Number) row[1]).longValue(),
+                            (BigDecimal) row[2], orders.getOrDefault(key, 0L));
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Contribución de un conjunto de órdenes al rollup en un momento dado
+     */
+    public static final class ContributionSnapshot {
+        private final List<Long> orderIds;
+        private final Contribution contribution;
+
+        private ContributionSnapshot(List<Long> orderIds, Contribution contribution) {
+            this.orderIds = orderIds;
+            this.contribution = contribution;
+        }
+    }
+
+    /**
+     * Totales por clave del rollup y órdenes por clave de cada agrupación
+     */
+    private static final class Contribution {
+        private final Map<SalesDailyRollupId, Totals> totals = new HashMap<>();
+        private final Map<OrderCountKey, Set<Long>> orders = new HashMap<>();
+    }
+
+    /**
+     * Totales de una clave del rollup
+     */
+    private static final class Totals {
+        private static final Totals EMPTY = new Totals();
+
+        private int units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+    }
+
+    /**
+     * Clave de sales_daily_order_counts
+     */
+    private static final class OrderCountKey {
+        private final LocalDate salesDate;
+        private final GroupBy dimension;
+        private final long providerId;
+        private final String dimensionKey;
+
+        private OrderCountKey(LocalDate salesDate, GroupBy dimension, long providerId, String dimensionKey) {
+            this.salesDate = salesDate;
+            this.dimension = dimension;
+            this.providerId = providerId;
+            this.dimensionKey = dimensionKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof OrderCountKey)) {
+                return false;
+            }
+            OrderCountKey that = (OrderCountKey) o;
+            return providerId == that.providerId && dimension == that.dimension
+                    && salesDate.equals(that.salesDate) && dimensionKey.equals(that.dimensionKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(salesDate, dimension, providerId, dimensionKey);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.songstock.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lista en memoria de tokens JWT revocados, consultada por
+ * {@code AuthTokenFilter} en cada petición sin ir a la base de datos.
+ *
+ * - Tokens revocados uno a uno (logout), por hash del token y hasta su
+ * expiración.
+ * - Revocación de todas las sesiones de un usuario: se rechazan los tokens
+ * emitidos en segundos anteriores (el iat del JWT tiene resolución de
+ * segundos). Los emitidos en el mismo segundo se revocan por el hash de su
+ * sesión, para no rechazar los que se emitan justo después de la revocación.
+ * - Se carga al arrancar con las sesiones inactivas no expiradas de
+ * user_sessions y se sincroniza periódicamente con las desactivadas por otras
+ * instancias.
+ * - Cada entrada se elimina cuando vence el token que revoca.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String SELECT_REVOKED_SQL = "SELECT session_token, expires_at FROM user_sessions "
+            + "WHERE is_active = FALSE AND expires_at > ?";
+
+    private static final String SELECT_REVOKED_SINCE_SQL = SELECT_REVOKED_SQL + " AND updated_at >= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpirationMs;
+
+    /** Expiración (epoch ms) por hash de token revocado */
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /** Por usuario: tokens emitidos antes de este segundo (epoch s) están revocados */
+    private final ConcurrentHashMap<Long, RevokedBefore> revokedBefore = new ConcurrentHashMap<>();
+
+    /** Inicio de la última sincronización con la base de datos */
+    private volatile LocalDateTime lastSync;
+
+    @PostConstruct
+    public void load() {
+        meterRegistry.gaugeMapSize("songstock.auth.revoked_tokens", List.of(), revokedTokens);
+        LocalDateTime now = LocalDateTime.now();
+        int loaded = loadRevoked(SELECT_REVOKED_SQL, Timestamp.valueOf(now));
+        lastSync = now;
+        logger.info("Lista de revocación cargada - Tokens revocados: {}", loaded);
+    }
+
+    /**
+     * Revocar un token (logout) hasta su expiración
+     */
+    public void revokeToken(String tokenHash, Date expiresAt) {
+        if (expiresAt != null && expiresAt.getTime() > System.currentTimeMillis()) {
+            revokedTokens.put(tokenHash, expiresAt.getTime());
+        }
+    }
+
+    /**
+     * Revocar los tokens de un usuario emitidos en segundos anteriores al actual
+     */
+    public void revokeAllForUser(Long userId) {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        // Vence cuando ya no puede quedar ningún token emitido antes de la revocación
+        revokedBefore.put(userId, new RevokedBefore(nowSeconds, System.currentTimeMillis() + jwtExpirationMs));
+    }
+
+    /**
+     * Indicar si un token está revocado, por su hash o por una revocación de
+     * todas las sesiones del usuario posterior a su emisión
+     */
+    public boolean isRevoked(String tokenHash, Long userId, Date issuedAt) {
+        if (revokedTokens.containsKey(tokenHash)) {
+            return true;
+        }
+        RevokedBefore revoked = revokedBefore.get(userId);
+        return revoked != null && issuedAt != null && issuedAt.getTime() / 1000 < revoked.issuedAtSeconds;
+    }
+
+    /**
+     * Incorporar las sesiones desactivadas desde la última sincronización (por
+     * ejemplo, logouts atendidos por otra instancia)
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval-ms:30000}",
+            initialDelayString = "${auth.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        // Un segundo de solapamiento por la resolución de updated_at
+        int loaded = loadRevoked(SELECT_REVOKED_SINCE_SQL, Timestamp.valueOf(now),
+                Timestamp.valueOf(lastSync.minusSeconds(1)));
+        lastSync = now;
+        if (loaded > 0) {
+            logger.debug("Lista de revocación sincronizada - Sesiones desactivadas: {}", loaded);
+        }
+    }
+
+    /**
+     * Eliminar las entradas cuyos tokens ya expiraron
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedBefore.values().removeIf(revoked -> revoked.expiresAtMillis <= now);
+    }
+
+    private int loadRevoked(String sql, Object... params) {
+        int[] count = { 0 };
+        jdbcTemplate.query(sql, rs -> {
+            revokedTokens.put(rs.getString(1),
+                    rs.getTimestamp(2).toLocalDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            count[0]++;
+        }, params);
+        return count[0];
+    }
+
+    private static final class RevokedBefore {
+        private final long issuedAtSeconds;
+        private final long expiresAtMillis;
+
+        private RevokedBefore(long issuedAtSeconds, long expiresAtMillis) {
+            this.issuedAtSeconds = issuedAtSeconds;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.songstock.service;
+
+import com.songstock.entity.Provider;
+import com.songstock.entity.User;
+import com.songstock.entity.UserRole;
+import com.songstock.entity.VerificationStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Listener de Hibernate que mantiene el rollup de crecimiento de usuarios.
+ *
+ * A diferencia de {@link DashboardCounterListener}, se ejecuta durante el
+ * flush, dentro de la transacción que modifica el usuario o proveedor: el
+ * ajuste del rollup se confirma o se revierte junto con el cambio.
+ */
+@Component
+public class UserGrowthRollupListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserGrowthRollupService userGrowthRollupService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        adjust(event.getEntity(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        adjust(event.getEntity(), -1);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // Sin estado anterior no se puede calcular el ajuste; la reconstrucción lo corrige
+            return;
+        }
+        String[] properties = event.getPersister().getPropertyNames();
+
+        if (entity instanceof User) {
+            User user = (User) entity;
+            UserRole oldRole = (UserRole) value(properties, oldState, "role");
+            LocalDateTime oldCreatedAt = (LocalDateTime) value(properties, oldState, "createdAt");
+            if (oldRole != user.getRole() || !Objects.equals(oldCreatedAt, user.getCreatedAt())) {
+                userGrowthRollupService.adjustRegistration(oldRole, oldCreatedAt, -1);
+                userGrowthRollupService.adjustRegistration(user.getRole(), user.getCreatedAt(), 1);
+            }
+        } else if (entity instanceof Provider) {
+            Provider provider = (Provider) entity;
+            VerificationStatus oldStatus = (VerificationStatus) value(properties, oldState, "verificationStatus");
+            LocalDateTime oldDate = (LocalDateTime) value(properties, oldState, "verificationDate");
+            if (oldStatus != provider.getVerificationStatus()
+                    || !Objects.equals(oldDate, provider.getVerificationDate())) {
+                userGrowthRollupService.adjustVerification(oldStatus, oldDate, -1);
+                userGrowthRollupService.adjustVerification(provider.getVerificationStatus(),
+                        provider.getVerificationDate(), 1);
+            }
+        }
+    }
+
+    private void adjust(Object entity, int sign) {
+        if (entity instanceof User) {
+            User user = (User) entity;
+            userGrowthRollupService.adjustRegistration(user.getRole(), user.getCreatedAt(), sign);
+        } else if (entity instanceof Provider) {
+            Provider provider = (Provider) entity;
+            userGrowthRollupService.adjustVerification(provider.getVerificationStatus(),
+                    provider.getVerificationDate(), sign);
+        }
+    }
+
+    private Object value(String[] properties, Object[] state, String property) {
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i].equals(property)) {
+                return state[i];
+            }
+        }
+        return null;
+    }
+}
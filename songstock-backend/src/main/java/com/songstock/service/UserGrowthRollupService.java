@@ -0,0 +1,223 @@
+package com.songstock.service;
+
+import com.songstock.dto.UserGrowthDTO;
+import com.songstock.entity.UserGrowthEventType;
+import com.songstock.entity.UserRole;
+import com.songstock.entity.VerificationStatus;
+import com.songstock.exception.BusinessException;
+import com.songstock.repository.UserGrowthDailyRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio del rollup diario de crecimiento de usuarios.
+ *
+ * - {@link UserGrowthRollupListener} lo ajusta dentro de la misma transacción
+ * que registra, modifica o elimina usuarios y proveedores.
+ * - Los reportes y los contadores mensuales del dashboard suman unas pocas
+ * filas del rollup en lugar de recorrer las tablas de usuarios y proveedores.
+ * - Si el rollup está vacío al arrancar se carga desde las tablas existentes;
+ * también se puede reconstruir un rango de fechas bajo demanda.
+ */
+@Service
+public class UserGrowthRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserGrowthRollupService.class);
+
+    public enum GroupBy {
+        DAY, MONTH
+    }
+
+    private static final int MAX_DAILY_RANGE_DAYS = 366;
+
+    private static final int MAX_MONTHLY_RANGE_DAYS = 3660;
+
+    private static final String UPSERT_SQL = "INSERT INTO user_growth_daily_rollups "
+            + "(stat_date, event_type, segment, users_count, updated_at) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE users_count = users_count + VALUES(users_count), "
+            + "updated_at = VALUES(updated_at)";
+
+    private static final String DELETE_RANGE_SQL = "DELETE FROM user_growth_daily_rollups "
+            + "WHERE stat_date BETWEEN ? AND ?";
+
+    private static final String REBUILD_REGISTRATIONS_SQL = "INSERT INTO user_growth_daily_rollups "
+            + "(stat_date, event_type, segment, users_count, updated_at) "
+            + "SELECT DATE(u.created_at), 'REGISTRATION', u.role, COUNT(*), CURRENT_TIMESTAMP FROM users u "
+            + "WHERE u.created_at >= ? AND u.created_at < ? "
+            + "GROUP BY DATE(u.created_at), u.role";
+
+    private static final String REBUILD_VERIFICATIONS_SQL = "INSERT INTO user_growth_daily_rollups "
+            + "(stat_date, event_type, segment, users_count, updated_at) "
+            + "SELECT DATE(p.verification_date), 'VERIFICATION', p.verification_status, COUNT(*), CURRENT_TIMESTAMP "
+            + "FROM providers p "
+            + "WHERE p.verification_status IN ('VERIFIED', 'REJECTED') "
+            + "AND p.verification_date >= ? AND p.verification_date < ? "
+            + "GROUP BY DATE(p.verification_date), p.verification_status";
+
+    /** Fecha inicial usada para la carga completa del rollup */
+    private static final LocalDate BACKFILL_START = LocalDate.of(2000, 1, 1);
+
+    @Autowired
+    private UserGrowthDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${user-growth.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    // ================= Mantenimiento incremental =================
+
+    /**
+     * Sumar (sign = 1) o restar (sign = -1) el registro de un usuario
+     */
+    public void adjustRegistration(UserRole role, LocalDateTime createdAt, int sign) {
+        if (role == null || createdAt == null) {
+            return;
+        }
+        upsert(createdAt.toLocalDate(), UserGrowthEventType.REGISTRATION, role.name(), sign);
+    }
+
+    /**
+     * Sumar o restar la verificación o rechazo de un proveedor. Los proveedores
+     * pendientes no cuentan.
+     */
+    public void adjustVerification(VerificationStatus status, LocalDateTime verificationDate, int sign) {
+        if (verificationDate == null
+                || (status != VerificationStatus.VERIFIED && status != VerificationStatus.REJECTED)) {
+            return;
+        }
+        upsert(verificationDate.toLocalDate(), UserGrowthEventType.VERIFICATION, status.name(), sign);
+    }
+
+    private void upsert(LocalDate date, UserGrowthEventType eventType, String segment, int delta) {
+        jdbcTemplate.update(UPSERT_SQL, Date.valueOf(date), eventType.name(), segment, delta,
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    // ================= Reportes =================
+
+    /**
+     * Registros y verificaciones por día o por mes en un rango de fechas. Por
+     * defecto cubre los últimos 30 días.
+     */
+    @Transactional(readOnly = true)
+    public List<UserGrowthDTO> getGrowth(LocalDate from, LocalDate to, GroupBy groupBy) {
+        GroupBy grouping = groupBy != null ? groupBy : GroupBy.DAY;
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        validateRange(start, end, grouping == GroupBy.MONTH ? MAX_MONTHLY_RANGE_DAYS : MAX_DAILY_RANGE_DAYS);
+
+        Map<String, UserGrowthDTO> periods = new LinkedHashMap<>();
+        for (Object[] row : rollupRepository.sumByDay(start, end)) {
+            LocalDate date = (LocalDate) row[0];
+            String period = grouping == GroupBy.MONTH ? YearMonth.from(date).toString() : date.toString();
+            UserGrowthDTO dto = periods.computeIfAbsent(period, UserGrowthDTO::new);
+            add(dto, (UserGrowthEventType) row[1], (String) row[2], ((Number) row[3]).longValue());
+        }
+        return new ArrayList<>(periods.values());
+    }
+
+    /**
+     * Usuarios registrados en un rango de fechas (inclusive)
+     */
+    @Transactional(readOnly = true)
+    public long countRegistrations(LocalDate from, LocalDate to) {
+        return rollupRepository.sumEvents(UserGrowthEventType.REGISTRATION, null, from, to);
+    }
+
+    /**
+     * Proveedores verificados en un rango de fechas (inclusive)
+     */
+    @Transactional(readOnly = true)
+    public long countVerifiedProviders(LocalDate from, LocalDate to) {
+        return rollupRepository.sumEvents(UserGrowthEventType.VERIFICATION, VerificationStatus.VERIFIED.name(),
+                from, to);
+    }
+
+    private void add(UserGrowthDTO dto, UserGrowthEventType eventType, String segment, long count) {
+        if (eventType == UserGrowthEventType.REGISTRATION) {
+            dto.setTotalRegistrations(dto.getTotalRegistrations() + count);
+            if (UserRole.CUSTOMER.name().equals(segment)) {
+                dto.setCustomers(dto.getCustomers() + count);
+            } else if (UserRole.PROVIDER.name().equals(segment)) {
+                dto.setProviders(dto.getProviders() + count);
+            } else if (UserRole.ADMIN.name().equals(segment)) {
+                dto.setAdmins(dto.getAdmins() + count);
+            }
+        } else if (VerificationStatus.VERIFIED.name().equals(segment)) {
+            dto.setProvidersVerified(dto.getProvidersVerified() + count);
+        } else if (VerificationStatus.REJECTED.name().equals(segment)) {
+            dto.setProvidersRejected(dto.getProvidersRejected() + count);
+        }
+    }
+
+    // ================= Reconstrucción =================
+
+    /**
+     * Reconstruir el rollup de un rango de fechas a partir de usuarios y
+     * proveedores
+     */
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        validateRange(from, to, MAX_MONTHLY_RANGE_DAYS);
+        return rebuildRange(from, to);
+    }
+
+    /**
+     * Cargar el rollup completo al arrancar cuando está vacío (primer despliegue
+     * con datos existentes)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup || rollupRepository.count() > 0) {
+            return;
+        }
+        int rows = rebuildRange(BACKFILL_START, LocalDate.now());
+        logger.info("Rollup de crecimiento de usuarios cargado desde los datos existentes - Filas: {}", rows);
+    }
+
+    private int rebuildRange(LocalDate from, LocalDate to) {
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+
+        int deleted = jdbcTemplate.update(DELETE_RANGE_SQL, Date.valueOf(from), Date.valueOf(to));
+        int inserted = jdbcTemplate.update(REBUILD_REGISTRATIONS_SQL, start, end)
+                + jdbcTemplate.update(REBUILD_VERIFICATIONS_SQL, start, end);
+
+        logger.info("Rollup de crecimiento reconstruido - Rango: {} a {}, Filas eliminadas: {}, Filas generadas: {}",
+                from, to, deleted, inserted);
+        return inserted;
+    }
+
+    private void validateRange(LocalDate from, LocalDate to, int maxDays) {
+        if (from == null || to == null) {
+            throw new BusinessException("Debe indicar la fecha inicial y final");
+        }
+        if (from.isAfter(to)) {
+            throw new BusinessException("La fecha inicial no puede ser posterior a la final");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new BusinessException("El rango no puede superar " + maxDays + " días");
+        }
+    }
+}
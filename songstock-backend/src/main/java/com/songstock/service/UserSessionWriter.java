@@ -0,0 +1,273 @@
+package com.songstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Escritura asíncrona y por lotes de las sesiones de usuario creadas en el
+ * login.
+ *
+ * - El login solo encola la sesión; un hilo propio las inserta con INSERT de
+ * varias filas, así la latencia del login no incluye la escritura.
+ * - La cola es acotada: si está llena, la sesión se inserta en el hilo del
+ * login (contrapresión) en lugar de descartarse.
+ * - Los logouts de sesiones que todavía están en la cola las marcan como
+ * inactivas antes de insertarlas.
+ * - IP y user agent llegan del cliente: se recortan al tamaño de sus columnas.
+ * Si aun así falla el INSERT del lote, se reintenta fila por fila para que una
+ * sesión inválida no arrastre a las demás.
+ *
+ * Métricas: songstock.sessions.queue.size, songstock.sessions.written,
+ * songstock.sessions.sync_fallback, songstock.sessions.dropped (sesiones que no
+ * se pudieron guardar) y songstock.sessions.batch (tiempo por lote).
+ */
+@Service
+public class UserSessionWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSessionWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO user_sessions (user_id, session_token, refresh_token, "
+            + "expires_at, is_active, ip_address, user_agent, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /** Tamaño de la columna ip_address */
+    private static final int MAX_IP_ADDRESS_LENGTH = 45;
+
+    private static final int MAX_USER_AGENT_LENGTH = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.sessions.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${auth.sessions.batch-size:200}")
+    private int batchSize;
+
+    @Value("${auth.sessions.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    private BlockingQueue<PendingSession> queue;
+
+    /** Sesiones encoladas todavía no insertadas, por hash del token */
+    private final ConcurrentHashMap<String, PendingSession> pendingByToken = new ConcurrentHashMap<>();
+
+    /** Se toma mientras se inserta un lote y al marcar sesiones encoladas */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private Thread writer;
+    private volatile boolean running = true;
+
+    private Counter writtenCounter;
+    private Counter fallbackCounter;
+    private Counter droppedCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.gauge("songstock.sessions.queue.size", queue, BlockingQueue::size);
+        writtenCounter = meterRegistry.counter("songstock.sessions.written");
+        fallbackCounter = meterRegistry.counter("songstock.sessions.sync_fallback");
+        droppedCounter = meterRegistry.counter("songstock.sessions.dropped");
+        batchTimer = meterRegistry.timer("songstock.sessions.batch");
+
+        writer = new Thread(this::run, "user-session-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Encolar una sesión nueva. Los tokens deben llegar ya como hash.
+     */
+    public void enqueue(Long userId, String sessionTokenHash, String refreshTokenHash, LocalDateTime expiresAt,
+            String ipAddress, String userAgent) {
+        PendingSession session = new PendingSession(userId, sessionTokenHash, refreshTokenHash, expiresAt,
+                truncate(ipAddress, MAX_IP_ADDRESS_LENGTH), truncate(userAgent, MAX_USER_AGENT_LENGTH),
+                LocalDateTime.now());
+        pendingByToken.put(sessionTokenHash, session);
+        if (queue.offer(session)) {
+            return;
+        }
+
+        // Cola llena: se escribe en el hilo del login para no perder la sesión
+        fallbackCounter.increment();
+        writeBatch(Collections.singletonList(session));
+    }
+
+    /**
+     * Marcar como inactiva una sesión que sigue en la cola. Al volver, la sesión
+     * está encolada (y se insertará inactiva) o ya está en la base de datos.
+     */
+    public void deactivatePending(String sessionTokenHash) {
+        writeLock.lock();
+        try {
+            PendingSession session = pendingByToken.get(sessionTokenHash);
+            if (session != null) {
+                session.active = false;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Marcar como inactivas las sesiones encoladas de un usuario
+     *
+     * @return Hashes de los tokens de las sesiones desactivadas
+     */
+    public List<String> deactivatePendingForUser(Long userId) {
+        List<String> deactivated = new ArrayList<>();
+        writeLock.lock();
+        try {
+            pendingByToken.forEach((sessionTokenHash, session) -> {
+                if (session.userId.equals(userId)) {
+                    session.active = false;
+                    deactivated.add(sessionTokenHash);
+                }
+            });
+        } finally {
+            writeLock.unlock();
+        }
+        return deactivated;
+    }
+
+    private void run() {
+        List<PendingSession> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSession first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingSession> batch) {
+        writeLock.lock();
+        try {
+            batchTimer.record(() -> insert(batch));
+            writtenCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                drop(batch.get(0), e);
+            } else {
+                logger.warn("Falló el INSERT de {} sesiones, se reintenta fila por fila: {}", batch.size(),
+                        e.getMessage());
+                insertEach(batch);
+            }
+        } finally {
+            batch.forEach(session -> pendingByToken.remove(session.sessionTokenHash, session));
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Insertar las sesiones de un lote fallido una a una; solo se pierden las
+     * que fallan por sí mismas
+     */
+    private void insertEach(List<PendingSession> batch) {
+        for (PendingSession session : batch) {
+            try {
+                insert(Collections.singletonList(session));
+                writtenCounter.increment();
+            } catch (RuntimeException e) {
+                drop(session, e);
+            }
+        }
+    }
+
+    private void drop(PendingSession session, RuntimeException e) {
+        droppedCounter.increment();
+        logger.error("No se pudo guardar la sesión del usuario {}: {}", session.userId, e.getMessage());
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.length() > maxLength ? trimmed.substring(0, maxLength) : trimmed;
+    }
+
+    private void insert(List<PendingSession> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL);
+        List<Object> params = new ArrayList<>(batch.size() * 8);
+        for (int i = 0; i < batch.size(); i++) {
+            PendingSession session = batch.get(i);
+            sql.append(i > 0 ? ", " : "").append(ROW_PLACEHOLDERS);
+            params.add(session.userId);
+            params.add(session.sessionTokenHash);
+            params.add(session.refreshTokenHash);
+            params.add(Timestamp.valueOf(session.expiresAt));
+            params.add(session.active);
+            params.add(session.ipAddress);
+            params.add(session.userAgent);
+            params.add(Timestamp.valueOf(session.createdAt));
+        }
+        jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /**
+     * Detener el hilo después de insertar lo que quede en la cola
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static final class PendingSession {
+        private final Long userId;
+        private final String sessionTokenHash;
+        private final String refreshTokenHash;
+        private final LocalDateTime expiresAt;
+        private final String ipAddress;
+        private final String userAgent;
+        private final LocalDateTime createdAt;
+        private volatile boolean active = true;
+
+        private PendingSession(Long userId, String sessionTokenHash, String refreshTokenHash,
+                LocalDateTime expiresAt, String ipAddress, String userAgent, LocalDateTime createdAt) {
+            this.userId = userId;
+            this.sessionTokenHash = sessionTokenHash;
+            this.refreshTokenHash = refreshTokenHash;
+            this.expiresAt = expiresAt;
+            this.ipAddress = ipAddress;
+            this.userAgent = userAgent;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.songstock.service;
+
+import com.songstock.dto.UserManagementResponseDTO;
+import com.songstock.dto.UserSearchFilterDTO;
+import com.songstock.entity.*;
+import com.songstock.mapper.UserManagementMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que los listados administrativos de usuarios se resuelvan con un
+ * número constante de sentencias SQL, sin una consulta de proveedor por usuario.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import({ AdminUserService.class, UserManagementMapper.class })
+class AdminUserServiceQueryCountTest {
+
+    @Autowired
+    private AdminUserService adminUserService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private DashboardStatisticsService dashboardStatisticsService;
+
+    @MockBean
+    private ProviderLeaderboardService providerLeaderboardService;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    private Statistics statistics;
+    private Category category;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        category = new Category("Vinilos", "Vinilos físicos");
+        entityManager.persist(category);
+    }
+
+    @Test
+    void allUsersPageUsesConstantStatementCount() {
+        UserSearchFilterDTO filter = new UserSearchFilterDTO();
+        filter.setSize(10);
+
+        createUsers(6);
+        long small = countStatements(() -> adminUserService.getAllUsers(filter));
+
+        createUsers(30);
+        long large = countStatements(() -> adminUserService.getAllUsers(filter));
+
+        // Página, conteo total y conteo agrupado de productos
+        assertThat(large).isEqualTo(small).isEqualTo(3);
+    }
+
+    @Test
+    void pendingProvidersUseConstantStatementCountAndMapProviderInfo() {
+        createUsers(3);
+        long small = countStatements(() -> adminUserService.getPendingProviders());
+
+        createUsers(30);
+        long large = countStatements(() -> adminUserService.getPendingProviders());
+
+        assertThat(large).isEqualTo(small).isEqualTo(2);
+
+        entityManager.clear();
+        List<UserManagementResponseDTO> providers = adminUserService.getPendingProviders();
+        assertThat(providers).hasSize(33)
+                .allSatisfy(dto -> {
+                    assertThat(dto.getProviderId()).isNotNull();
+                    assertThat(dto.getBusinessName()).startsWith("Discos ");
+                    assertThat(dto.getVerificationStatus()).isEqualTo(VerificationStatus.PENDING);
+                    assertThat(dto.getTotalProducts()).isEqualTo(1);
+                });
+    }
+
+    @Test
+    void searchAndRecentUsersUseConstantStatementCount() {
+        createUsers(3);
+        long smallSearch = countStatements(() -> adminUserService.searchUsers("songstock"));
+        long smallRecent = countStatements(() -> adminUserService.getRecentUsers(7));
+
+        createUsers(30);
+        long largeSearch = countStatements(() -> adminUserService.searchUsers("songstock"));
+        long largeRecent = countStatements(() -> adminUserService.getRecentUsers(7));
+
+        assertThat(largeSearch).isEqualTo(smallSearch).isEqualTo(2);
+        assertThat(largeRecent).isEqualTo(smallRecent).isEqualTo(2);
+        assertThat(adminUserService.searchUsers("songstock")).hasSize(66);
+    }
+
+    private long countStatements(Runnable call) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Crea {@code count} clientes y {@code count} proveedores, cada proveedor
+     * con un producto activo.
+     */
+    private void createUsers(int count) {
+        for (int i = 0; i < count; i++) {
+            int n = ++sequence;
+            entityManager.persist(new User("cliente" + n, "cliente" + n + "@songstock.com", "secret",
+                    "Cliente", "" + n, UserRole.CUSTOMER));
+
+            User providerUser = new User("proveedor" + n, "proveedor" + n + "@songstock.com", "secret",
+                    "Proveedor", "" + n, UserRole.PROVIDER);
+            entityManager.persist(providerUser);
+            Provider provider = new Provider(providerUser, "Discos " + n);
+            entityManager.persist(provider);
+
+            Artist artist = new Artist("Artista " + n, null, null, null);
+            entityManager.persist(artist);
+            Album album = new Album("Álbum " + n, artist, null, 1990);
+            entityManager.persist(album);
+            entityManager.persist(new Product(album, provider, category, "SKU-" + n, ProductType.PHYSICAL,
+                    new BigDecimal("50000.00"), 5));
+        }
+    }
+}
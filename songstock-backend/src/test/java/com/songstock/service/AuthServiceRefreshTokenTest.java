@@ -0,0 +1,148 @@
+package com.songstock.service;
+
+import com.songstock.dto.AuthResponseDTO;
+import com.songstock.entity.User;
+import com.songstock.entity.UserRole;
+import com.songstock.entity.UserSession;
+import com.songstock.repository.UserRepository;
+import com.songstock.repository.UserSessionRepository;
+import com.songstock.security.JwtUtils;
+import com.songstock.security.TokenHasher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Verifica la rotación de refresh tokens con renovaciones concurrentes (varias
+ * pestañas con el mismo token) y la revocación por reutilización.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "auth.refresh.reuse-grace-ms=30000"
+})
+@Import({ AuthService.class, JwtUtils.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthServiceRefreshTokenTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @MockBean
+    private AuthenticationManager authenticationManager;
+
+    @MockBean
+    private UserSessionWriter userSessionWriter;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    private UserSession session;
+    private String refreshToken;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(
+                new User("cliente", "cliente@songstock.com", "secret", "Ana", "Pérez", UserRole.CUSTOMER));
+
+        refreshToken = jwtUtils.generateRefreshToken(user.getUsername());
+        session = new UserSession(user, TokenHasher.hash(jwtUtils.generateTokenFromUsername(user.getUsername())),
+                LocalDateTime.now().plusDays(1));
+        session.setRefreshToken(TokenHasher.hash(refreshToken));
+        session.setIsActive(true);
+        session = userSessionRepository.save(session);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userSessionRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRefreshesWithSameTokenGetTheSamePair() throws Exception {
+        int tabs = 4;
+        CyclicBarrier barrier = new CyclicBarrier(tabs);
+        ExecutorService executor = Executors.newFixedThreadPool(tabs);
+        List<AuthResponseDTO> responses = new ArrayList<>();
+        try {
+            List<Future<AuthResponseDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < tabs; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await(5, TimeUnit.SECONDS);
+                    return authService.refreshToken(refreshToken);
+                }));
+            }
+            for (Future<AuthResponseDTO> future : futures) {
+                responses.add(future.get(15, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(responses).extracting(AuthResponseDTO::getToken).containsOnly(responses.get(0).getToken());
+        assertThat(responses).extracting(AuthResponseDTO::getRefreshToken)
+                .containsOnly(responses.get(0).getRefreshToken())
+                .doesNotContain(refreshToken);
+
+        UserSession stored = userSessionRepository.findById(session.getId()).orElseThrow();
+        assertThat(stored.getIsActive()).isTrue();
+        assertThat(stored.getRefreshToken()).isEqualTo(TokenHasher.hash(responses.get(0).getRefreshToken()));
+        assertThat(stored.getSessionToken()).isEqualTo(TokenHasher.hash(responses.get(0).getToken()));
+        verify(tokenRevocationService, never()).revokeToken(anyString(), any());
+
+        // El par compartido sigue sirviendo para la siguiente renovación
+        assertThat(authService.refreshToken(responses.get(0).getRefreshToken()).getRefreshToken())
+                .isNotEqualTo(responses.get(0).getRefreshToken());
+    }
+
+    @Test
+    void reuseAfterGracePeriodRevokesSession() {
+        AuthResponseDTO rotated = authService.refreshToken(refreshToken);
+
+        UserSession stored = userSessionRepository.findById(session.getId()).orElseThrow();
+        stored.setRotatedAt(stored.getRotatedAt().minusMinutes(1));
+        userSessionRepository.save(stored);
+
+        assertThatThrownBy(() -> authService.refreshToken(refreshToken))
+                .isInstanceOf(BadCredentialsException.class);
+
+        assertThat(userSessionRepository.findById(session.getId()).orElseThrow().getIsActive()).isFalse();
+        verify(tokenRevocationService).revokeToken(anyString(), any());
+        assertThatThrownBy(() -> authService.refreshToken(rotated.getRefreshToken()))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.songstock.service;
+
+import com.songstock.entity.IdempotencyRecord;
+import com.songstock.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que una clave de idempotencia en curso solo se vuelva a ejecutar
+ * cuando vence su lease, y que en ese caso la tome una sola petición.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "idempotency.in-progress-timeout-ms=30000"
+})
+@Import(IdempotencyService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final String HASH = "a".repeat(64);
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @AfterEach
+    void tearDown() {
+        idempotencyRecordRepository.deleteAll();
+    }
+
+    @Test
+    void runningRequestKeepsKeyWhileLeaseIsRenewed() {
+        IdempotencyService.Claim original = idempotencyService.begin("cliente", "clave-1", HASH);
+        assertThat(original.getDecision()).isEqualTo(IdempotencyService.Decision.PROCEED);
+
+        // La petición lleva más del timeout en ejecución, pero su instancia renueva el lease
+        IdempotencyRecord record = idempotencyRecordRepository.findById(original.getRecordId()).orElseThrow();
+        record.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+        record.setLeaseExpiresAt(LocalDateTime.now().minusSeconds(1));
+        idempotencyRecordRepository.save(record);
+        idempotencyService.renewLeases();
+
+        assertThat(idempotencyService.begin("cliente", "clave-1", HASH).getDecision())
+                .isEqualTo(IdempotencyService.Decision.IN_PROGRESS);
+    }
+
+    @Test
+    void retryAfterLeaseExpiresRunsAgain() {
+        IdempotencyRecord abandoned = abandonedRecord("clave-2");
+
+        IdempotencyService.Claim retry = idempotencyService.begin("cliente", "clave-2", HASH);
+
+        assertThat(retry.getDecision()).isEqualTo(IdempotencyService.Decision.PROCEED);
+        assertThat(retry.getRecordId()).isEqualTo(abandoned.getId());
+        assertThat(idempotencyRecordRepository.findById(abandoned.getId()).orElseThrow().getLeaseExpiresAt())
+                .isAfter(LocalDateTime.now());
+
+        // Un segundo reintento encuentra la clave tomada
+        assertThat(idempotencyService.begin("cliente", "clave-2", HASH).getDecision())
+                .isEqualTo(IdempotencyService.Decision.IN_PROGRESS);
+    }
+
+    @Test
+    void concurrentRetriesTakeOverAbandonedKeyOnce() throws Exception {
+        abandonedRecord("clave-3");
+
+        int retries = 4;
+        CyclicBarrier barrier = new CyclicBarrier(retries);
+        ExecutorService executor = Executors.newFixedThreadPool(retries);
+        try {
+            List<Future<IdempotencyService.Decision>> futures = new ArrayList<>();
+            for (int i = 0; i < retries; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await(5, TimeUnit.SECONDS);
+                    return idempotencyService.begin("cliente", "clave-3", HASH).getDecision();
+                }));
+            }
+
+            List<IdempotencyService.Decision> decisions = new ArrayList<>();
+            for (Future<IdempotencyService.Decision> future : futures) {
+                decisions.add(future.get(10, TimeUnit.SECONDS));
+            }
+            assertThat(decisions).containsOnlyOnce(IdempotencyService.Decision.PROCEED)
+                    .filteredOn(decision -> decision != IdempotencyService.Decision.PROCEED)
+                    .containsOnly(IdempotencyService.Decision.IN_PROGRESS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Clave en curso cuya instancia dejó de renovar el lease
+     */
+    private IdempotencyRecord abandonedRecord(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord("cliente", key, HASH, now.minusSeconds(1),
+                now.plusHours(24));
+        record.setCreatedAt(now.minusMinutes(1));
+        return idempotencyRecordRepository.saveAndFlush(record);
+    }
+}
@@ -0,0 +1,214 @@
+package com.songstock.service;
+
+import com.songstock.dto.OrderDTO;
+import com.songstock.dto.OrderItemBatchResultDTO;
+import com.songstock.dto.OrderItemBatchTransitionDTO;
+import com.songstock.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que los listados de órdenes se resuelvan con un número constante de
+ * sentencias SQL, sin importar cuántas órdenes tenga el usuario o proveedor.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import(OrderService.class)
+class OrderServiceQueryCountTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private SalesRollupService salesRollupService;
+
+    @MockBean
+    private ProviderNotificationCoalescer providerNotificationCoalescer;
+
+    private Statistics statistics;
+    private User customer;
+    private Provider provider;
+    private Category category;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        customer = new User("cliente", "cliente@songstock.com", "secret", "Ana", "Pérez", UserRole.CUSTOMER);
+        entityManager.persist(customer);
+
+        User providerUser = new User("proveedor", "proveedor@songstock.com", "secret", "Luis", "Gómez",
+                UserRole.PROVIDER);
+        entityManager.persist(providerUser);
+        provider = new Provider(providerUser, "Discos Luis");
+        entityManager.persist(provider);
+
+        category = new Category("Vinilos", "Vinilos físicos");
+        entityManager.persist(category);
+    }
+
+    @Test
+    void providerOrdersUseConstantStatementCount() {
+        createOrders(3, true);
+        long small = countStatements(() -> orderService.getProviderOrders(provider.getId()));
+
+        createOrders(30, true);
+        long large = countStatements(() -> orderService.getProviderOrders(provider.getId()));
+
+        assertThat(orderService.getProviderOrders(provider.getId())).hasSize(33);
+        assertThat(large).isEqualTo(small).isEqualTo(1);
+    }
+
+    @Test
+    void providerPendingOrdersUseConstantStatementCount() {
+        createOrders(3, true);
+        long small = countStatements(() -> orderService.getProviderPendingOrders(provider.getId()));
+
+        createOrders(30, true);
+        long large = countStatements(() -> orderService.getProviderPendingOrders(provider.getId()));
+
+        assertThat(large).isEqualTo(small).isEqualTo(1);
+    }
+
+    @Test
+    void userOrdersUseConstantStatementCountAndMapFullGraph() {
+        createOrders(3, false);
+        long small = countStatements(() -> orderService.getUserOrders(customer.getId()));
+
+        createOrders(30, false);
+        long large = countStatements(() -> orderService.getUserOrders(customer.getId()));
+
+        assertThat(large).isEqualTo(small).isEqualTo(1);
+
+        entityManager.clear();
+        List<OrderDTO> orders = orderService.getUserOrders(customer.getId());
+        assertThat(orders).hasSize(33);
+        assertThat(orders.get(0).getItems()).hasSize(2)
+                .allSatisfy(item -> {
+                    assertThat(item.getProviderName()).isEqualTo("Discos Luis");
+                    assertThat(item.getProduct().getArtistName()).startsWith("Artista ");
+                    assertThat(item.getProduct().getAlbumTitle()).startsWith("Álbum ");
+                });
+    }
+
+    @Test
+    void batchItemTransitionsRollUpOrderStatusOnce() {
+        createOrders(3, false);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> itemIds = new ArrayList<>();
+        entityManager.createQuery("SELECT oi.id FROM OrderItem oi ORDER BY oi.id", Long.class)
+                .getResultList().forEach(itemIds::add);
+        itemIds.add(-1L);
+
+        OrderItemBatchResultDTO accepted = orderService.transitionOrderItems(provider.getId(),
+                new OrderItemBatchTransitionDTO(itemIds, OrderItemStatus.ACCEPTED, null, null));
+        assertThat(accepted.getUpdatedItemIds()).hasSize(6);
+        assertThat(accepted.getFailures()).containsOnlyKeys(-1L);
+        assertThat(accepted.getUpdatedOrderIds()).isEmpty();
+
+        // El primer item se envía aparte; el lote debe reportarlo como transición inválida
+        orderService.transitionOrderItems(provider.getId(),
+                new OrderItemBatchTransitionDTO(itemIds.subList(0, 1), OrderItemStatus.SHIPPED, null, null));
+        long statements = countStatements(() -> {
+            OrderItemBatchResultDTO shipped = orderService.transitionOrderItems(provider.getId(),
+                    new OrderItemBatchTransitionDTO(itemIds.subList(0, 6), OrderItemStatus.SHIPPED, null, null));
+            assertThat(shipped.getUpdatedItemIds()).hasSize(5);
+            assertThat(shipped.getFailures()).containsOnlyKeys(itemIds.get(0));
+            assertThat(shipped.getUpdatedOrderIds()).hasSize(3);
+            entityManager.flush();
+        });
+
+        // Consulta de items, UPDATE de items, resumen por orden, carga de órdenes y un UPDATE por orden
+        assertThat(statements).isEqualTo(4 + 3);
+        entityManager.clear();
+        assertThat(entityManager.createQuery("SELECT o.status FROM Order o", OrderStatus.class).getResultList())
+                .containsOnly(OrderStatus.SHIPPED);
+    }
+
+    private long countStatements(Runnable call) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Crea órdenes con dos items cada una, cada item con su propio producto,
+     * álbum y artista para que cualquier carga perezosa se note en el conteo.
+     * Con {@code distinctCustomers} cada orden pertenece a un cliente distinto.
+     */
+    private void createOrders(int count, boolean distinctCustomers) {
+        for (int i = 0; i < count; i++) {
+            User owner = customer;
+            if (distinctCustomers) {
+                int n = ++sequence;
+                owner = new User("cliente" + n, "cliente" + n + "@songstock.com", "secret", "Cliente", "" + n,
+                        UserRole.CUSTOMER);
+                entityManager.persist(owner);
+            }
+            Order order = new Order();
+            order.setOrderNumber("ORD-TEST-" + (++sequence));
+            order.setUser(owner);
+            order.setPaymentMethod(PaymentMethod.CASH);
+            order.setStatus(OrderStatus.PENDING);
+            order.setTotal(BigDecimal.ZERO);
+            for (int j = 0; j < 2; j++) {
+                Product product = createProduct();
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(product);
+                item.setProvider(provider);
+                item.setQuantity(1);
+                item.setUnitPrice(product.getPrice());
+                item.setSubtotal(product.getPrice());
+                item.setStatus(OrderItemStatus.PENDING);
+                order.getItems().add(item);
+                order.setTotal(order.getTotal().add(item.getSubtotal()));
+            }
+            entityManager.persist(order);
+        }
+    }
+
+    private Product createProduct() {
+        int n = ++sequence;
+        Artist artist = new Artist("Artista " + n, null, null, null);
+        entityManager.persist(artist);
+        Album album = new Album("Álbum " + n, artist, null, 1990);
+        entityManager.persist(album);
+        Product product = new Product(album, provider, category, "SKU-" + n, ProductType.PHYSICAL,
+                new BigDecimal("50000.00"), 5);
+        entityManager.persist(product);
+        return product;
+    }
+}
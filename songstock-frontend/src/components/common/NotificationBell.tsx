@@ -5,7 +5,7 @@ import { useAuth } from '../../contexts/AuthContext';
 import { useNavigate, useLocation, useSearchParams } from 'react-router-dom';
 
 const NotificationBell = () => {
-  const { notifications, unreadCount, markAsRead } = useNotifications();
+  const { notifications, unreadCount, hasMore, loading, loadMore, markAsRead, markAllAsRead } = useNotifications();
   const { user } = useAuth();
   const location = useLocation();
   const [, setSearchParams] = useSearchParams();
@@ -48,8 +48,16 @@ const NotificationBell = () => {
         <>
           <div className="fixed inset-0 z-40" onClick={() => setIsOpen(false)} />
           <div className="absolute right-0 z-50 mt-2 w-80 bg-white rounded-lg shadow-xl border border-gray-200 max-h-96 overflow-y-auto">
-            <div className="p-4 border-b border-gray-200">
+            <div className="p-4 border-b border-gray-200 flex items-center justify-between">
               <h3 className="text-lg font-semibold">Notificaciones</h3>
+              {unreadCount > 0 && (
+                <button
+                  onClick={markAllAsRead}
+                  className="text-xs text-blue-600 hover:text-blue-800"
+                >
+                  Marcar todas como leídas
+                </button>
+              )}
             </div>
             
             {notifications.length === 0 ? (
@@ -78,6 +86,15 @@ const NotificationBell = () => {
                     </p>
                   </div>
                 ))}
+                {hasMore && (
+                  <button
+                    onClick={loadMore}
+                    disabled={loading}
+                    className="w-full p-3 text-sm text-blue-600 hover:bg-gray-50 disabled:text-gray-400"
+                  >
+                    {loading ? 'Cargando...' : 'Ver más'}
+                  </button>
+                )}
               </div>
             )}
           </div>
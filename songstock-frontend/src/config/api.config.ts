@@ -8,6 +8,7 @@ export const API_CONFIG = {
     LOGIN: '/auth/login',
     REGISTER: '/auth/register-provider',
     LOGOUT: '/auth/logout',
+    REFRESH: '/auth/refresh',
     
     // Users
     USERS: '/users',
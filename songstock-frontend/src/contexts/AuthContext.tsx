@@ -20,6 +20,7 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
       } catch (error) {
         console.error('Error parsing stored user:', error);
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
       }
     }
@@ -36,13 +37,16 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
       console.log('Login response received:', response);
 
       if (response.success && response.data) {
-        const { user: userData, token: userToken } = response.data;
+        const { user: userData, token: userToken, refreshToken } = response.data;
         
         setUser(userData);
         setToken(userToken);
         
         localStorage.setItem('token', userToken);
         localStorage.setItem('user', JSON.stringify(userData));
+        if (refreshToken) {
+          localStorage.setItem('refreshToken', refreshToken);
+        }
         
         console.log('Login successful, user set:', userData);
       } else {
@@ -53,6 +57,7 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
       setUser(null);
       setToken(null);
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('user');
       throw error;
     }
@@ -75,13 +80,16 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
       console.log('Register response received:', response);
 
       if (response.success && response.data) {
-        const { user: userData, token: userToken } = response.data;
+        const { user: userData, token: userToken, refreshToken } = response.data;
         
         setUser(userData);
         setToken(userToken);
         
         localStorage.setItem('token', userToken);
         localStorage.setItem('user', JSON.stringify(userData));
+        if (refreshToken) {
+          localStorage.setItem('refreshToken', refreshToken);
+        }
         
         console.log('Registration successful, user set:', userData);
       } else {
@@ -92,6 +100,7 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
       setUser(null);
       setToken(null);
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('user');
       throw error;
     }
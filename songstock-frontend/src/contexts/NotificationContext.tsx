@@ -6,8 +6,11 @@ interface NotificationContextType {
   notifications: Notification[];
   unreadCount: number;
   loading: boolean;
+  hasMore: boolean;
   refreshNotifications: () => Promise<void>;
+  loadMore: () => Promise<void>;
   markAsRead: (id: number) => Promise<void>;
+  markAllAsRead: () => Promise<void>;
 }
 
 const NotificationContext = createContext<NotificationContextType | undefined>(undefined);
@@ -17,17 +20,19 @@ export const NotificationProvider = ({ children }: { children: ReactNode }) => {
   const [notifications, setNotifications] = useState<Notification[]>([]);
   const [unreadCount, setUnreadCount] = useState(0);
   const [loading, setLoading] = useState(false);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
 
   const refreshNotifications = async () => {
     if (!user) return;
     
     setLoading(true);
     try {
-      const [notifs, count] = await Promise.all([
+      const [page, count] = await Promise.all([
         notificationService.getNotifications(),
         notificationService.getUnreadCount()
       ]);
-      setNotifications(notifs);
+      setNotifications(page.notifications);
+      setNextCursor(page.nextCursor);
       setUnreadCount(count);
     } catch (error) {
       console.error('Error loading notifications:', error);
@@ -36,25 +41,76 @@ export const NotificationProvider = ({ children }: { children: ReactNode }) => {
     }
   };
 
+  const loadMore = async () => {
+    if (!nextCursor || loading) return;
+
+    setLoading(true);
+    try {
+      const page = await notificationService.getNotifications(nextCursor);
+      setNotifications(prev => [
+        ...prev,
+        ...page.notifications.filter(n => !prev.some(p => p.id === n.id)),
+      ]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error loading notifications:', error);
+    } finally {
+      setLoading(false);
+    }
+  };
+
   const markAsRead = async (id: number) => {
     try {
       await notificationService.markAsRead(id);
-      await refreshNotifications();
+      // El contador se actualiza con el evento unread-delta del canal
+      setNotifications(prev => prev.map(n => (n.id === id ? { ...n, isRead: true } : n)));
     } catch (error) {
       console.error('Error marking as read:', error);
     }
   };
 
-  useEffect(() => {
-    if (user) {
-      refreshNotifications();
-      const interval = setInterval(refreshNotifications, 30000); // Refresh cada 30s
-      return () => clearInterval(interval);
+  const markAllAsRead = async () => {
+    try {
+      await notificationService.markAllAsRead();
+      setNotifications(prev => prev.map(n => (n.isRead ? n : { ...n, isRead: true })));
+    } catch (error) {
+      console.error('Error marking all as read:', error);
     }
+  };
+
+  useEffect(() => {
+    if (!user) return;
+
+    // Primera página una sola vez; después todo llega por el canal SSE
+    setLoading(true);
+    notificationService.getNotifications()
+      .then(page => {
+        setNotifications(page.notifications);
+        setNextCursor(page.nextCursor);
+      })
+      .catch(error => console.error('Error loading notifications:', error))
+      .finally(() => setLoading(false));
+
+    return notificationService.subscribe({
+      onNotification: notification =>
+        setNotifications(prev =>
+          prev.some(n => n.id === notification.id) ? prev : [notification, ...prev]),
+      onUnreadCount: setUnreadCount,
+      onUnreadDelta: delta => setUnreadCount(prev => Math.max(0, prev + delta)),
+    });
   }, [user]);
 
   return (
-    <NotificationContext.Provider value={{ notifications, unreadCount, loading, refreshNotifications, markAsRead }}>
+    <NotificationContext.Provider value={{
+      notifications,
+      unreadCount,
+      loading,
+      hasMore: nextCursor !== null,
+      refreshNotifications,
+      loadMore,
+      markAsRead,
+      markAllAsRead,
+    }}>
       {children}
     </NotificationContext.Provider>
   );
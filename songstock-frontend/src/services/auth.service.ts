@@ -71,7 +71,8 @@ class AuthService {
         message: response.data.message || 'Login successful',
         data: {
           user: this.normalizeUser(userData),
-          token: token
+          token: token,
+          refreshToken: response.data.data.refreshToken
         }
       };
     } catch (error: any) {
@@ -113,7 +114,8 @@ class AuthService {
         message: response.data.message || 'Registration successful',
         data: {
           user: this.normalizeUser(userData),
-          token: token
+          token: token,
+          refreshToken: response.data.data.refreshToken
         }
       };
     } catch (error: any) {
@@ -140,6 +142,7 @@ class AuthService {
 
   logout(): void {
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
   }
 }
@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { API_CONFIG } from '../config/api.config';
+import { API_CONFIG, API_ENDPOINTS as AUTH_ENDPOINTS } from '../config/api.config';
 
 
 export const API_ENDPOINTS = {
@@ -38,15 +38,53 @@ axiosInstance.interceptors.request.use(
   }
 );
 
+// Renovación en curso: las peticiones que reciben 401 a la vez esperan la misma
+let refreshPromise: Promise<string> | null = null;
+
+// Renovar el token con el refresh token (rota ambos; el anterior deja de servir)
+export const refreshAccessToken = (): Promise<string> => {
+  if (!refreshPromise) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshPromise = axios
+      .post(`${API_CONFIG.BASE_URL}${AUTH_ENDPOINTS.REFRESH}`, { refreshToken }, { timeout: API_CONFIG.TIMEOUT })
+      .then((response) => {
+        const { token, refreshToken: newRefreshToken } = response.data.data;
+        localStorage.setItem('token', token);
+        localStorage.setItem('refreshToken', newRefreshToken);
+        return token as string;
+      })
+      .finally(() => {
+        refreshPromise = null;
+      });
+  }
+  return refreshPromise;
+};
+
 // Response interceptor para manejar errores
 axiosInstance.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
     console.error('❌ API Error:', error.response?.status, error.response?.data);
     
     if (error.response?.status === 401) {
+      const originalRequest = error.config;
+
+      // Token expirado: renovar una vez con el refresh token y reintentar
+      if (originalRequest && !originalRequest._retry && localStorage.getItem('refreshToken')
+          && originalRequest.url !== AUTH_ENDPOINTS.LOGIN) {
+        originalRequest._retry = true;
+        try {
+          const token = await refreshAccessToken();
+          originalRequest.headers.Authorization = `Bearer ${token}`;
+          return axiosInstance(originalRequest);
+        } catch (refreshError) {
+          console.error('❌ Refresh token inválido:', refreshError);
+        }
+      }
+
       // Token inválido o expirado
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
       localStorage.removeItem('user');
       window.location.href = '/login';
     }
@@ -1,4 +1,5 @@
-import axiosInstance from '../services/axios.instance';
+import axiosInstance, { refreshAccessToken } from '../services/axios.instance';
+import { API_CONFIG } from '../config/api.config';
 import { ApiResponse } from '../types/api.types';
 
 export interface Notification {
@@ -11,9 +12,26 @@ export interface Notification {
   createdAt: string;
 }
 
+export interface NotificationPage {
+  notifications: Notification[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
+export interface NotificationStreamHandlers {
+  onNotification: (notification: Notification) => void;
+  onUnreadCount: (count: number) => void;
+  onUnreadDelta: (delta: number) => void;
+}
+
+const RECONNECT_DELAY_MS = 3000;
+const MAX_RECONNECT_DELAY_MS = 60000;
+
 class NotificationService {
-  async getNotifications(): Promise<Notification[]> {
-    const response = await axiosInstance.get<ApiResponse<Notification[]>>('/notifications');
+  async getNotifications(cursor?: string | null, size = 20, unreadOnly = false): Promise<NotificationPage> {
+    const response = await axiosInstance.get<ApiResponse<NotificationPage>>('/notifications', {
+      params: { cursor: cursor || undefined, size, unreadOnly },
+    });
     return response.data.data;
   }
 
@@ -26,9 +44,105 @@ class NotificationService {
     await axiosInstance.put(`/notifications/${id}/read`);
   }
 
-  async markAllAsRead(notifications: Notification[]): Promise<void> {
-    const unreadIds = notifications.filter(n => !n.isRead).map(n => n.id);
-    await Promise.all(unreadIds.map(id => this.markAsRead(id)));
+  async markManyAsRead(ids: number[]): Promise<number> {
+    const response = await axiosInstance.put<ApiResponse<number>>('/notifications/read', { ids });
+    return response.data.data;
+  }
+
+  async markAllAsRead(): Promise<number> {
+    const response = await axiosInstance.put<ApiResponse<number>>('/notifications/read-all');
+    return response.data.data;
+  }
+
+  /**
+   * Canal SSE de notificaciones. Se usa fetch en lugar de EventSource para poder
+   * enviar el token en la cabecera Authorization. Reconecta solo, reanudando
+   * desde el último evento recibido. Devuelve la función para cerrarlo.
+   */
+  subscribe(handlers: NotificationStreamHandlers): () => void {
+    const controller = new AbortController();
+    let lastEventId: string | null = null;
+    let delay = RECONNECT_DELAY_MS;
+    // Ya se renovó el token para este intento: otro 401 no se vuelve a renovar
+    let refreshed = false;
+
+    const dispatch = (event: string, data: string) => {
+      const payload = JSON.parse(data);
+      if (event === 'notification') handlers.onNotification(payload);
+      else if (event === 'unread-count') handlers.onUnreadCount(payload.unreadCount);
+      else if (event === 'unread-delta') handlers.onUnreadDelta(payload.delta);
+    };
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          const headers: Record<string, string> = { Accept: 'text/event-stream' };
+          const token = localStorage.getItem('token');
+          if (token) headers.Authorization = `Bearer ${token}`;
+          if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+
+          const response = await fetch(`${API_CONFIG.BASE_URL}/notifications/stream`, {
+            headers,
+            signal: controller.signal,
+          });
+          // Token de acceso vencido: se renueva (una sola vez) con el refresh token
+          if (response.status === 401 && !refreshed && localStorage.getItem('refreshToken')) {
+            refreshed = true;
+            try {
+              await refreshAccessToken();
+              continue;
+            } catch (error) {
+              console.error('Notification stream: refresh token inválido', error);
+              return;
+            }
+          }
+          // Sin permiso o sin sesión no tiene sentido reintentar
+          if (response.status >= 400 && response.status < 500) return;
+          if (!response.ok || !response.body) throw new Error(`HTTP ${response.status}`);
+
+          delay = RECONNECT_DELAY_MS;
+          refreshed = false;
+          const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+          let buffer = '';
+          let event = 'message';
+          let data: string[] = [];
+
+          for (;;) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += value;
+
+            let newline: number;
+            while ((newline = buffer.indexOf('\n')) >= 0) {
+              const line = buffer.slice(0, newline).replace(/\r$/, '');
+              buffer = buffer.slice(newline + 1);
+
+              if (line === '') {
+                if (data.length > 0) dispatch(event, data.join('\n'));
+                event = 'message';
+                data = [];
+              } else if (line.startsWith('event:')) {
+                event = line.slice(6).trim();
+              } else if (line.startsWith('data:')) {
+                data.push(line.slice(5).replace(/^ /, ''));
+              } else if (line.startsWith('id:')) {
+                lastEventId = line.slice(3).trim();
+              }
+              // Las líneas que empiezan con ':' son heartbeats
+            }
+          }
+        } catch (error) {
+          if (controller.signal.aborted) return;
+          console.error('Notification stream error:', error);
+        }
+
+        await new Promise(resolve => setTimeout(resolve, delay));
+        delay = Math.min(delay * 2, MAX_RECONNECT_DELAY_MS);
+      }
+    };
+
+    connect();
+    return () => controller.abort();
   }
 }
 
@@ -48,6 +48,7 @@ export interface AuthResponse {
   data: {
     user: User;
     token: string;
+    refreshToken?: string;
   };
 }
 